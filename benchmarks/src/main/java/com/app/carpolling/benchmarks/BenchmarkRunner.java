@@ -0,0 +1,67 @@
+package com.app.carpolling.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entry point of {@code benchmarks.jar}. Accepts the usual JMH command line
+ * (e.g. a benchmark regex, {@code -f}, {@code -wi}) and, unless {@code -rf}
+ * / {@code -rff} are given, writes results as JSON to
+ * {@code results/jmh-<timestamp>.json} so runs can be compared over time.
+ */
+public final class BenchmarkRunner {
+
+    private static final DateTimeFormatter RUN_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        // Values set on the builder take precedence over the parent, so only fill in what was not given
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+
+        if (commandLine.getIncludes().isEmpty()) {
+            options.include(BenchmarkRunner.class.getPackageName() + ".*");
+        }
+        if (!commandLine.getTimeUnit().hasValue()) {
+            options.timeUnit(TimeUnit.MICROSECONDS);
+        }
+        if (!commandLine.getWarmupIterations().hasValue()) {
+            options.warmupIterations(3);
+        }
+        if (!commandLine.getWarmupTime().hasValue()) {
+            options.warmupTime(TimeValue.seconds(2));
+        }
+        if (!commandLine.getMeasurementIterations().hasValue()) {
+            options.measurementIterations(5);
+        }
+        if (!commandLine.getMeasurementTime().hasValue()) {
+            options.measurementTime(TimeValue.seconds(2));
+        }
+        if (!commandLine.getForkCount().hasValue()) {
+            options.forks(1);
+        }
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            File resultsDir = new File("results");
+            resultsDir.mkdirs();
+            options.result(new File(resultsDir, "jmh-" + LocalDateTime.now().format(RUN_STAMP) + ".json").getPath());
+        }
+
+        new Runner(options.build()).run();
+    }
+}
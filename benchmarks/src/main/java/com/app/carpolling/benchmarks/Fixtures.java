@@ -0,0 +1,271 @@
+package com.app.carpolling.benchmarks;
+
+import com.app.carpolling.entity.Driver;
+import com.app.carpolling.entity.OutboxEventType;
+import com.app.carpolling.entity.Route;
+import com.app.carpolling.entity.RouteCityPrice;
+import com.app.carpolling.entity.RoutePoint;
+import com.app.carpolling.entity.RoutePrice;
+import com.app.carpolling.entity.Trip;
+import com.app.carpolling.entity.TripSeat;
+import com.app.carpolling.entity.TripStatus;
+import com.app.carpolling.entity.User;
+import com.app.carpolling.entity.UserRole;
+import com.app.carpolling.entity.Vehicle;
+import com.app.carpolling.entity.VehicleType;
+import com.app.carpolling.repository.BookingRepository;
+import com.app.carpolling.repository.RouteCityPriceRepository;
+import com.app.carpolling.repository.RoutePointRepository;
+import com.app.carpolling.repository.RoutePriceRepository;
+import com.app.carpolling.repository.RouteRepository;
+import com.app.carpolling.repository.TripRepository;
+import com.app.carpolling.repository.TripSeatRepository;
+import com.app.carpolling.repository.UserRepository;
+import com.app.carpolling.service.OutboxService;
+import com.app.carpolling.service.RouteService;
+
+import java.lang.invoke.MethodHandles;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory data set shaped like a busy intercity route: {@link #CITIES}
+ * cities with {@link #STOPS_PER_CITY} stops each, full point-to-point and
+ * city-to-city price matrices, and {@link #TRIPS} trips departing on {@link #TRAVEL_DATE},
+ * each with a driver, a vehicle and its seats.
+ */
+final class Fixtures {
+
+    static final String[] CITIES = {
+        "Bangalore", "Hosur", "Krishnagiri", "Vellore", "Kanchipuram", "Chennai"
+    };
+    static final int STOPS_PER_CITY = 3;
+    static final int TRIPS = 50;
+    static final int PASSENGER_SEATS = 6;
+    static final LocalDate TRAVEL_DATE = LocalDate.of(2025, 1, 15);
+    static final Long ROUTE_ID = 1L;
+    static final Long USER_ID = 1L;
+
+    final Route route;
+    final List<RoutePoint> routePoints = new ArrayList<>();
+    final List<RoutePrice> routePrices = new ArrayList<>();
+    final Map<String, RoutePrice> pricesByPointPair = new HashMap<>();
+    final List<RouteCityPrice> routeCityPrices = new ArrayList<>();
+    final Map<String, RouteCityPrice> pricesByCityPair = new HashMap<>();
+    final List<Trip> trips = new ArrayList<>();
+    final Map<Long, Trip> tripsById = new HashMap<>();
+    final Map<String, TripSeat> seatsByTripAndNumber = new HashMap<>();
+    final User passenger;
+
+    Fixtures() {
+        route = new Route();
+        route.setId(ROUTE_ID);
+        route.setRouteName("Bangalore to Chennai via Vellore");
+        route.setTotalDistance(350.0);
+        route.setEstimatedDuration(360);
+
+        long pointId = 1;
+        int sequence = 1;
+        for (int c = 0; c < CITIES.length; c++) {
+            for (int s = 1; s <= STOPS_PER_CITY; s++) {
+                RoutePoint point = new RoutePoint();
+                point.setId(pointId++);
+                point.setRoute(route);
+                point.setCity(CITIES[c]);
+                point.setSubLocation("Stop " + s);
+                point.setPointName(CITIES[c] + " - Stop " + s);
+                point.setSequenceOrder(sequence);
+                point.setDistanceFromStart((sequence - 1) * 20_000);
+                point.setTimeFromStart((sequence - 1) * 20);
+                point.setIsBoardingPoint(true);
+                point.setIsDropPoint(true);
+                routePoints.add(point);
+                sequence++;
+            }
+        }
+        route.setRoutePoints(routePoints);
+
+        long priceId = 1;
+        for (RoutePoint boarding : routePoints) {
+            for (RoutePoint drop : routePoints) {
+                if (boarding.getSequenceOrder() < drop.getSequenceOrder()) {
+                    RoutePrice price = new RoutePrice();
+                    price.setId(priceId++);
+                    price.setRoute(route);
+                    price.setBoardingPoint(boarding);
+                    price.setDropPoint(drop);
+                    price.setPrice(100.0 + (drop.getDistanceFromStart() - boarding.getDistanceFromStart()) / 1000.0 * 2);
+                    routePrices.add(price);
+                    pricesByPointPair.put(boarding.getId() + ":" + drop.getId(), price);
+                }
+            }
+        }
+
+        // Same prices as the point matrix between the first stops of each city
+        long cityPriceId = 1;
+        for (int b = 0; b < CITIES.length; b++) {
+            for (int d = b + 1; d < CITIES.length; d++) {
+                RouteCityPrice price = new RouteCityPrice();
+                price.setId(cityPriceId++);
+                price.setRoute(route);
+                price.setBoardingCity(CITIES[b]);
+                price.setDropCity(CITIES[d]);
+                price.setPrice(pricesByPointPair.get(
+                    routePoints.get(b * STOPS_PER_CITY).getId() + ":" + routePoints.get(d * STOPS_PER_CITY).getId())
+                    .getPrice());
+                routeCityPrices.add(price);
+                pricesByCityPair.put(CITIES[b] + ":" + CITIES[d], price);
+            }
+        }
+
+        passenger = user(USER_ID, "Passenger", "9000000000", UserRole.PASSENGER);
+
+        for (long tripId = 1; tripId <= TRIPS; tripId++) {
+            Driver driver = new Driver();
+            driver.setId(tripId);
+            driver.setUser(user(1000 + tripId, "Driver " + tripId, "98" + (10_000_000 + tripId), UserRole.DRIVER));
+            driver.setRating(4.0 + (tripId % 10) / 10.0);
+
+            Vehicle vehicle = new Vehicle();
+            vehicle.setId(tripId);
+            vehicle.setDriver(driver);
+            vehicle.setRegistrationNumber("KA01AB" + (1000 + tripId));
+            vehicle.setBrand("Toyota");
+            vehicle.setModel("Innova");
+            vehicle.setColor("White");
+            vehicle.setVehicleType(VehicleType.values()[(int) (tripId % VehicleType.values().length)]);
+            vehicle.setTotalSeats(PASSENGER_SEATS + 1);
+            vehicle.setPassengerSeats(PASSENGER_SEATS);
+            vehicle.setHasAc(true);
+
+            Trip trip = new Trip();
+            trip.setId(tripId);
+            trip.setRoute(route);
+            trip.setVehicle(vehicle);
+            trip.setDriver(driver);
+            trip.setDepartureTime(TRAVEL_DATE.atTime(5, 0).plusMinutes(tripId * 15));
+            trip.setEstimatedArrivalTime(trip.getDepartureTime().plusMinutes(route.getEstimatedDuration()));
+            trip.setAvailableSeats(PASSENGER_SEATS);
+            trip.setBookedSeats(0);
+            trip.setStatus(TripStatus.SCHEDULED);
+            trips.add(trip);
+            tripsById.put(tripId, trip);
+
+            for (int s = 1; s <= PASSENGER_SEATS; s++) {
+                TripSeat seat = new TripSeat();
+                seat.setId(tripId * 100 + s);
+                seat.setTrip(trip);
+                seat.setSeatNumber("S" + s);
+                seat.setIsAvailable(true);
+                seat.setIsDriverSeat(false);
+                seatsByTripAndNumber.put(tripId + ":S" + s, seat);
+            }
+        }
+    }
+
+    private static User user(Long id, String name, String phone, UserRole role) {
+        User user = new User();
+        user.setId(id);
+        user.setName(name);
+        user.setPhone(phone);
+        user.setPassword("not-used");
+        user.setRole(role);
+        user.setCreatedAt(LocalDateTime.of(2024, 6, 1, 0, 0));
+        return user;
+    }
+
+    RouteRepository routeRepository() {
+        return InMemoryRepositories.of(RouteRepository.class, Map.of(
+            "findById", args -> Optional.of(route),
+            "findRoutesByBoardingAndDropPoint", args -> List.of(route)
+        ));
+    }
+
+    RoutePointRepository routePointRepository() {
+        return InMemoryRepositories.of(RoutePointRepository.class, Map.of(
+            "findByRouteIdOrderBySequenceOrderAsc", args -> routePoints,
+            "findBoardingPoint", args -> findPoint((String) args[1], (String) args[2]),
+            "findDropPoint", args -> findPoint((String) args[1], (String) args[2])
+        ));
+    }
+
+    RoutePriceRepository routePriceRepository() {
+        return InMemoryRepositories.of(RoutePriceRepository.class, Map.of(
+            "findByRouteIdWithPoints", args -> routePrices,
+            "findByRouteAndPoints", args -> Optional.ofNullable(pricesByPointPair.get(args[1] + ":" + args[2]))
+        ));
+    }
+
+    RouteCityPriceRepository routeCityPriceRepository() {
+        return InMemoryRepositories.of(RouteCityPriceRepository.class, Map.of(
+            "findByRouteId", args -> routeCityPrices,
+            "findByRouteAndCities", args -> Optional.ofNullable(pricesByCityPair.get(args[1] + ":" + args[2]))
+        ));
+    }
+
+    TripRepository tripRepository() {
+        return InMemoryRepositories.of(TripRepository.class, Map.of(
+            "findById", args -> Optional.ofNullable(tripsById.get((Long) args[0])),
+            "findWithDetailsById", args -> Optional.ofNullable(tripsById.get((Long) args[0])),
+            "findAvailableTrips", args -> trips
+        ));
+    }
+
+    TripSeatRepository tripSeatRepository() {
+        return InMemoryRepositories.of(TripSeatRepository.class, Map.of(
+            "findByTripIdAndSeatNumber", args -> Optional.ofNullable(seatsByTripAndNumber.get(args[0] + ":" + args[1]))
+        ));
+    }
+
+    UserRepository userRepository() {
+        return InMemoryRepositories.of(UserRepository.class, Map.of(
+            "findById", args -> Optional.of(passenger)
+        ));
+    }
+
+    BookingRepository bookingRepository() {
+        return InMemoryRepositories.of(BookingRepository.class, Map.of());
+    }
+
+    /**
+     * Route service pricing from the given matrix ({@code point} or {@code city}),
+     * set the way {@code route.price.granularity} would be.
+     */
+    RouteService routeService(String priceGranularity) {
+        RouteService routeService = new RouteService(routeRepository(), routePointRepository(),
+            routePriceRepository(), routeCityPriceRepository(), null, null, null);
+        try {
+            MethodHandles.privateLookupIn(RouteService.class, MethodHandles.lookup())
+                .findVarHandle(RouteService.class, "priceGranularity", String.class)
+                .set(routeService, priceGranularity);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set the price granularity", e);
+        }
+        return routeService;
+    }
+
+    /**
+     * Outbox that drops events; the real one needs a surrounding transaction and a database.
+     */
+    static OutboxService noOpOutbox() {
+        return new OutboxService(null, null, null, null) {
+            @Override
+            public void record(OutboxEventType eventType, Long aggregateId, Map<String, Object> payload) {
+            }
+        };
+    }
+
+    private Optional<RoutePoint> findPoint(String city, String subLocation) {
+        for (RoutePoint point : routePoints) {
+            if (point.getCity().equals(city) && point.getSubLocation().equals(subLocation)) {
+                return Optional.of(point);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,33 @@
+package com.app.carpolling.benchmarks;
+
+import com.app.carpolling.utils.IdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Booking reference generation, single-threaded and under CAS contention.
+ */
+@State(Scope.Benchmark)
+public class IdGeneratorBenchmark {
+
+    private IdGenerator idGenerator;
+
+    @Setup
+    public void setUp() {
+        idGenerator = new IdGenerator(0);
+    }
+
+    @Benchmark
+    public String nextBookingReference() {
+        return idGenerator.nextBookingReference();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String nextBookingReferenceContended() {
+        return idGenerator.nextBookingReference();
+    }
+}
@@ -0,0 +1,44 @@
+package com.app.carpolling.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Builds Spring Data repository stand-ins backed by plain Java collections.
+ *
+ * Only the methods a benchmark actually exercises are given an implementation
+ * (keyed by method name); {@code save} returns its argument and anything else
+ * fails loudly, so a benchmark never silently measures an unimplemented path.
+ */
+final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <R> R of(Class<R> repositoryType, Map<String, Function<Object[], Object>> methods) {
+        return (R) Proxy.newProxyInstance(
+            repositoryType.getClassLoader(),
+            new Class<?>[] {repositoryType},
+            (proxy, method, args) -> {
+                Function<Object[], Object> implementation = methods.get(method.getName());
+                if (implementation != null) {
+                    return implementation.apply(args);
+                }
+                switch (method.getName()) {
+                    case "save":
+                        return args[0];
+                    case "toString":
+                        return "InMemory" + repositoryType.getSimpleName();
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    default:
+                        throw new UnsupportedOperationException(
+                            repositoryType.getSimpleName() + "." + method.getName() + " is not stubbed");
+                }
+            });
+    }
+}
@@ -0,0 +1,62 @@
+package com.app.carpolling.benchmarks;
+
+import com.app.carpolling.config.AppConfig;
+import com.app.carpolling.dto.DriverLocationResponseDto;
+import com.app.carpolling.dto.TripSearchRequest;
+import com.app.carpolling.dto.TripSearchResponse;
+import com.app.carpolling.service.TripService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * JSON encoding of the two hottest payloads: a page of search results and
+ * the driver location broadcast to STOMP subscribers. Uses the application's
+ * configured {@link ObjectMapper}.
+ */
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    private ObjectWriter writer;
+    private List<TripSearchResponse> searchResults;
+    private DriverLocationResponseDto location;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new AppConfig().objectMapper();
+        writer = objectMapper.writer();
+
+        Fixtures fixtures = new Fixtures();
+        TripService tripService = new TripService(fixtures.tripRepository(), fixtures.tripSeatRepository(),
+            fixtures.routePointRepository(), fixtures.routeService("point"), null, null);
+        TripSearchRequest request = new TripSearchRequest();
+        request.setBoardingPoint("Bangalore");
+        request.setDropPoint("Chennai");
+        request.setTravelDate(Fixtures.TRAVEL_DATE);
+        request.setRequiredSeats(1);
+        searchResults = tripService.searchTrips(request);
+
+        location = new DriverLocationResponseDto(12.9716, 77.5946, System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public byte[] tripSearchResults() throws JsonProcessingException {
+        return writer.writeValueAsBytes(searchResults);
+    }
+
+    @Benchmark
+    public byte[] singleTripSearchResponse() throws JsonProcessingException {
+        return writer.writeValueAsBytes(searchResults.get(0));
+    }
+
+    @Benchmark
+    public byte[] driverLocation() throws JsonProcessingException {
+        return writer.writeValueAsBytes(location);
+    }
+}
@@ -0,0 +1,48 @@
+package com.app.carpolling.benchmarks;
+
+import com.app.carpolling.utils.JWTUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Token issue and validation as done on login and on every authenticated
+ * request by {@code JWTFilter}.
+ */
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private JWTUtils jwtUtils;
+    private String token;
+    private String tamperedToken;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = new JWTUtils();
+        token = jwtUtils.generateToken("9876543210");
+        // Flip a signature character so parsing gets as far as the signature check
+        char last = token.charAt(token.length() - 1);
+        tamperedToken = token.substring(0, token.length() - 1) + (last == 'A' ? 'B' : 'A');
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtils.generateToken("9876543210");
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtils.validateToken(token);
+    }
+
+    @Benchmark
+    public boolean validateTamperedToken() {
+        return jwtUtils.validateToken(tamperedToken);
+    }
+
+    @Benchmark
+    public String extractPhoneNumber() {
+        return jwtUtils.extractPhoneNumber(token);
+    }
+}
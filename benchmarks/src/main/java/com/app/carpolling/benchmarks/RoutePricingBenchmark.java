@@ -0,0 +1,34 @@
+package com.app.carpolling.benchmarks;
+
+import com.app.carpolling.dto.RoutePriceCombinationDto;
+import com.app.carpolling.service.RouteService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Builds the city-to-city price table for a route (18 stops in 6 cities,
+ * 153 point or 15 city prices), with repository reads served from memory.
+ */
+@State(Scope.Benchmark)
+public class RoutePricingBenchmark {
+
+    @Param({"point", "city"})
+    public String granularity;
+
+    private RouteService routeService;
+
+    @Setup
+    public void setUp() {
+        routeService = new Fixtures().routeService(granularity);
+    }
+
+    @Benchmark
+    public List<RoutePriceCombinationDto> getRoutePriceCombinations() {
+        return routeService.getRoutePriceCombinations(Fixtures.ROUTE_ID);
+    }
+}
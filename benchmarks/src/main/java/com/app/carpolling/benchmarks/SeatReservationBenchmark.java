@@ -0,0 +1,72 @@
+package com.app.carpolling.benchmarks;
+
+import com.app.carpolling.config.ReadYourWritesTracker;
+import com.app.carpolling.dto.BookingRequest;
+import com.app.carpolling.entity.Booking;
+import com.app.carpolling.service.BookingService;
+import com.app.carpolling.service.RouteService;
+import com.app.carpolling.service.TripService;
+import com.app.carpolling.service.UserService;
+import com.app.carpolling.utils.IdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seat reservation in {@code BookingService.createBooking} (point lookup,
+ * per-seat availability check and reserve, pricing, booking assembly)
+ * followed by {@code releaseSeats}, so every invocation starts from the same
+ * free seats. Database round trips are replaced by map lookups, so this
+ * measures the service's own work only.
+ */
+@State(Scope.Benchmark)
+public class SeatReservationBenchmark {
+
+    @Param({"1", "4"})
+    public int seats;
+
+    @Param({"point", "city"})
+    public String granularity;
+
+    private BookingService bookingService;
+    private BookingRequest request;
+
+    @Setup
+    public void setUp() {
+        Fixtures fixtures = new Fixtures();
+        RouteService routeService = fixtures.routeService(granularity);
+        TripService tripService = new TripService(fixtures.tripRepository(), fixtures.tripSeatRepository(),
+            fixtures.routePointRepository(), routeService, null, null);
+        UserService userService = new UserService(fixtures.userRepository(), null, null, null);
+        bookingService = new BookingService(fixtures.bookingRepository(), fixtures.tripSeatRepository(),
+            fixtures.routePointRepository(), fixtures.tripRepository(), userService, tripService, routeService,
+            Fixtures.noOpOutbox(), new IdGenerator(0), new ReadYourWritesTracker(false, 0));
+
+        List<String> seatNumbers = new ArrayList<>();
+        for (int s = 1; s <= seats; s++) {
+            seatNumbers.add("S" + s);
+        }
+        request = new BookingRequest();
+        request.setUserId(Fixtures.USER_ID);
+        request.setTripId(1L);
+        request.setBoardingCity("Bangalore");
+        request.setBoardingSubLocation("Stop 2");
+        request.setDropCity("Vellore");
+        request.setDropSubLocation("Stop 1");
+        request.setSeatNumbers(seatNumbers);
+        request.setPassengerNames("Passenger");
+        request.setPassengerContacts("9000000000");
+    }
+
+    @Benchmark
+    public Booking reserveAndRelease() {
+        Booking booking = bookingService.createBooking(request);
+        bookingService.releaseSeats(booking);
+        return booking;
+    }
+}
@@ -0,0 +1,61 @@
+package com.app.carpolling.benchmarks;
+
+import com.app.carpolling.dto.TripSearchRequest;
+import com.app.carpolling.dto.TripSearchResponse;
+import com.app.carpolling.entity.Trip;
+import com.app.carpolling.service.TripService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.List;
+
+/**
+ * Search result mapping: one trip through {@code buildTripSearchResponse},
+ * and a full {@code searchTrips} over the fixture's 50 trips.
+ */
+@State(Scope.Benchmark)
+public class TripSearchBenchmark {
+
+    @Param({"point", "city"})
+    public String granularity;
+
+    private TripService tripService;
+    private MethodHandle buildTripSearchResponse;
+    private Trip trip;
+    private TripSearchRequest request;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        Fixtures fixtures = new Fixtures();
+        tripService = new TripService(fixtures.tripRepository(), fixtures.tripSeatRepository(),
+            fixtures.routePointRepository(), fixtures.routeService(granularity), null, null);
+        trip = fixtures.trips.get(0);
+
+        // Private mapping step, reached without widening its visibility for the benchmark
+        buildTripSearchResponse = MethodHandles.privateLookupIn(TripService.class, MethodHandles.lookup())
+            .findVirtual(TripService.class, "buildTripSearchResponse",
+                MethodType.methodType(TripSearchResponse.class, Trip.class, String.class, String.class));
+
+        request = new TripSearchRequest();
+        request.setBoardingPoint("Bangalore");
+        request.setDropPoint("Chennai");
+        request.setTravelDate(Fixtures.TRAVEL_DATE);
+        request.setRequiredSeats(1);
+    }
+
+    @Benchmark
+    public TripSearchResponse buildTripSearchResponse() throws Throwable {
+        return (TripSearchResponse) buildTripSearchResponse.invokeExact(tripService, trip, "Bangalore", "Chennai");
+    }
+
+    @Benchmark
+    public List<TripSearchResponse> searchTrips() {
+        return tripService.searchTrips(request);
+    }
+}
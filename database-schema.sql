@@ -148,7 +148,7 @@ CREATE TABLE bookings (
 );
 
 -- Create indexes for bookings table
-CREATE INDEX idx_booking_user ON bookings(user_id);
+CREATE INDEX idx_booking_user_created ON bookings(user_id, created_at DESC, id DESC);
 CREATE INDEX idx_booking_trip ON bookings(trip_id);
 CREATE INDEX idx_booking_status ON bookings(status);
 CREATE INDEX idx_booking_expires_at ON bookings(expires_at);
@@ -169,7 +169,7 @@ CREATE TABLE payments (
     razorpay_payment_id VARCHAR(100),
     booking_id BIGINT NOT NULL UNIQUE,
     amount DOUBLE PRECISION NOT NULL,
-    status VARCHAR(50) NOT NULL DEFAULT 'INITIATED' CHECK (status IN ('INITIATED', 'SUCCESS', 'FAILED', 'REFUNDED', 'PENDING')),
+    status VARCHAR(50) NOT NULL DEFAULT 'INITIATED' CHECK (status IN ('INITIATED', 'SUCCESS', 'FAILED', 'REFUNDED', 'PENDING', 'REFUND_PENDING')),
     payment_gateway_response TEXT,
     paid_at TIMESTAMP,
     failure_reason TEXT,
@@ -84,6 +84,14 @@ CREATE INDEX IF NOT EXISTS idx_route_point_city_sublocation ON route_points(city
 CREATE INDEX IF NOT EXISTS idx_route_point_boarding ON route_points(is_boarding_point) WHERE is_boarding_point = true;
 CREATE INDEX IF NOT EXISTS idx_route_point_drop ON route_points(is_drop_point) WHERE is_drop_point = true;
 
+-- Trigram indexes for fuzzy location search (location.search.mode=trigram)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_route_point_city_trgm ON route_points USING gin (city gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_route_point_sublocation_trgm ON route_points USING gin (sub_location gin_trgm_ops);
+-- The trigram queries compare the columns as stored; LOWER() variants only served a removed LIKE query
+DROP INDEX IF EXISTS idx_route_point_city_lower_trgm;
+DROP INDEX IF EXISTS idx_route_point_sublocation_lower_trgm;
+
 -- Trips Table
 CREATE TABLE IF NOT EXISTS trips (
     id BIGSERIAL PRIMARY KEY,
@@ -142,11 +150,14 @@ CREATE TABLE IF NOT EXISTS bookings (
 );
 
 -- Indexes for bookings
-CREATE INDEX IF NOT EXISTS idx_booking_user ON bookings(user_id);
+-- idx_booking_user_created below leads with user_id and serves user_id lookups too
+DROP INDEX IF EXISTS idx_booking_user;
 CREATE INDEX IF NOT EXISTS idx_booking_trip ON bookings(trip_id);
 CREATE INDEX IF NOT EXISTS idx_booking_status ON bookings(status);
 CREATE INDEX IF NOT EXISTS idx_booking_expires_at ON bookings(expires_at);
 CREATE INDEX IF NOT EXISTS idx_booking_status_expires ON bookings(status, expires_at);
+-- Keyset pagination of a user's booking history (covers the page scan on its own)
+CREATE INDEX IF NOT EXISTS idx_booking_user_created ON bookings(user_id, created_at DESC, id DESC);
 
 -- Booking Seats Table
 CREATE TABLE IF NOT EXISTS booking_seats (
@@ -174,6 +185,30 @@ CREATE INDEX IF NOT EXISTS idx_route_price_route ON route_prices(route_id);
 CREATE INDEX IF NOT EXISTS idx_route_price_boarding ON route_prices(boarding_point_id);
 CREATE INDEX IF NOT EXISTS idx_route_price_drop ON route_prices(drop_point_id);
 
+-- Route City Prices Table (one row per boarding city / drop city pair,
+-- used when route.price.granularity=city)
+CREATE TABLE IF NOT EXISTS route_city_prices (
+    id BIGSERIAL PRIMARY KEY,
+    route_id BIGINT NOT NULL,
+    boarding_city VARCHAR(255) NOT NULL,
+    drop_city VARCHAR(255) NOT NULL,
+    price DOUBLE PRECISION NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (route_id) REFERENCES routes(id) ON DELETE CASCADE,
+    UNIQUE (route_id, boarding_city, drop_city)
+);
+
+CREATE INDEX IF NOT EXISTS idx_route_city_price_route ON route_city_prices(route_id);
+
+-- Backfill city prices from an existing point-level matrix
+INSERT INTO route_city_prices (route_id, boarding_city, drop_city, price)
+SELECT DISTINCT ON (rp.route_id, bp.city, dp.city) rp.route_id, bp.city, dp.city, rp.price
+FROM route_prices rp
+JOIN route_points bp ON rp.boarding_point_id = bp.id
+JOIN route_points dp ON rp.drop_point_id = dp.id
+ORDER BY rp.route_id, bp.city, dp.city, rp.id
+ON CONFLICT (route_id, boarding_city, drop_city) DO NOTHING;
+
 -- Payments Table
 CREATE TABLE IF NOT EXISTS payments (
     id BIGSERIAL PRIMARY KEY,
@@ -182,7 +217,7 @@ CREATE TABLE IF NOT EXISTS payments (
     razorpay_payment_id VARCHAR(100),
     booking_id BIGINT NOT NULL UNIQUE,
     amount DOUBLE PRECISION NOT NULL,
-    status VARCHAR(50) NOT NULL DEFAULT 'INITIATED' CHECK (status IN ('INITIATED', 'SUCCESS', 'FAILED', 'REFUNDED', 'PENDING')),
+    status VARCHAR(50) NOT NULL DEFAULT 'INITIATED' CHECK (status IN ('INITIATED', 'SUCCESS', 'FAILED', 'REFUNDED', 'PENDING', 'REFUND_PENDING')),
     payment_gateway_response TEXT,
     paid_at TIMESTAMP,
     failure_reason TEXT,
@@ -196,6 +231,87 @@ CREATE INDEX IF NOT EXISTS idx_payment_booking ON payments(booking_id);
 CREATE INDEX IF NOT EXISTS idx_payment_status ON payments(status);
 CREATE INDEX IF NOT EXISTS idx_payment_razorpay_order ON payments(razorpay_order_id);
 
+-- Payment gateway webhook inbox (applied asynchronously by the webhook processor)
+CREATE TABLE IF NOT EXISTS payment_webhook_events (
+    id BIGSERIAL PRIMARY KEY,
+    event_id VARCHAR(100) NOT NULL UNIQUE,
+    event_type VARCHAR(100) NOT NULL,
+    razorpay_order_id VARCHAR(100),
+    razorpay_payment_id VARCHAR(100),
+    event_time TIMESTAMP NOT NULL,
+    payload TEXT NOT NULL,
+    status VARCHAR(50) NOT NULL DEFAULT 'PENDING' CHECK (status IN ('PENDING', 'PROCESSING', 'PROCESSED', 'IGNORED', 'FAILED')),
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    claimed_at TIMESTAMP,
+    last_error TEXT,
+    received_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    processed_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_webhook_event_pending ON payment_webhook_events(status, next_attempt_at);
+CREATE INDEX IF NOT EXISTS idx_webhook_event_received_at ON payment_webhook_events(received_at);
+
+-- Transactional outbox for booking and payment domain events (drained by the outbox relay)
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGSERIAL PRIMARY KEY,
+    aggregate_type VARCHAR(50) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR(50) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    published_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_outbox_aggregate ON outbox_events(aggregate_type, aggregate_id);
+-- Keeps the relay's scan proportional to the backlog, not the table
+CREATE INDEX IF NOT EXISTS idx_outbox_unpublished ON outbox_events(id) WHERE published_at IS NULL;
+
+-- Analytics rollups (maintained by the rollup job, keyed by trip departure time)
+CREATE TABLE IF NOT EXISTS route_rollups (
+    id BIGSERIAL PRIMARY KEY,
+    granularity VARCHAR(10) NOT NULL CHECK (granularity IN ('HOUR', 'DAY')),
+    bucket_start TIMESTAMP NOT NULL,
+    route_id BIGINT NOT NULL,
+    trips BIGINT NOT NULL,
+    seats_offered BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE (granularity, bucket_start, route_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_route_rollup_bucket ON route_rollups(granularity, bucket_start);
+
+CREATE TABLE IF NOT EXISTS route_city_pair_rollups (
+    id BIGSERIAL PRIMARY KEY,
+    granularity VARCHAR(10) NOT NULL CHECK (granularity IN ('HOUR', 'DAY')),
+    bucket_start TIMESTAMP NOT NULL,
+    route_id BIGINT NOT NULL,
+    boarding_city VARCHAR(255) NOT NULL,
+    drop_city VARCHAR(255) NOT NULL,
+    confirmed_bookings BIGINT NOT NULL,
+    seats_booked BIGINT NOT NULL,
+    booking_amount DOUBLE PRECISION NOT NULL,
+    revenue DOUBLE PRECISION NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE (granularity, bucket_start, route_id, boarding_city, drop_city)
+);
+
+CREATE INDEX IF NOT EXISTS idx_city_pair_rollup_bucket ON route_city_pair_rollups(granularity, bucket_start);
+
+CREATE TABLE IF NOT EXISTS rollup_watermarks (
+    name VARCHAR(100) PRIMARY KEY,
+    watermark TIMESTAMP NOT NULL
+);
+
+INSERT INTO rollup_watermarks (name, watermark)
+VALUES ('booking_rollups', TIMESTAMP '2000-01-01 00:00:00')
+ON CONFLICT (name) DO NOTHING;
+
+-- Watermark scans for the rollup job
+CREATE INDEX IF NOT EXISTS idx_trip_updated_at ON trips(updated_at);
+CREATE INDEX IF NOT EXISTS idx_booking_updated_at ON bookings(updated_at);
+CREATE INDEX IF NOT EXISTS idx_payment_updated_at ON payments(updated_at);
+
 -- Invalidated Tokens Table (for logout functionality and token blacklisting)
 CREATE TABLE IF NOT EXISTS invalidated_tokens (
     id BIGSERIAL PRIMARY KEY,
@@ -0,0 +1,119 @@
+package com.app.carpolling.loadtest;
+
+import com.app.carpolling.CarpollingApplication;
+import com.github.fppt.jedismock.RedisServer;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The application running in this JVM against a fresh embedded PostgreSQL
+ * (schema from init-db.sql) and an in-process Redis, with the simulated
+ * payment gateway. Closing it stops all three.
+ */
+final class AppUnderTest implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(AppUnderTest.class);
+
+    private final EmbeddedPostgres postgres;
+    private final RedisServer redis;
+    private final ConfigurableApplicationContext context;
+    private final int port;
+
+    private AppUnderTest(EmbeddedPostgres postgres, RedisServer redis, ConfigurableApplicationContext context) {
+        this.postgres = postgres;
+        this.redis = redis;
+        this.context = context;
+        this.port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    static AppUnderTest start(Path schema, String priceGranularity, boolean virtualThreads)
+        throws IOException, SQLException {
+        EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+        RedisServer redis = null;
+        try {
+            DataSource dataSource = postgres.getPostgresDatabase();
+            try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+                // One simple-query round trip, so the driver handles the $$-quoted trigger function
+                statement.execute(Files.readString(schema));
+            }
+
+            redis = RedisServer.newRedisServer();
+            redis.start();
+
+            Map<String, Object> properties = new HashMap<>();
+            properties.put("spring.datasource.url", postgres.getJdbcUrl("postgres", "postgres"));
+            properties.put("spring.datasource.username", "postgres");
+            properties.put("spring.datasource.password", "postgres");
+            properties.put("spring.data.redis.host", redis.getHost());
+            properties.put("spring.data.redis.port", redis.getBindPort());
+            properties.put("payment.gateway", "simulator");
+            // Pinned rather than inherited; SeedData fills both price tables
+            properties.put("route.price.granularity", priceGranularity);
+            properties.put("server.port", 0);
+            properties.put("management.server.port", -1);
+            properties.put("spring.main.banner-mode", "off");
+            properties.put("spring.jpa.show-sql", false);
+            properties.put("logging.level.org.hibernate.SQL", "WARN");
+            properties.put("logging.level.org.hibernate.type.descriptor.sql.BasicBinder", "WARN");
+            properties.put("logging.level.com.app.carpolling", "WARN");
+            // Seeded data is larger than the defaults assume; keep per-request warnings out of the run
+            properties.put("sql.query-count.warn-threshold", Integer.MAX_VALUE);
+            properties.put("sql.query-count.repeat-threshold", Integer.MAX_VALUE);
+
+            SpringApplicationBuilder builder = new SpringApplicationBuilder(CarpollingApplication.class)
+                .properties(properties);
+            if (virtualThreads) {
+                builder.profiles("virtual-threads");
+            }
+            ConfigurableApplicationContext context = builder.run();
+            AppUnderTest app = new AppUnderTest(postgres, redis, context);
+            log.info("Application started on port {} ({} threads)", app.port, virtualThreads ? "virtual" : "platform");
+            return app;
+        } catch (IOException | SQLException | RuntimeException e) {
+            if (redis != null) {
+                redis.stop();
+            }
+            postgres.close();
+            throw e;
+        }
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + port;
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    DataSource dataSource() {
+        return postgres.getPostgresDatabase();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            context.close();
+        } finally {
+            try {
+                redis.stop();
+            } finally {
+                postgres.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.app.carpolling.loadtest;
+
+import com.app.carpolling.loadtest.OperationStats.Outcome;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-model HTTP users: each loops without think time, either searching
+ * or running the booking funnel (seat map, book, optionally pay through the
+ * simulator, then cancel).
+ *
+ * Searches and bookings are skewed towards the first routes and the earliest
+ * trips of a route, so popular trips see real seat contention. Every booking
+ * is cancelled at the end of its flow to keep seat inventory in a steady
+ * state instead of selling out early in the run.
+ */
+final class HttpWorkload {
+
+    private static final Logger log = LoggerFactory.getLogger(HttpWorkload.class);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    // Messages of the 400s that seat contention legitimately produces; any other 4xx is an error
+    private static final List<String> SEAT_CONFLICTS = List.of("is already booked", "Not enough seats");
+
+    private final String baseUrl;
+    private final SeedData data;
+    private final LoadTestOptions options;
+    private final Map<String, String> tokensByPhone;
+    private final OperationStats stats;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client;
+    private final ExecutorService users;
+    private volatile boolean running;
+
+    HttpWorkload(String baseUrl, SeedData data, LoadTestOptions options, Map<String, String> tokensByPhone,
+                 OperationStats stats) {
+        this.baseUrl = baseUrl;
+        this.data = data;
+        this.options = options;
+        this.tokensByPhone = tokensByPhone;
+        this.stats = stats;
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        this.users = Executors.newFixedThreadPool(options.users(), runnable -> {
+            Thread thread = new Thread(runnable, "load-user");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    void start() {
+        running = true;
+        for (int i = 0; i < options.users(); i++) {
+            users.execute(this::runUser);
+        }
+    }
+
+    void stop() throws InterruptedException {
+        running = false;
+        users.shutdown();
+        if (!users.awaitTermination(60, TimeUnit.SECONDS)) {
+            users.shutdownNow();
+        }
+    }
+
+    private void runUser() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int totalWeight = options.searchWeight() + options.bookWeight();
+        while (running) {
+            try {
+                if (random.nextInt(totalWeight) < options.searchWeight()) {
+                    search(random);
+                } else {
+                    book(random);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.debug("User iteration failed", e);
+            }
+        }
+    }
+
+    private void search(ThreadLocalRandom random) throws InterruptedException {
+        SeedData.SeededRoute route = skewedPick(data.routes, random);
+        List<String> cities = route.stops().stream().map(SeedData.Stop::city).distinct().toList();
+        int boarding = random.nextInt(cities.size() - 1);
+        int drop = boarding + 1 + random.nextInt(cities.size() - boarding - 1);
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("boardingPoint", cities.get(boarding));
+        body.put("dropPoint", cities.get(drop));
+        body.put("travelDate", data.travelDate.toString());
+        body.put("requiredSeats", 1);
+        call("search", "POST", "/api/trips/search", body, randomPassengerToken(random), List.of());
+    }
+
+    private void book(ThreadLocalRandom random) throws InterruptedException {
+        SeedData.SeededRoute route = skewedPick(data.routes, random);
+        long tripId = skewedPick(route.tripIds(), random);
+        int passenger = random.nextInt(data.passengerIds.size());
+        String token = tokensByPhone.get(data.passengerPhones.get(passenger));
+
+        JsonNode seatMap = call("seats", "GET", "/api/trips/" + tripId + "/seats", null, token, List.of());
+        if (seatMap == null) {
+            return;
+        }
+        List<String> freeSeats = new ArrayList<>();
+        for (JsonNode seat : seatMap.path("seats")) {
+            if (seat.path("isAvailable").asBoolean()) {
+                freeSeats.add(seat.path("seatNumber").asText());
+            }
+        }
+        if (freeSeats.isEmpty()) {
+            stats.record("book.sold-out", System.nanoTime(), Outcome.REJECTED);
+            return;
+        }
+
+        int boarding = random.nextInt(route.stops().size() - 1);
+        int drop = boarding + 1 + random.nextInt(route.stops().size() - boarding - 1);
+        SeedData.Stop boardingStop = route.stops().get(boarding);
+        SeedData.Stop dropStop = route.stops().get(drop);
+        Map<String, Object> bookingRequest = new LinkedHashMap<>();
+        bookingRequest.put("userId", data.passengerIds.get(passenger));
+        bookingRequest.put("tripId", tripId);
+        bookingRequest.put("boardingCity", boardingStop.city());
+        bookingRequest.put("boardingSubLocation", boardingStop.subLocation());
+        bookingRequest.put("dropCity", dropStop.city());
+        bookingRequest.put("dropSubLocation", dropStop.subLocation());
+        bookingRequest.put("seatNumbers", List.of(freeSeats.get(random.nextInt(freeSeats.size()))));
+        bookingRequest.put("passengerNames", "Load Test");
+        bookingRequest.put("passengerContacts", data.passengerPhones.get(passenger));
+
+        // Seat taken between the seat map and the booking shows up as REJECTED
+        JsonNode booking = call("book", "POST", "/api/bookings", bookingRequest, token, SEAT_CONFLICTS);
+        if (booking == null) {
+            return;
+        }
+        long bookingId = booking.path("id").asLong();
+
+        if (random.nextDouble() < options.payRatio()) {
+            pay(bookingId, token);
+        }
+        call("cancel", "PUT", "/api/bookings/" + bookingId + "/cancel", null, token, List.of());
+    }
+
+    private void pay(long bookingId, String token) throws InterruptedException {
+        JsonNode order = call("pay.order", "POST", "/api/payments/create-order", Map.of("bookingId", bookingId),
+            token, List.of());
+        if (order == null) {
+            return;
+        }
+        String orderId = order.path("order").path("id").asText();
+        JsonNode payment = call("pay.checkout", "POST", "/api/payments/simulator/orders/" + orderId + "/pay", null,
+            token, List.of());
+        if (payment == null) {
+            return;
+        }
+
+        Map<String, Object> callback = new LinkedHashMap<>();
+        callback.put("razorpayOrderId", payment.path("razorpayOrderId").asText());
+        callback.put("razorpayPaymentId", payment.path("razorpayPaymentId").asText());
+        callback.put("razorpaySignature", payment.path("razorpaySignature").asText());
+        callback.put("paymentId", order.path("paymentId").asLong());
+        call("pay.callback", "POST", "/api/payments/payment-callback", callback, token, List.of());
+    }
+
+    /**
+     * Sends one request and records it; returns the {@code data} of a successful ApiResponse, else null.
+     * A 4xx counts as REJECTED only if its message contains one of {@code expectedRejections}.
+     */
+    private JsonNode call(String operation, String method, String path, Object body, String token,
+                          List<String> expectedRejections) throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json");
+            request.method(method, body == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+
+            HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            int status = response.statusCode();
+            if (status >= 500) {
+                stats.record(operation, start, Outcome.ERROR);
+                return null;
+            }
+            if (status >= 400) {
+                String message = objectMapper.readTree(response.body()).path("message").asText("");
+                boolean expected = expectedRejections.stream().anyMatch(message::contains);
+                stats.record(operation, start, expected ? Outcome.REJECTED : Outcome.ERROR);
+                if (!expected) {
+                    log.debug("{} {} returned {}: {}", method, path, status, message);
+                }
+                return null;
+            }
+            stats.record(operation, start, Outcome.OK);
+            return objectMapper.readTree(response.body()).path("data");
+        } catch (IOException e) {
+            stats.record(operation, start, Outcome.ERROR);
+            return null;
+        }
+    }
+
+    private String randomPassengerToken(ThreadLocalRandom random) {
+        return tokensByPhone.get(data.passengerPhones.get(random.nextInt(data.passengerPhones.size())));
+    }
+
+    // Quadratic skew: the first items of the list get most of the traffic
+    private static <T> T skewedPick(List<T> items, ThreadLocalRandom random) {
+        double r = random.nextDouble();
+        return items.get((int) (items.size() * r * r));
+    }
+}
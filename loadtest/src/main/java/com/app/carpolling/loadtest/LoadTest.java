@@ -0,0 +1,137 @@
+package com.app.carpolling.loadtest;
+
+import com.app.carpolling.utils.JWTUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Runs the mixed workload against the application once per requested thread
+ * mode, each time on a fresh database, and reports throughput and latency
+ * percentiles per operation. With {@code --threads=platform,virtual} the two
+ * runs are printed side by side.
+ */
+public final class LoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTest.class);
+    private static final DateTimeFormatter RUN_STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        Map<String, Map<String, OperationStats.Summary>> results = new LinkedHashMap<>();
+        for (String mode : options.threadModes()) {
+            if (mode.equals("virtual") && Runtime.version().feature() < 21) {
+                log.warn("Skipping the virtual-threads run: it needs Java 21 (running on {})", Runtime.version());
+                continue;
+            }
+            results.put(mode, run(options, mode.equals("virtual")));
+        }
+
+        for (Map.Entry<String, Map<String, OperationStats.Summary>> result : results.entrySet()) {
+            System.out.println();
+            System.out.println("== " + result.getKey() + " threads, " + options.durationSeconds() + " s measured");
+            System.out.print(table(result.getValue()));
+        }
+        if (results.size() > 1) {
+            System.out.println();
+            System.out.print(comparison(results));
+        }
+        writeJson(options, results);
+    }
+
+    private static Map<String, OperationStats.Summary> run(LoadTestOptions options, boolean virtualThreads)
+        throws Exception {
+        try (AppUnderTest app = AppUnderTest.start(options.schema(), options.priceGranularity(), virtualThreads)) {
+            SeedData data = SeedData.seed(app.dataSource(), options);
+
+            JWTUtils jwtUtils = app.bean(JWTUtils.class);
+            Map<String, String> tokens = new HashMap<>();
+            data.passengerPhones.forEach(phone -> tokens.put(phone, jwtUtils.generateToken(phone)));
+            data.liveTrips.forEach(trip -> tokens.put(trip.driverPhone(), jwtUtils.generateToken(trip.driverPhone())));
+
+            OperationStats stats = new OperationStats();
+            HttpWorkload http = new HttpWorkload(app.baseUrl(), data, options, tokens, stats);
+            LocationWorkload locations = new LocationWorkload(app.baseUrl(), data, options, tokens, stats);
+            try {
+                locations.start();
+                http.start();
+
+                log.info("Warming up for {} s", options.warmupSeconds());
+                Thread.sleep(options.warmupSeconds() * 1000L);
+                stats.reset();
+
+                log.info("Measuring for {} s", options.durationSeconds());
+                long start = System.nanoTime();
+                Thread.sleep(options.durationSeconds() * 1000L);
+                return stats.summarize((System.nanoTime() - start) / 1e9);
+            } finally {
+                http.stop();
+                locations.stop();
+            }
+        }
+    }
+
+    private static String table(Map<String, OperationStats.Summary> summaries) {
+        StringBuilder out = new StringBuilder(String.format("%-20s %9s %9s %7s %10s %9s %9s %9s %9s%n",
+            "operation", "ok", "rejected", "errors", "ok/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        summaries.forEach((operation, s) -> out.append(String.format(
+            "%-20s %9d %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+            operation, s.ok(), s.rejected(), s.errors(), s.throughput(), s.p50Ms(), s.p99Ms(), s.p999Ms(), s.maxMs())));
+        return out.toString();
+    }
+
+    private static String comparison(Map<String, Map<String, OperationStats.Summary>> results) {
+        Map<String, OperationStats.Summary> platform = results.get("platform");
+        Map<String, OperationStats.Summary> virtual = results.get("virtual");
+        StringBuilder out = new StringBuilder("== virtual vs platform threads\n");
+        out.append(String.format("%-20s %12s %12s %12s%n", "operation", "ok/s", "p99 ms", "p99.9 ms"));
+        platform.forEach((operation, p) -> {
+            OperationStats.Summary v = virtual.get(operation);
+            if (v != null) {
+                out.append(String.format("%-20s %12s %12s %12s%n", operation,
+                    change(p.throughput(), v.throughput()), change(p.p99Ms(), v.p99Ms()),
+                    change(p.p999Ms(), v.p999Ms())));
+            }
+        });
+        return out.toString();
+    }
+
+    private static String change(double platform, double virtual) {
+        return platform == 0 ? "n/a" : String.format("%+.1f%%", (virtual - platform) / platform * 100);
+    }
+
+    private static void writeJson(LoadTestOptions options, Map<String, Map<String, OperationStats.Summary>> results)
+        throws IOException {
+        Files.createDirectories(options.resultsDir());
+        Path file = options.resultsDir().resolve("loadtest-" + LocalDateTime.now().format(RUN_STAMP) + ".json");
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("options", options.toString());
+        report.put("java", Runtime.version().toString());
+        report.put("processors", Runtime.getRuntime().availableProcessors());
+        report.put("results", results);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+        System.out.println();
+        System.out.println("Report written to " + file.toAbsolutePath());
+    }
+}
@@ -0,0 +1,111 @@
+package com.app.carpolling.loadtest;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line options, given as {@code --name=value}. Every option has a
+ * default sized for a laptop; see {@link #usage()}.
+ */
+record LoadTestOptions(
+    int warmupSeconds,
+    int durationSeconds,
+    int users,
+    int searchWeight,
+    int bookWeight,
+    double payRatio,
+    int routes,
+    int tripsPerRoute,
+    int passengers,
+    int liveTrips,
+    int subscribersPerTrip,
+    int pingIntervalMs,
+    List<String> threadModes,
+    String priceGranularity,
+    Path schema,
+    Path resultsDir
+) {
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (arg.equals("--help") || !arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException(usage());
+            }
+            int split = arg.indexOf('=');
+            values.put(arg.substring(2, split), arg.substring(split + 1));
+        }
+
+        List<String> threadModes = new ArrayList<>();
+        for (String mode : values.getOrDefault("threads", "platform").split(",")) {
+            if (!mode.equals("platform") && !mode.equals("virtual")) {
+                throw new IllegalArgumentException("--threads takes platform, virtual or platform,virtual");
+            }
+            threadModes.add(mode);
+        }
+
+        String priceGranularity = values.getOrDefault("pricing", "point");
+        if (!priceGranularity.equals("point") && !priceGranularity.equals("city")) {
+            throw new IllegalArgumentException("--pricing takes point or city");
+        }
+
+        LoadTestOptions options = new LoadTestOptions(
+            intValue(values, "warmup", 15),
+            intValue(values, "duration", 60),
+            intValue(values, "users", 64),
+            intValue(values, "search-weight", 80),
+            intValue(values, "book-weight", 20),
+            Double.parseDouble(values.getOrDefault("pay-ratio", "0.8")),
+            intValue(values, "routes", 20),
+            intValue(values, "trips-per-route", 10),
+            intValue(values, "passengers", 2000),
+            intValue(values, "live-trips", 20),
+            intValue(values, "subscribers-per-trip", 4),
+            intValue(values, "ping-interval-ms", 1000),
+            threadModes,
+            priceGranularity,
+            Path.of(values.getOrDefault("schema", "../init-db.sql")),
+            Path.of(values.getOrDefault("results", "results"))
+        );
+        values.keySet().removeAll(List.of("warmup", "duration", "users", "search-weight", "book-weight",
+            "pay-ratio", "routes", "trips-per-route", "passengers", "live-trips", "subscribers-per-trip",
+            "ping-interval-ms", "threads", "pricing", "schema", "results"));
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown option(s) " + values.keySet() + "\n" + usage());
+        }
+        if (options.liveTrips() > options.routes() * options.tripsPerRoute()) {
+            throw new IllegalArgumentException("--live-trips cannot exceed routes x trips-per-route");
+        }
+        return options;
+    }
+
+    private static int intValue(Map<String, String> values, String name, int defaultValue) {
+        String value = values.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    static String usage() {
+        return """
+            Options (all --name=value):
+              --warmup=15                 seconds of load before measuring
+              --duration=60               measured seconds
+              --users=64                  concurrent HTTP users (closed model, no think time)
+              --search-weight=80          share of user iterations that search
+              --book-weight=20            share that book a seat (seat lookup + booking)
+              --pay-ratio=0.8             fraction of successful bookings that are paid
+              --routes=20                 seeded routes, 8 stops each
+              --trips-per-route=10        trips per route on the travel date
+              --passengers=2000           seeded passenger accounts
+              --live-trips=20             trips with a driver streaming locations
+              --subscribers-per-trip=4    passengers subscribed to each live trip
+              --ping-interval-ms=1000     location ping interval per driver
+              --threads=platform          platform, virtual or platform,virtual (virtual needs Java 21)
+              --pricing=point             route.price.granularity of the app, point or city
+              --schema=../init-db.sql     schema script
+              --results=results           directory for the JSON report
+            """;
+    }
+}
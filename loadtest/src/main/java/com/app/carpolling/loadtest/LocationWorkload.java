@@ -0,0 +1,139 @@
+package com.app.carpolling.loadtest;
+
+import com.app.carpolling.loadtest.OperationStats.Outcome;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drivers streaming locations over STOMP and passengers subscribed to their trips.
+ *
+ * Each live trip has one driver session sending a ping every interval (with
+ * random phase) and its subscriber sessions. {@code location.send} is the time
+ * to hand a frame to the socket; {@code location.delivery} is ping-to-receipt
+ * latency at each subscriber, measured by sending {@link System#nanoTime()} in
+ * the ping's client timestamp, which the server passes through unchanged.
+ * Both ends run in this JVM, so the clocks agree.
+ */
+final class LocationWorkload {
+
+    private static final Logger log = LoggerFactory.getLogger(LocationWorkload.class);
+
+    private final String baseUrl;
+    private final SeedData data;
+    private final LoadTestOptions options;
+    private final Map<String, String> tokensByPhone;
+    private final OperationStats stats;
+    private final WebSocketStompClient stompClient;
+    private final ScheduledExecutorService pingScheduler;
+    private final List<StompSession> sessions = new ArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    LocationWorkload(String baseUrl, SeedData data, LoadTestOptions options, Map<String, String> tokensByPhone,
+                     OperationStats stats) {
+        this.baseUrl = baseUrl;
+        this.data = data;
+        this.options = options;
+        this.tokensByPhone = tokensByPhone;
+        this.stats = stats;
+
+        ThreadPoolTaskScheduler heartbeats = new ThreadPoolTaskScheduler();
+        heartbeats.setPoolSize(2);
+        heartbeats.setThreadNamePrefix("stomp-client-heartbeat-");
+        heartbeats.initialize();
+        this.stompClient = new WebSocketStompClient(
+            new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        this.stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+        this.stompClient.setTaskScheduler(heartbeats);
+        this.pingScheduler = Executors.newScheduledThreadPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    void start() throws Exception {
+        for (SeedData.LiveTrip trip : data.liveTrips) {
+            for (String phone : trip.subscriberPhones()) {
+                StompSession subscriber = connect(phone);
+                subscriber.subscribe("/topic/trip/" + trip.tripId(), new StompFrameHandler() {
+                    @Override
+                    public Type getPayloadType(StompHeaders headers) {
+                        return Map.class;
+                    }
+
+                    @Override
+                    public void handleFrame(StompHeaders headers, Object payload) {
+                        Object sentAt = ((Map<?, ?>) payload).get("timestamp");
+                        if (sentAt instanceof Number sentNanos) {
+                            stats.record("location.delivery", sentNanos.longValue(), Outcome.OK);
+                        }
+                    }
+                });
+            }
+
+            StompSession driver = connect(trip.driverPhone());
+            long phase = ThreadLocalRandom.current().nextLong(options.pingIntervalMs());
+            pingScheduler.scheduleAtFixedRate(() -> ping(driver, trip.tripId()),
+                phase, options.pingIntervalMs(), TimeUnit.MILLISECONDS);
+        }
+        log.info("Streaming locations for {} trips to {} subscribers", data.liveTrips.size(),
+            data.liveTrips.size() * options.subscribersPerTrip());
+    }
+
+    void stop() {
+        pingScheduler.shutdownNow();
+        for (StompSession session : sessions) {
+            if (session.isConnected()) {
+                session.disconnect();
+            }
+        }
+        stompClient.stop();
+    }
+
+    private void ping(StompSession driver, long tripId) {
+        long start = System.nanoTime();
+        try {
+            // Unique coordinates per ping keep each frame distinguishable in captures
+            double offset = (sequence.incrementAndGet() % 100_000) * 1e-6;
+            driver.send("/app/driver/location", Map.of(
+                "tripId", tripId,
+                "latitude", 12.9 + offset,
+                "longitude", 77.6 + offset,
+                "timestamp", start
+            ));
+            stats.record("location.send", start, Outcome.OK);
+        } catch (RuntimeException e) {
+            stats.record("location.send", start, Outcome.ERROR);
+        }
+    }
+
+    private StompSession connect(String phone) throws Exception {
+        StompSession session = stompClient
+            .connectAsync(baseUrl + "/ws?token=" + tokensByPhone.get(phone), new StompSessionHandlerAdapter() {
+                @Override
+                public void handleTransportError(StompSession session, Throwable exception) {
+                    log.warn("STOMP transport error: {}", exception.getMessage());
+                }
+            })
+            .get(10, TimeUnit.SECONDS);
+        sessions.add(session);
+        return session;
+    }
+}
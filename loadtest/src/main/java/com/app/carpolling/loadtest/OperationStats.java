@@ -0,0 +1,87 @@
+package com.app.carpolling.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and outcome counts per operation, safe to record from
+ * any number of threads.
+ *
+ * Outcomes are OK, REJECTED (an expected refusal such as a seat taken by a
+ * concurrent booking) and ERROR (5xx, timeouts, transport failures).
+ * Latencies are recorded for every outcome, in microseconds.
+ */
+final class OperationStats {
+
+    enum Outcome { OK, REJECTED, ERROR }
+
+    record Summary(long ok, long rejected, long errors, double throughput,
+                   double p50Ms, double p99Ms, double p999Ms, double maxMs) {
+    }
+
+    private static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private static final class Operation {
+        private final Recorder recorder = new Recorder(MAX_TRACKABLE_MICROS, 3);
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+    }
+
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+
+    void record(String operation, long startNanos, Outcome outcome) {
+        Operation stats = operations.computeIfAbsent(operation, k -> new Operation());
+        long micros = Math.max(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos), 1);
+        stats.recorder.recordValue(Math.min(micros, MAX_TRACKABLE_MICROS));
+        switch (outcome) {
+            case OK -> stats.ok.increment();
+            case REJECTED -> stats.rejected.increment();
+            case ERROR -> stats.errors.increment();
+        }
+    }
+
+    /**
+     * Discards everything recorded so far (end of warm-up).
+     */
+    void reset() {
+        for (Operation stats : operations.values()) {
+            stats.recorder.reset();
+            stats.ok.reset();
+            stats.rejected.reset();
+            stats.errors.reset();
+        }
+    }
+
+    /**
+     * Summarizes everything recorded since the last {@link #reset()}, in operation name order.
+     */
+    Map<String, Summary> summarize(double elapsedSeconds) {
+        Map<String, Summary> summaries = new LinkedHashMap<>();
+        operations.keySet().stream().sorted().forEach(name -> {
+            Operation stats = operations.get(name);
+            Histogram histogram = stats.recorder.getIntervalHistogram();
+            summaries.put(name, new Summary(
+                stats.ok.sum(),
+                stats.rejected.sum(),
+                stats.errors.sum(),
+                stats.ok.sum() / elapsedSeconds,
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue())
+            ));
+        });
+        return summaries;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
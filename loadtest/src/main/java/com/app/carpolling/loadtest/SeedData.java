@@ -0,0 +1,194 @@
+package com.app.carpolling.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seeds routes, trips, seats, drivers and passengers straight through JDBC
+ * (the API has no bulk endpoints) and keeps the ids and names the workloads
+ * need to build requests.
+ *
+ * Each route runs through four consecutive cities of {@link #CITIES} with two
+ * stops per city, a full point-to-point price matrix and the matching
+ * city-pair matrix, so the app can run with either price granularity. Trips depart every
+ * 90 minutes on the travel date (tomorrow), one driver and vehicle per trip.
+ * Each live trip also gets confirmed bookings for its subscribers, which the
+ * STOMP subscription check requires.
+ */
+final class SeedData {
+
+    private static final Logger log = LoggerFactory.getLogger(SeedData.class);
+
+    static final String[] CITIES = {
+        "Bangalore", "Hosur", "Krishnagiri", "Vellore", "Kanchipuram", "Chennai", "Pondicherry", "Cuddalore",
+        "Chidambaram", "Kumbakonam", "Thanjavur", "Trichy", "Madurai", "Salem", "Erode", "Coimbatore"
+    };
+    static final int CITIES_PER_ROUTE = 4;
+    static final int STOPS_PER_CITY = 2;
+    static final int PASSENGER_SEATS = 6;
+
+    record Stop(long pointId, String city, String subLocation) {
+    }
+
+    record SeededRoute(long id, List<Stop> stops, List<Long> tripIds) {
+    }
+
+    record LiveTrip(long tripId, String driverPhone, List<String> subscriberPhones) {
+    }
+
+    final LocalDate travelDate = LocalDate.now().plusDays(1);
+    final List<SeededRoute> routes = new ArrayList<>();
+    final List<String> passengerPhones = new ArrayList<>();
+    final List<Long> passengerIds = new ArrayList<>();
+    final List<LiveTrip> liveTrips = new ArrayList<>();
+
+    static SeedData seed(DataSource dataSource, LoadTestOptions options) {
+        SeedData data = new SeedData();
+        data.insert(new JdbcTemplate(dataSource), options);
+        return data;
+    }
+
+    private void insert(JdbcTemplate jdbc, LoadTestOptions options) {
+        long start = System.currentTimeMillis();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> users = new ArrayList<>();
+        for (long id = 1; id <= options.passengers(); id++) {
+            String phone = String.valueOf(7_000_000_000L + id);
+            users.add(new Object[] {id, "Passenger " + id, phone, "loadtest", "PASSENGER", now});
+            passengerIds.add(id);
+            passengerPhones.add(phone);
+        }
+
+        List<Object[]> drivers = new ArrayList<>();
+        List<Object[]> vehicles = new ArrayList<>();
+        List<Object[]> routeRows = new ArrayList<>();
+        List<Object[]> points = new ArrayList<>();
+        List<Object[]> prices = new ArrayList<>();
+        List<Object[]> cityPrices = new ArrayList<>();
+        List<Object[]> trips = new ArrayList<>();
+        List<Object[]> seats = new ArrayList<>();
+        List<String> driverPhones = new ArrayList<>();
+
+        long driverId = 0;
+        long pointId = 0;
+        long priceId = 0;
+        long cityPriceId = 0;
+        long tripId = 0;
+        long seatId = 0;
+        for (long routeId = 1; routeId <= options.routes(); routeId++) {
+            List<Stop> stops = new ArrayList<>();
+            int sequence = 0;
+            for (int c = 0; c < CITIES_PER_ROUTE; c++) {
+                String city = CITIES[(int) ((routeId - 1 + c) % CITIES.length)];
+                for (int s = 1; s <= STOPS_PER_CITY; s++) {
+                    sequence++;
+                    Stop stop = new Stop(++pointId, city, "Stop " + s);
+                    stops.add(stop);
+                    points.add(new Object[] {stop.pointId(), routeId, city, stop.subLocation(),
+                        city + " - " + stop.subLocation(), stop.subLocation() + ", " + city,
+                        12.0 + routeId * 0.01, 78.0 + sequence * 0.1, sequence,
+                        (sequence - 1) * 40_000, (sequence - 1) * 45});
+                }
+            }
+            for (int b = 0; b < stops.size(); b++) {
+                for (int d = b + 1; d < stops.size(); d++) {
+                    prices.add(new Object[] {++priceId, routeId, stops.get(b).pointId(), stops.get(d).pointId(),
+                        150.0 + (d - b) * 60.0, now});
+                }
+            }
+            for (int b = 0; b < CITIES_PER_ROUTE; b++) {
+                for (int d = b + 1; d < CITIES_PER_ROUTE; d++) {
+                    cityPrices.add(new Object[] {++cityPriceId, routeId, stops.get(b * STOPS_PER_CITY).city(),
+                        stops.get(d * STOPS_PER_CITY).city(), 150.0 + (d - b) * STOPS_PER_CITY * 60.0, now});
+                }
+            }
+
+            List<Long> tripIds = new ArrayList<>();
+            for (int t = 0; t < options.tripsPerRoute(); t++) {
+                driverId++;
+                long driverUserId = options.passengers() + driverId;
+                String driverPhone = String.valueOf(8_000_000_000L + driverId);
+                users.add(new Object[] {driverUserId, "Driver " + driverId, driverPhone, "loadtest", "DRIVER", now});
+                drivers.add(new Object[] {driverId, driverUserId, "LT-LIC-" + driverId, 4.0 + (driverId % 10) / 10.0, now});
+                vehicles.add(new Object[] {driverId, driverId, "LT" + (100_000 + driverId), now});
+                driverPhones.add(driverPhone);
+                if (t == 0) {
+                    routeRows.add(new Object[] {routeId, driverId, "Load test route " + routeId,
+                        (stops.size() - 1) * 40.0, (stops.size() - 1) * 45, now});
+                }
+
+                tripId++;
+                LocalDateTime departure = travelDate.atTime(6, 0).plusMinutes(t * 90L);
+                trips.add(new Object[] {tripId, routeId, driverId, driverId, Timestamp.valueOf(departure),
+                    Timestamp.valueOf(departure.plusMinutes((stops.size() - 1) * 45L)), PASSENGER_SEATS, now, now});
+                seats.add(new Object[] {++seatId, tripId, "D1", false, true});
+                for (int s = 1; s <= PASSENGER_SEATS; s++) {
+                    seats.add(new Object[] {++seatId, tripId, "S" + s, true, false});
+                }
+                tripIds.add(tripId);
+            }
+            routes.add(new SeededRoute(routeId, stops, tripIds));
+        }
+
+        // Subscriber bookings hold no seats, so they do not shrink the inventory the booking workload competes for
+        List<Object[]> bookings = new ArrayList<>();
+        long bookingId = 0;
+        for (int live = 0; live < options.liveTrips(); live++) {
+            long liveTripId = live + 1;
+            SeededRoute route = routes.get(live / options.tripsPerRoute());
+            List<String> subscribers = new ArrayList<>();
+            for (int s = 0; s < options.subscribersPerTrip(); s++) {
+                int passenger = (live * options.subscribersPerTrip() + s) % options.passengers();
+                subscribers.add(passengerPhones.get(passenger));
+                bookingId++;
+                bookings.add(new Object[] {bookingId, "LTSUB" + bookingId, passengerIds.get(passenger), liveTripId,
+                    route.stops().get(0).pointId(), route.stops().get(route.stops().size() - 1).pointId(),
+                    Timestamp.valueOf(travelDate.atTime(23, 59)), now, now});
+            }
+            liveTrips.add(new LiveTrip(liveTripId, driverPhones.get((int) liveTripId - 1), subscribers));
+        }
+
+        jdbc.batchUpdate("INSERT INTO users (id, name, phone, password, role, created_at) VALUES (?, ?, ?, ?, ?, ?)", users);
+        jdbc.batchUpdate("INSERT INTO drivers (id, user_id, license_number, license_expiry_date, experience_years, "
+            + "is_verified, rating, created_at) VALUES (?, ?, ?, '2030-12-31', 5, true, ?, ?)", drivers);
+        jdbc.batchUpdate("INSERT INTO vehicles (id, driver_id, registration_number, brand, model, color, "
+            + "manufacturing_year, vehicle_type, total_seats, passenger_seats, created_at) "
+            + "VALUES (?, ?, ?, 'Toyota', 'Innova', 'White', 2022, 'MUV', " + (PASSENGER_SEATS + 1) + ", "
+            + PASSENGER_SEATS + ", ?)", vehicles);
+        jdbc.batchUpdate("INSERT INTO routes (id, driver_id, route_name, total_distance, estimated_duration, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?)", routeRows);
+        jdbc.batchUpdate("INSERT INTO route_points (id, route_id, city, sub_location, point_name, address, latitude, "
+            + "longitude, sequence_order, distance_from_start, time_from_start) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", points);
+        jdbc.batchUpdate("INSERT INTO route_prices (id, route_id, boarding_point_id, drop_point_id, price, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?)", prices);
+        jdbc.batchUpdate("INSERT INTO route_city_prices (id, route_id, boarding_city, drop_city, price, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?)", cityPrices);
+        jdbc.batchUpdate("INSERT INTO trips (id, route_id, vehicle_id, driver_id, departure_time, "
+            + "estimated_arrival_time, available_seats, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", trips);
+        jdbc.batchUpdate("INSERT INTO trip_seats (id, trip_id, seat_number, is_available, is_driver_seat) "
+            + "VALUES (?, ?, ?, ?, ?)", seats);
+        jdbc.batchUpdate("INSERT INTO bookings (id, booking_reference, user_id, trip_id, boarding_point_id, "
+            + "drop_point_id, number_of_seats, total_amount, distance, status, expires_at, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, 0, 0, 0, 'CONFIRMED', ?, ?, ?)", bookings);
+
+        for (String table : List.of("users", "drivers", "vehicles", "routes", "route_points", "route_prices",
+            "route_city_prices", "trips", "trip_seats", "bookings")) {
+            jdbc.execute("SELECT setval(pg_get_serial_sequence('" + table + "', 'id'), "
+                + "GREATEST((SELECT MAX(id) FROM " + table + "), 1))");
+        }
+
+        log.info("Seeded {} routes, {} trips, {} passengers and {} live trips in {} ms",
+            routes.size(), trips.size(), options.passengers(), liveTrips.size(), System.currentTimeMillis() - start);
+    }
+}
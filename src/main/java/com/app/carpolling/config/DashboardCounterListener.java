@@ -0,0 +1,128 @@
+package com.app.carpolling.config;
+
+import com.app.carpolling.entity.Booking;
+import com.app.carpolling.entity.BookingStatus;
+import com.app.carpolling.entity.Driver;
+import com.app.carpolling.entity.Trip;
+import com.app.carpolling.entity.User;
+import com.app.carpolling.entity.Vehicle;
+import com.app.carpolling.service.DashboardCounters;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Feeds {@link DashboardCounters} from Hibernate post-commit events, so
+ * rolled-back changes never reach the counters.
+ */
+@Component
+@RequiredArgsConstructor
+public class DashboardCounterListener implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private static final Set<Class<?>> TRACKED = Set.of(
+        User.class, Driver.class, Vehicle.class, Trip.class, Booking.class
+    );
+
+    private final transient EntityManagerFactory entityManagerFactory;
+    private final transient DashboardCounters counters;
+
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return TRACKED.contains(persister.getMappedClass());
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        added(event.getEntity(), 1);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        added(event.getEntity(), -1);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        Object entity = event.getEntity();
+        if (!(entity instanceof Booking) && !(entity instanceof Driver)) {
+            return;
+        }
+        Object[] oldState = event.getOldState();
+        if (oldState == null) {
+            // Detached update without a prior select; let the counters reload
+            counters.invalidate();
+            return;
+        }
+        String[] propertyNames = event.getPersister().getPropertyNames();
+        if (entity instanceof Booking booking) {
+            counters.bookingStatusChanged(
+                (BookingStatus) oldState[indexOf(propertyNames, "status")], booking.getStatus());
+        } else if (entity instanceof Driver driver) {
+            counters.driverVerificationChanged(
+                Boolean.TRUE.equals(oldState[indexOf(propertyNames, "isVerified")]),
+                Boolean.TRUE.equals(driver.getIsVerified()));
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // Nothing was counted for a failed commit
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // Nothing was counted for a failed commit
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // Nothing was counted for a failed commit
+    }
+
+    private void added(Object entity, int delta) {
+        if (entity instanceof User) {
+            counters.userAdded(delta);
+        } else if (entity instanceof Driver driver) {
+            counters.driverAdded(Boolean.TRUE.equals(driver.getIsVerified()), delta);
+        } else if (entity instanceof Vehicle) {
+            counters.vehicleAdded(delta);
+        } else if (entity instanceof Trip) {
+            counters.tripAdded(delta);
+        } else if (entity instanceof Booking booking) {
+            counters.bookingAdded(booking.getStatus(), delta);
+        }
+    }
+
+    private static int indexOf(String[] propertyNames, String property) {
+        for (int i = 0; i < propertyNames.length; i++) {
+            if (propertyNames[i].equals(property)) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Unknown property " + property);
+    }
+}
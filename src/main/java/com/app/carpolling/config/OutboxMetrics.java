@@ -0,0 +1,77 @@
+package com.app.carpolling.config;
+
+import com.app.carpolling.dto.OutboxStats;
+import com.app.carpolling.service.OutboxService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Outbox relay metrics: events recorded and published and failed batches
+ * since this instance started, the backlog and the age of its oldest event,
+ * and the size, duration and throughput of the last relay run.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxMetrics implements MeterBinder {
+
+    private static final long STATS_CACHE_MILLIS = 1000;
+
+    private final OutboxService outboxService;
+
+    private volatile CachedStats cachedStats;
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        counter(registry, "outbox.events.recorded", "Events recorded by committed transactions",
+            OutboxStats::getRecordedEvents);
+        counter(registry, "outbox.events.published", "Events accepted by the sink",
+            OutboxStats::getPublishedEvents);
+        counter(registry, "outbox.batches.failed", "Relay batches the sink rejected",
+            OutboxStats::getFailedBatches);
+
+        gauge(registry, "outbox.events.pending", "Events not yet published",
+            OutboxStats::getPendingEvents);
+        gauge(registry, "outbox.events.pending.oldest.age", "Seconds since the oldest pending event was recorded",
+            stats -> stats.getOldestPendingAgeSeconds() == null ? 0 : stats.getOldestPendingAgeSeconds());
+        gauge(registry, "outbox.relay.last.batch.size", "Events in the last delivered batch",
+            OutboxStats::getLastBatchSize);
+        gauge(registry, "outbox.relay.last.batch.duration", "Milliseconds the last delivered batch took",
+            OutboxStats::getLastBatchMillis);
+        gauge(registry, "outbox.relay.last.run.rate", "Events per second in the last run that delivered any",
+            OutboxStats::getLastRunEventsPerSecond);
+    }
+
+    private void counter(MeterRegistry registry, String name, String description,
+                         ToDoubleFunction<OutboxStats> value) {
+        FunctionCounter.builder(name, this, metrics -> value.applyAsDouble(metrics.stats()))
+            .description(description)
+            .register(registry);
+    }
+
+    private void gauge(MeterRegistry registry, String name, String description, ToDoubleFunction<OutboxStats> value) {
+        Gauge.builder(name, this, metrics -> value.applyAsDouble(metrics.stats()))
+            .description(description)
+            .register(registry);
+    }
+
+    // The pending count and age are queried; read them once per scrape, not once per meter
+    private OutboxStats stats() {
+        CachedStats cached = cachedStats;
+        if (cached != null && System.currentTimeMillis() - cached.computedAt < STATS_CACHE_MILLIS) {
+            return cached.stats;
+        }
+        OutboxStats stats = outboxService.getStats();
+        cachedStats = new CachedStats(stats, System.currentTimeMillis());
+        return stats;
+    }
+
+    private record CachedStats(OutboxStats stats, long computedAt) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.app.carpolling.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maximum number of SQL statements a request to the annotated handler may
+ * issue, including the JWT blacklist lookup. Exceeding it is logged; with
+ * {@code sql.query-count.enforce-budgets=true} (integration tests) the
+ * request fails instead.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    int value();
+}
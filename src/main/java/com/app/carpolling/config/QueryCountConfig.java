@@ -0,0 +1,43 @@
+package com.app.carpolling.config;
+
+import com.app.carpolling.filters.QueryCountFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Wires {@link QueryCounter} into Hibernate and hands each handler's
+ * {@link QueryBudget} to {@link QueryCountFilter}, which only sees the
+ * request once the handler has run.
+ */
+@Configuration
+public class QueryCountConfig implements WebMvcConfigurer {
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCounterCustomizer(QueryCounter queryCounter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, queryCounter);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                if (handler instanceof HandlerMethod handlerMethod) {
+                    QueryBudget budget = handlerMethod.getMethodAnnotation(QueryBudget.class);
+                    if (budget != null) {
+                        request.setAttribute(QueryCountFilter.BUDGET_ATTRIBUTE, budget.value());
+                    }
+                }
+                return true;
+            }
+        });
+    }
+}
@@ -0,0 +1,87 @@
+package com.app.carpolling.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread between
+ * {@link #begin()} and {@link #end()}.
+ *
+ * Registered as Hibernate's statement inspector, so it sees every JPQL,
+ * criteria, native and lazy-load statement issued through the
+ * EntityManager; plain JdbcTemplate calls are not counted. Statements are
+ * also tallied by SQL text, which keeps bind parameters as placeholders, so
+ * the same lazy load repeated for every row of a list shows up as one
+ * statement with a high count. Scopes nest: an inner scope's statements are
+ * added to the enclosing one when it ends.
+ */
+@Component
+public class QueryCounter implements StatementInspector {
+
+    public record Result(int statements, String mostRepeatedStatement, int mostRepeatedCount) {
+    }
+
+    private static final class Scope {
+        private final Scope parent;
+        private final Map<String, Integer> bySql = new HashMap<>();
+        private int statements;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        private void add(String sql, int count) {
+            statements += count;
+            bySql.merge(sql, count, Integer::sum);
+        }
+    }
+
+    private final ThreadLocal<Scope> current = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        Scope scope = current.get();
+        if (scope != null) {
+            scope.add(sql, 1);
+        }
+        return sql;
+    }
+
+    public void begin() {
+        current.set(new Scope(current.get()));
+    }
+
+    /**
+     * @return statements counted since the matching {@link #begin()}, or 0 if no scope is open
+     */
+    public int currentCount() {
+        Scope scope = current.get();
+        return scope == null ? 0 : scope.statements;
+    }
+
+    public Result end() {
+        Scope scope = current.get();
+        if (scope == null) {
+            return new Result(0, null, 0);
+        }
+        if (scope.parent == null) {
+            current.remove();
+        } else {
+            scope.bySql.forEach(scope.parent::add);
+            current.set(scope.parent);
+        }
+
+        String mostRepeated = null;
+        int mostRepeatedCount = 0;
+        for (Map.Entry<String, Integer> entry : scope.bySql.entrySet()) {
+            if (entry.getValue() > mostRepeatedCount) {
+                mostRepeated = entry.getKey();
+                mostRepeatedCount = entry.getValue();
+            }
+        }
+        return new Result(scope.statements, mostRepeated, mostRepeatedCount);
+    }
+}
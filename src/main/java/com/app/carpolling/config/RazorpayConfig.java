@@ -0,0 +1,25 @@
+package com.app.carpolling.config;
+
+import com.razorpay.RazorpayClient;
+import com.razorpay.RazorpayException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(name = "payment.gateway", havingValue = "razorpay", matchIfMissing = true)
+public class RazorpayConfig {
+    
+    /**
+     * One client per application. Each RazorpayClient builds its own HTTP
+     * client and connection pool, so creating one per request defeats keep-alive.
+     */
+    @Bean
+    public RazorpayClient razorpayClient(
+        @Value("${razorpay.key-id}") String keyId,
+        @Value("${razorpay.key-secret}") String keySecret
+    ) throws RazorpayException {
+        return new RazorpayClient(keyId, keySecret);
+    }
+}
@@ -0,0 +1,103 @@
+package com.app.carpolling.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which users wrote a booking recently, so their read-only
+ * transactions go to the primary until the replica has had time to catch up.
+ *
+ * Users are identified by the authenticated principal (the phone number the
+ * JWT carries); writes without one, such as webhook confirmations, are not
+ * tracked. The window is per instance, which covers a client reading back its
+ * own booking through the same node; reads that land on another node rely on
+ * the replica lag threshold alone.
+ */
+@Component
+public class ReadYourWritesTracker {
+
+    private final ConcurrentHashMap<String, Long> pinnedUntil = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final long windowMillis;
+    private final long sweepIntervalMillis;
+    private volatile long nextSweepAt;
+
+    public ReadYourWritesTracker(
+        @Value("${datasource.replica.enabled:false}") boolean enabled,
+        @Value("${datasource.replica.read-your-writes-seconds:5}") long windowSeconds
+    ) {
+        this.enabled = enabled;
+        this.windowMillis = windowSeconds * 1000;
+        // Expired entries are dropped on a later call rather than by a timer thread
+        this.sweepIntervalMillis = Math.max(Math.min(windowMillis, 10_000), 1);
+    }
+
+    /**
+     * Sends the current user's reads to the primary for the configured window,
+     * starting when the surrounding transaction commits.
+     */
+    public void recordWrite() {
+        if (!enabled) {
+            return;
+        }
+        String user = currentUser();
+        if (user == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pin(user);
+                }
+            });
+        } else {
+            pin(user);
+        }
+    }
+
+    /**
+     * @return true if the current user wrote within the window and must read from the primary
+     */
+    public boolean isPinnedToPrimary() {
+        if (!enabled || pinnedUntil.isEmpty()) {
+            return false;
+        }
+        String user = currentUser();
+        if (user == null) {
+            return false;
+        }
+        Long until = pinnedUntil.get(user);
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    private void pin(String user) {
+        long now = System.currentTimeMillis();
+        sweepIfDue(now);
+        pinnedUntil.put(user, now + windowMillis);
+    }
+
+    private void sweepIfDue(long now) {
+        if (now < nextSweepAt) {
+            return;
+        }
+        nextSweepAt = now + sweepIntervalMillis;
+        pinnedUntil.values().removeIf(until -> until <= now);
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+            || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
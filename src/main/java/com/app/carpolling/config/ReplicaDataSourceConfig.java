@@ -0,0 +1,83 @@
+package com.app.carpolling.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Primary and read replica pools behind a {@link ReplicaRoutingDataSource}.
+ *
+ * Off unless {@code datasource.replica.enabled=true}; Boot's single
+ * {@code spring.datasource} pool is used otherwise. The primary keeps the
+ * {@code spring.datasource.*} settings, the replica takes its URL and
+ * credentials from {@code datasource.replica.*} (credentials default to the
+ * primary's) and its pool settings from {@code datasource.replica.hikari.*}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+        DataSourceProperties properties,
+        @Value("${datasource.replica.url}") String url,
+        @Value("${datasource.replica.username:${spring.datasource.username}}") String username,
+        @Value("${datasource.replica.password:${spring.datasource.password}}") String password
+    ) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+            .type(HikariDataSource.class)
+            .url(url)
+            .username(username)
+            .password(password)
+            .build();
+        dataSource.setPoolName("replica");
+        // A statement that slips through with a write fails instead of diverging the replica
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(
+        @Qualifier("replicaDataSource") DataSource replicaDataSource,
+        @Value("${datasource.replica.max-lag-ms:1000}") long maxLagMillis,
+        @Value("${datasource.replica.lag-check-interval-ms:1000}") long checkIntervalMillis,
+        MeterRegistry meterRegistry
+    ) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replicaDataSource, maxLagMillis, checkIntervalMillis,
+            meterRegistry);
+        monitor.checkLag();
+        return monitor;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+        @Qualifier("primaryDataSource") DataSource primaryDataSource,
+        @Qualifier("replicaDataSource") DataSource replicaDataSource,
+        ReplicaLagMonitor replicaLagMonitor,
+        ReadYourWritesTracker readYourWritesTracker,
+        MeterRegistry meterRegistry
+    ) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(
+            primaryDataSource, replicaDataSource, replicaLagMonitor, readYourWritesTracker, meterRegistry));
+    }
+}
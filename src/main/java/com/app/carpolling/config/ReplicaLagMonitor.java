@@ -0,0 +1,85 @@
+package com.app.carpolling.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Polls the read replica for its replication lag and decides whether
+ * read-only transactions may use it.
+ *
+ * Lag is the age of the last replayed transaction while the standby still has
+ * received WAL to replay, and zero once it has caught up (an idle primary
+ * would otherwise look like a lagging replica). An instance that is not in
+ * recovery, e.g. a second local database used for testing, reports zero. The
+ * replica is unusable when the lag is above the threshold, when the check
+ * fails, or when no check has succeeded for three intervals.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final String LAG_QUERY =
+        "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+        "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+        "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final long maxLagMillis;
+    private final long staleAfterMillis;
+
+    private volatile long lagMillis = -1;
+    private volatile long lastSuccessAt;
+    private volatile boolean usable;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, long maxLagMillis, long checkIntervalMillis,
+                             MeterRegistry meterRegistry) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.replicaJdbcTemplate.setQueryTimeout((int) Math.max(1, checkIntervalMillis / 1000));
+        this.maxLagMillis = maxLagMillis;
+        this.staleAfterMillis = checkIntervalMillis * 3;
+        Gauge.builder("carpool.datasource.replica.lag", this, monitor -> monitor.lagMillis)
+            .description("Replication lag of the read replica in milliseconds, -1 when unknown")
+            .baseUnit("milliseconds")
+            .register(meterRegistry);
+        Gauge.builder("carpool.datasource.replica.usable", this, monitor -> monitor.isReplicaUsable() ? 1 : 0)
+            .description("1 while read-only transactions are routed to the replica")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.lag-check-interval-ms:1000}")
+    public void checkLag() {
+        try {
+            Number lag = replicaJdbcTemplate.queryForObject(LAG_QUERY, Number.class);
+            lagMillis = lag == null ? 0 : lag.longValue();
+            lastSuccessAt = System.currentTimeMillis();
+            setUsable(lagMillis <= maxLagMillis);
+        } catch (Exception e) {
+            lagMillis = -1;
+            setUsable(false);
+            log.debug("Replica lag check failed: {}", e.getMessage());
+        }
+    }
+
+    public boolean isReplicaUsable() {
+        return usable && System.currentTimeMillis() - lastSuccessAt <= staleAfterMillis;
+    }
+
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    private void setUsable(boolean nowUsable) {
+        if (nowUsable != usable) {
+            if (nowUsable) {
+                log.info("Read replica back in use (lag {} ms)", lagMillis);
+            } else {
+                log.warn("Routing reads to the primary: replica lag {} ms, threshold {} ms", lagMillis, maxLagMillis);
+            }
+        }
+        usable = nowUsable;
+    }
+}
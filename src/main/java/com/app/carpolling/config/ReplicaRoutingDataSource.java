@@ -0,0 +1,66 @@
+package com.app.carpolling.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends connections for read-only transactions to the replica pool and
+ * everything else to the primary.
+ *
+ * The transaction's read-only flag is only set after the transaction manager
+ * has asked for a connection, so this must sit behind a
+ * {@code LazyConnectionDataSourceProxy}, which defers the choice to the first
+ * statement. Read-only methods called from a read-write transaction join it
+ * and stay on the primary. Reads also stay on the primary while the replica
+ * is lagging ({@link ReplicaLagMonitor}) or the current user has just written
+ * a booking ({@link ReadYourWritesTracker}).
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target { PRIMARY, REPLICA }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+    private final Counter fallbackConnections;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                    ReadYourWritesTracker readYourWritesTracker, MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.primaryConnections = routedCounter(meterRegistry, "primary");
+        this.replicaConnections = routedCounter(meterRegistry, "replica");
+        this.fallbackConnections = routedCounter(meterRegistry, "primary-fallback");
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            primaryConnections.increment();
+            return Target.PRIMARY;
+        }
+        if (!lagMonitor.isReplicaUsable() || readYourWritesTracker.isPinnedToPrimary()) {
+            fallbackConnections.increment();
+            return Target.PRIMARY;
+        }
+        replicaConnections.increment();
+        return Target.REPLICA;
+    }
+
+    private static Counter routedCounter(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("carpool.datasource.connections.routed")
+            .description("Physical connections handed out by the routing data source")
+            .tag("target", target)
+            .register(meterRegistry);
+    }
+}
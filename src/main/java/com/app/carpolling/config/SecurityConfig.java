@@ -1,6 +1,7 @@
 package com.app.carpolling.config;
 
 import com.app.carpolling.filters.JWTFilter;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -20,6 +21,11 @@ public class SecurityConfig {
             .csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/api/users/register", "/api/users/login", "/api/users/logout").permitAll()
+                // Actuator endpoints are only served on the management port (management.server.port),
+                // which is kept off published ports and reachable from the internal network only
+                .requestMatchers(EndpointRequest.toAnyEndpoint()).permitAll()
+                // Gateway webhooks authenticate with their payload signature
+                .requestMatchers("/api/payments/webhook").permitAll()
                 // WebSocket handshake (JWT validated in HandshakeInterceptor via ?token=)
                 .requestMatchers("/ws/**", "/ws").permitAll()
                 // Swagger/OpenAPI endpoints
@@ -0,0 +1,138 @@
+package com.app.carpolling.config;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageHandlingRunnable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pools for the STOMP client inbound and outbound channels, with
+ * counters for frames they had to drop.
+ *
+ * Inbound frames (driver pings, subscriptions) are rejected when the queue is
+ * full, so the client sees an error instead of the server queueing without
+ * limit. Outbound topic broadcasts are dropped instead: a location update
+ * that cannot be queued is superseded by the next one anyway. Any other
+ * outbound frame (CONNECTED, RECEIPT, ERROR, replies to a /user destination)
+ * cannot be dropped without leaving the client out of step, so its session is
+ * closed the same way as one that exceeds its send limits.
+ *
+ * Kept as a plain component rather than Executor beans, which would stop
+ * Spring Boot from auto-configuring its own task executor.
+ */
+@Component
+@Slf4j
+public class StompExecutors {
+
+    private final ThreadPoolExecutor inbound;
+    private final ThreadPoolExecutor outbound;
+    private final AtomicLong droppedInbound = new AtomicLong();
+    private final AtomicLong droppedOutbound = new AtomicLong();
+    private final AtomicLong slowSessionsClosed = new AtomicLong();
+    private final ConcurrentHashMap<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+
+    public StompExecutors(
+        @Value("${websocket.inbound.pool-size:8}") int inboundPoolSize,
+        @Value("${websocket.inbound.queue-capacity:1000}") int inboundQueueCapacity,
+        @Value("${websocket.outbound.pool-size:8}") int outboundPoolSize,
+        @Value("${websocket.outbound.queue-capacity:5000}") int outboundQueueCapacity
+    ) {
+        this.inbound = newPool("stomp-inbound-", inboundPoolSize, inboundQueueCapacity, (task, pool) -> {
+            droppedInbound.incrementAndGet();
+            throw new RejectedExecutionException("STOMP inbound queue full");
+        });
+        this.outbound = newPool("stomp-outbound-", outboundPoolSize, outboundQueueCapacity, (task, pool) -> {
+            if (droppedOutbound.incrementAndGet() % 1000 == 1) {
+                log.warn("STOMP outbound queue full; dropping frames ({} so far)", droppedOutbound.get());
+            }
+            Message<?> message = task instanceof MessageHandlingRunnable runnable ? runnable.getMessage() : null;
+            if (message != null && !isBroadcast(message.getHeaders())) {
+                closeSession(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+            }
+        });
+    }
+
+    public ThreadPoolExecutor getInbound() {
+        return inbound;
+    }
+
+    public ThreadPoolExecutor getOutbound() {
+        return outbound;
+    }
+
+    public long getDroppedInbound() {
+        return droppedInbound.get();
+    }
+
+    public long getDroppedOutbound() {
+        return droppedOutbound.get();
+    }
+
+    public long getSlowSessionsClosed() {
+        return slowSessionsClosed.get();
+    }
+
+    void sessionOpened(WebSocketSession session) {
+        sessions.put(session.getId(), session);
+    }
+
+    void sessionClosed(WebSocketSession session, CloseStatus closeStatus) {
+        sessions.remove(session.getId());
+        // The status used when a session exceeds its send limits or loses a frame it needed
+        if (CloseStatus.SESSION_NOT_RELIABLE.equalsCode(closeStatus)) {
+            slowSessionsClosed.incrementAndGet();
+        }
+    }
+
+    private static boolean isBroadcast(MessageHeaders headers) {
+        // Frames resolved from a /user destination keep the original destination header
+        return SimpMessageHeaderAccessor.getMessageType(headers) == SimpMessageType.MESSAGE
+            && headers.get(SimpMessageHeaderAccessor.ORIGINAL_DESTINATION) == null;
+    }
+
+    private void closeSession(String sessionId) {
+        WebSocketSession session = sessionId == null ? null : sessions.get(sessionId);
+        if (session == null || !session.isOpen()) {
+            return;
+        }
+        try {
+            session.close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException e) {
+            log.debug("Failed to close STOMP session {}: {}", sessionId, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        inbound.shutdown();
+        outbound.shutdown();
+    }
+
+    private static ThreadPoolExecutor newPool(String prefix, int poolSize, int queueCapacity,
+                                              RejectedExecutionHandler rejectionHandler) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> new Thread(runnable, prefix + threadCount.incrementAndGet()),
+            rejectionHandler);
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
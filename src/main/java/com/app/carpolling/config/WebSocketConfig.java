@@ -6,21 +6,30 @@ import com.app.carpolling.service.TokenBlacklistService;
 import com.app.carpolling.utils.JWTUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.thread.Threading;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.lang.NonNull;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
 import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
 
 import java.security.Principal;
@@ -38,13 +47,28 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     private final TokenBlacklistService tokenBlacklistService;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
+    private final StompExecutors stompExecutors;
+    private final boolean virtualThreads;
+
+    @Value("${websocket.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${websocket.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${websocket.message-size-limit:65536}")
+    private int messageSizeLimit;
 
     public WebSocketConfig(JWTUtils jwtUtils, TokenBlacklistService tokenBlacklistService,
-                          UserRepository userRepository, BookingRepository bookingRepository) {
+                          UserRepository userRepository, BookingRepository bookingRepository,
+                          StompExecutors stompExecutors, Environment environment) {
         this.jwtUtils = jwtUtils;
         this.tokenBlacklistService = tokenBlacklistService;
         this.userRepository = userRepository;
         this.bookingRepository = bookingRepository;
+        this.stompExecutors = stompExecutors;
+        // True only with spring.threads.virtual.enabled on Java 21+
+        this.virtualThreads = Threading.VIRTUAL.isActive(environment);
     }
 
     @Override
@@ -73,6 +97,49 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
         registration.interceptors(new TripSubscriptionInterceptor(userRepository, bookingRepository));
+        if (virtualThreads) {
+            // @MessageMapping handlers run on this executor and hit the database;
+            // a virtual thread per frame parks instead of holding a pool thread
+            registration.executor(new VirtualThreadTaskExecutor("stomp-inbound-"));
+        } else {
+            registration.executor(stompExecutors.getInbound());
+        }
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        if (virtualThreads) {
+            registration.executor(new VirtualThreadTaskExecutor("stomp-outbound-"));
+        } else {
+            registration.executor(stompExecutors.getOutbound());
+        }
+    }
+
+    /**
+     * Per-session limits: a client that stops reading is disconnected once a send
+     * blocks longer than the time limit or its unsent frames exceed the buffer
+     * limit, instead of holding an outbound thread and growing its buffer.
+     */
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit)
+                .addDecoratorFactory(handler -> new WebSocketHandlerDecorator(handler) {
+                    @Override
+                    public void afterConnectionEstablished(@NonNull WebSocketSession session) throws Exception {
+                        // Lets a full outbound queue close the session a frame was meant for
+                        stompExecutors.sessionOpened(session);
+                        super.afterConnectionEstablished(session);
+                    }
+
+                    @Override
+                    public void afterConnectionClosed(@NonNull WebSocketSession session,
+                                                      @NonNull CloseStatus closeStatus) throws Exception {
+                        stompExecutors.sessionClosed(session, closeStatus);
+                        super.afterConnectionClosed(session, closeStatus);
+                    }
+                });
     }
 
     /**
@@ -131,7 +198,10 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     }
 
     /**
-     * Validates that customers can only subscribe to /topic/trip/{tripId} if they have a booking.
+     * Lets a user subscribe to /topic/trip/{tripId} only with a booking on that trip.
+     * The check runs in {@code preSend}, on the transport thread, so that a rejected
+     * SUBSCRIBE never reaches the broker or {@code SimpUserRegistry}; throwing makes
+     * the STOMP handler answer it with an ERROR frame.
      */
     private static class TripSubscriptionInterceptor implements ChannelInterceptor {
 
@@ -163,12 +233,12 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
             Principal principal = accessor.getUser();
             if (principal == null || principal.getName() == null) {
                 logger.warn("Subscription to {} rejected: no principal", dest);
-                return null; // Reject by returning null
+                throw new MessageDeliveryException(message, "Subscription to " + dest + " requires authentication");
             }
             var user = userRepository.findByPhone(principal.getName()).orElse(null);
             if (user == null || !bookingRepository.existsByUser_IdAndTrip_Id(user.getId(), tripId)) {
                 logger.warn("Subscription to {} rejected: user {} has no booking for trip {}", dest, principal.getName(), tripId);
-                return null; // Reject subscription
+                throw new MessageDeliveryException(message, "No booking for trip " + tripId);
             }
             return message;
         }
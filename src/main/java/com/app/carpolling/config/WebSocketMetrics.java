@@ -0,0 +1,123 @@
+package com.app.carpolling.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.simp.user.SimpSubscription;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * STOMP channel and subscription metrics: executor queue depth and activity,
+ * dropped frames, sessions closed for being too slow, and subscriber counts
+ * per topic family (e.g. {@code /topic/trip}). Individual trip topics are not
+ * tagged, to keep metric cardinality bounded; the largest topic is reported instead.
+ */
+@Component
+@RequiredArgsConstructor
+public class WebSocketMetrics implements MeterBinder {
+
+    private static final String TOPIC_FAMILY = "/topic/trip/";
+    private static final long STATS_CACHE_MILLIS = 1000;
+
+    private final StompExecutors stompExecutors;
+    // Looked up lazily: the registry is created by the broker configuration this class feeds into
+    private final ObjectProvider<SimpUserRegistry> userRegistry;
+
+    private volatile SubscriberStats cachedStats;
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        bindExecutor(registry, "inbound", stompExecutors.getInbound());
+        bindExecutor(registry, "outbound", stompExecutors.getOutbound());
+
+        FunctionCounter.builder("stomp.frames.dropped", stompExecutors, StompExecutors::getDroppedInbound)
+            .tag("channel", "inbound")
+            .description("Inbound frames rejected because the channel queue was full")
+            .register(registry);
+        FunctionCounter.builder("stomp.frames.dropped", stompExecutors, StompExecutors::getDroppedOutbound)
+            .tag("channel", "outbound")
+            .description("Outbound frames dropped because the channel queue was full")
+            .register(registry);
+        FunctionCounter.builder("stomp.sessions.closed.slow", stompExecutors, StompExecutors::getSlowSessionsClosed)
+            .description("Sessions closed for exceeding the send time or buffer limit or losing a non-broadcast frame")
+            .register(registry);
+
+        Gauge.builder("stomp.sessions", this, metrics -> metrics.userCount())
+            .description("Connected STOMP users")
+            .register(registry);
+        Gauge.builder("stomp.topic.subscribers", this, metrics -> metrics.subscriberStats().total)
+            .tag("topic", "/topic/trip")
+            .description("Subscriptions across all trip topics")
+            .register(registry);
+        Gauge.builder("stomp.topic.active", this, metrics -> metrics.subscriberStats().topics)
+            .tag("topic", "/topic/trip")
+            .description("Trip topics with at least one subscriber")
+            .register(registry);
+        Gauge.builder("stomp.topic.subscribers.max", this, metrics -> metrics.subscriberStats().max)
+            .tag("topic", "/topic/trip")
+            .description("Subscribers on the busiest trip topic")
+            .register(registry);
+    }
+
+    private static void bindExecutor(MeterRegistry registry, String channel, ThreadPoolExecutor executor) {
+        gauge(registry, "stomp.executor.queued", channel, executor, pool -> pool.getQueue().size());
+        gauge(registry, "stomp.executor.queue.remaining", channel, executor, pool -> pool.getQueue().remainingCapacity());
+        gauge(registry, "stomp.executor.active", channel, executor, ThreadPoolExecutor::getActiveCount);
+        FunctionCounter.builder("stomp.executor.completed", executor, ThreadPoolExecutor::getCompletedTaskCount)
+            .tag("channel", channel)
+            .register(registry);
+    }
+
+    private static void gauge(MeterRegistry registry, String name, String channel, ThreadPoolExecutor executor,
+                              ToDoubleFunction<ThreadPoolExecutor> value) {
+        Gauge.builder(name, executor, value).tag("channel", channel).register(registry);
+    }
+
+    private int userCount() {
+        SimpUserRegistry registry = userRegistry.getIfAvailable();
+        return registry == null ? 0 : registry.getUserCount();
+    }
+
+    // The three subscriber gauges are read together on each scrape; scan the registry once
+    private SubscriberStats subscriberStats() {
+        SubscriberStats stats = cachedStats;
+        if (stats != null && System.currentTimeMillis() - stats.computedAt < STATS_CACHE_MILLIS) {
+            return stats;
+        }
+        stats = computeSubscriberStats();
+        cachedStats = stats;
+        return stats;
+    }
+
+    private SubscriberStats computeSubscriberStats() {
+        SimpUserRegistry registry = userRegistry.getIfAvailable();
+        if (registry == null) {
+            return new SubscriberStats(0, 0, 0, System.currentTimeMillis());
+        }
+        Map<String, Integer> perTopic = new HashMap<>();
+        for (SimpSubscription subscription : registry.findSubscriptions(
+                candidate -> candidate.getDestination() != null && candidate.getDestination().startsWith(TOPIC_FAMILY))) {
+            perTopic.merge(subscription.getDestination(), 1, Integer::sum);
+        }
+        int total = 0;
+        int max = 0;
+        for (int count : perTopic.values()) {
+            total += count;
+            max = Math.max(max, count);
+        }
+        return new SubscriberStats(total, perTopic.size(), max, System.currentTimeMillis());
+    }
+
+    private record SubscriberStats(int total, int topics, int max, long computedAt) {
+    }
+}
@@ -1,14 +1,25 @@
 package com.app.carpolling.controller;
 
-import com.app.carpolling.dto.AdminDashboardStats;
-import com.app.carpolling.dto.ApiResponse;
+import com.app.carpolling.dto.*;
 import com.app.carpolling.entity.*;
 import com.app.carpolling.service.AdminService;
+import com.app.carpolling.service.AnalyticsService;
+import com.app.carpolling.service.ExportService;
+import com.app.carpolling.service.ExportService.ExportFormat;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -18,6 +29,11 @@ import java.util.List;
 public class AdminController {
     
     private final AdminService adminService;
+    private final ExportService exportService;
+    private final AnalyticsService analyticsService;
+    
+    @Value("${admin.export.timeout-ms:1800000}")
+    private long exportTimeoutMillis;
     
     // ==================== DASHBOARD ====================
     
@@ -37,9 +53,15 @@ public class AdminController {
     // ==================== USER MANAGEMENT ====================
     
     @GetMapping("/users")
-    public ResponseEntity<ApiResponse<List<User>>> getAllUsers() {
+    public ResponseEntity<ApiResponse<PageResponse<AdminUserSummaryDto>>> getAllUsers(
+        @RequestParam(required = false) String search,
+        @RequestParam(required = false) UserRole role,
+        @RequestParam(required = false) Boolean isActive,
+        @RequestParam(defaultValue = "0") int page,
+        @RequestParam(defaultValue = "20") int size
+    ) {
         try {
-            List<User> users = adminService.getAllUsers();
+            PageResponse<AdminUserSummaryDto> users = adminService.getUsers(search, role, isActive, page, size);
             return ResponseEntity.ok(
                 ApiResponse.success("Users retrieved successfully", users)
             );
@@ -78,9 +100,14 @@ public class AdminController {
     // ==================== DRIVER MANAGEMENT ====================
     
     @GetMapping("/drivers")
-    public ResponseEntity<ApiResponse<List<Driver>>> getAllDrivers() {
+    public ResponseEntity<ApiResponse<PageResponse<AdminDriverSummaryDto>>> getAllDrivers(
+        @RequestParam(required = false) String search,
+        @RequestParam(required = false) Boolean isVerified,
+        @RequestParam(defaultValue = "0") int page,
+        @RequestParam(defaultValue = "20") int size
+    ) {
         try {
-            List<Driver> drivers = adminService.getAllDrivers();
+            PageResponse<AdminDriverSummaryDto> drivers = adminService.getDrivers(search, isVerified, page, size);
             return ResponseEntity.ok(
                 ApiResponse.success("Drivers retrieved successfully", drivers)
             );
@@ -91,9 +118,13 @@ public class AdminController {
     }
     
     @GetMapping("/drivers/unverified")
-    public ResponseEntity<ApiResponse<List<Driver>>> getUnverifiedDrivers() {
+    public ResponseEntity<ApiResponse<PageResponse<AdminDriverSummaryDto>>> getUnverifiedDrivers(
+        @RequestParam(required = false) String search,
+        @RequestParam(defaultValue = "0") int page,
+        @RequestParam(defaultValue = "20") int size
+    ) {
         try {
-            List<Driver> drivers = adminService.getUnverifiedDrivers();
+            PageResponse<AdminDriverSummaryDto> drivers = adminService.getDrivers(search, false, page, size);
             return ResponseEntity.ok(
                 ApiResponse.success("Unverified drivers retrieved successfully", drivers)
             );
@@ -132,9 +163,16 @@ public class AdminController {
     // ==================== VEHICLE MANAGEMENT ====================
     
     @GetMapping("/vehicles")
-    public ResponseEntity<ApiResponse<List<Vehicle>>> getAllVehicles() {
+    public ResponseEntity<ApiResponse<PageResponse<AdminVehicleSummaryDto>>> getAllVehicles(
+        @RequestParam(required = false) String search,
+        @RequestParam(required = false) Long driverId,
+        @RequestParam(required = false) Boolean isActive,
+        @RequestParam(defaultValue = "0") int page,
+        @RequestParam(defaultValue = "20") int size
+    ) {
         try {
-            List<Vehicle> vehicles = adminService.getAllVehicles();
+            PageResponse<AdminVehicleSummaryDto> vehicles =
+                adminService.getVehicles(search, driverId, isActive, page, size);
             return ResponseEntity.ok(
                 ApiResponse.success("Vehicles retrieved successfully", vehicles)
             );
@@ -147,9 +185,17 @@ public class AdminController {
     // ==================== TRIP MANAGEMENT ====================
     
     @GetMapping("/trips")
-    public ResponseEntity<ApiResponse<List<Trip>>> getAllTrips() {
+    public ResponseEntity<ApiResponse<PageResponse<AdminTripSummaryDto>>> getAllTrips(
+        @RequestParam(required = false) TripStatus status,
+        @RequestParam(required = false) Long driverId,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fromDate,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime toDate,
+        @RequestParam(defaultValue = "0") int page,
+        @RequestParam(defaultValue = "20") int size
+    ) {
         try {
-            List<Trip> trips = adminService.getAllTrips();
+            PageResponse<AdminTripSummaryDto> trips =
+                adminService.getTrips(status, driverId, fromDate, toDate, page, size);
             return ResponseEntity.ok(
                 ApiResponse.success("Trips retrieved successfully", trips)
             );
@@ -162,9 +208,16 @@ public class AdminController {
     // ==================== BOOKING MANAGEMENT ====================
     
     @GetMapping("/bookings")
-    public ResponseEntity<ApiResponse<List<Booking>>> getAllBookings() {
+    public ResponseEntity<ApiResponse<PageResponse<AdminBookingSummaryDto>>> getAllBookings(
+        @RequestParam(required = false) String search,
+        @RequestParam(required = false) BookingStatus status,
+        @RequestParam(required = false) Long tripId,
+        @RequestParam(defaultValue = "0") int page,
+        @RequestParam(defaultValue = "20") int size
+    ) {
         try {
-            List<Booking> bookings = adminService.getAllBookings();
+            PageResponse<AdminBookingSummaryDto> bookings =
+                adminService.getBookings(search, status, tripId, page, size);
             return ResponseEntity.ok(
                 ApiResponse.success("Bookings retrieved successfully", bookings)
             );
@@ -173,11 +226,109 @@ public class AdminController {
                 .body(ApiResponse.error(e.getMessage()));
         }
     }
+    
+    // ==================== ANALYTICS ====================
+    
+    @GetMapping("/analytics")
+    public ResponseEntity<ApiResponse<List<RouteAnalyticsDto>>> getRouteAnalytics(
+        @RequestParam(defaultValue = "HOUR") RollupGranularity granularity,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fromTime,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime toTime,
+        @RequestParam(required = false) Long routeId
+    ) {
+        try {
+            List<RouteAnalyticsDto> analytics =
+                analyticsService.getRouteAnalytics(granularity, fromTime, toTime, routeId);
+            return ResponseEntity.ok(
+                ApiResponse.success("Analytics retrieved successfully", analytics)
+            );
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/analytics/city-pairs")
+    public ResponseEntity<ApiResponse<List<RouteCityPairRollup>>> getCityPairAnalytics(
+        @RequestParam(defaultValue = "HOUR") RollupGranularity granularity,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fromTime,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime toTime,
+        @RequestParam(required = false) Long routeId,
+        @RequestParam(required = false) String boardingCity,
+        @RequestParam(required = false) String dropCity
+    ) {
+        try {
+            List<RouteCityPairRollup> analytics = analyticsService.getCityPairAnalytics(
+                granularity, fromTime, toTime, routeId, boardingCity, dropCity);
+            return ResponseEntity.ok(
+                ApiResponse.success("City pair analytics retrieved successfully", analytics)
+            );
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    // ==================== EXPORTS ====================
+    
+    @GetMapping("/bookings/export")
+    public ResponseEntity<?> exportBookings(
+        @RequestParam(defaultValue = "csv") String format,
+        @RequestParam(required = false) BookingStatus status,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fromDate,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime toDate,
+        ServletWebRequest webRequest
+    ) {
+        try {
+            ExportFormat exportFormat = ExportFormat.from(format);
+            extendAsyncTimeout(webRequest);
+            StreamingResponseBody body = outputStream ->
+                exportService.exportBookings(status, fromDate, toDate, exportFormat, outputStream);
+            return exportResponse("bookings", exportFormat, body);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/payments/export")
+    public ResponseEntity<?> exportPayments(
+        @RequestParam(defaultValue = "csv") String format,
+        @RequestParam(required = false) PaymentStatus status,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fromDate,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime toDate,
+        ServletWebRequest webRequest
+    ) {
+        try {
+            ExportFormat exportFormat = ExportFormat.from(format);
+            extendAsyncTimeout(webRequest);
+            StreamingResponseBody body = outputStream ->
+                exportService.exportPayments(status, fromDate, toDate, exportFormat, outputStream);
+            return exportResponse("payments", exportFormat, body);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    /**
+     * Streams run under the async request timeout, which is short by default.
+     * Swap in an async request with the export timeout for this request only.
+     */
+    private void extendAsyncTimeout(ServletWebRequest webRequest) {
+        AsyncWebRequest asyncWebRequest =
+            WebAsyncUtils.createAsyncWebRequest(webRequest.getRequest(), webRequest.getResponse());
+        asyncWebRequest.setTimeout(exportTimeoutMillis);
+        WebAsyncUtils.getAsyncManager(webRequest.getRequest()).setAsyncWebRequest(asyncWebRequest);
+    }
+    
+    private ResponseEntity<StreamingResponseBody> exportResponse(String name, ExportFormat format,
+                                                                 StreamingResponseBody body) {
+        String filename = name + "-" + LocalDateTime.now().withNano(0).toString().replace(":", "")
+            + "." + format.getExtension();
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(format.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+            .body(body);
+    }
 }
-
-
-
-
-
-
-
@@ -1,8 +1,10 @@
 package com.app.carpolling.controller;
 
+import com.app.carpolling.config.QueryBudget;
 import com.app.carpolling.dto.ApiResponse;
 import com.app.carpolling.dto.BookingRequest;
 import com.app.carpolling.dto.BookingResponse;
+import com.app.carpolling.dto.CursorPage;
 import com.app.carpolling.entity.Booking;
 import com.app.carpolling.service.BookingService;
 import jakarta.validation.Valid;
@@ -36,6 +38,7 @@ public class BookingController {
     }
     
     @GetMapping("/user/{userId}")
+    @QueryBudget(2)
     public ResponseEntity<ApiResponse<List<BookingResponse>>> getUserBookings(
         @PathVariable Long userId
     ) {
@@ -50,7 +53,26 @@ public class BookingController {
         }
     }
     
+    @GetMapping("/user/{userId}/history")
+    @QueryBudget(2)
+    public ResponseEntity<ApiResponse<CursorPage<BookingResponse>>> getUserBookingHistory(
+        @PathVariable Long userId,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "20") int size
+    ) {
+        try {
+            CursorPage<BookingResponse> history = bookingService.getUserBookingHistory(userId, cursor, size);
+            return ResponseEntity.ok(
+                ApiResponse.success("Booking history retrieved successfully", history)
+            );
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
     @GetMapping("/reference/{bookingReference}")
+    @QueryBudget(2)
     public ResponseEntity<ApiResponse<BookingResponse>> getBookingByReference(
         @PathVariable String bookingReference
     ) {
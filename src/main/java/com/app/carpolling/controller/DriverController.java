@@ -1,5 +1,6 @@
 package com.app.carpolling.controller;
 
+import com.app.carpolling.config.QueryBudget;
 import com.app.carpolling.dto.*;
 import com.app.carpolling.entity.Driver;
 import com.app.carpolling.entity.Route;
@@ -11,6 +12,7 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -40,6 +42,7 @@ public class DriverController {
     }
 
     @GetMapping("/{driverId}")
+    @QueryBudget(1)
     public ResponseEntity<ApiResponse<Driver>> getDriverById(@PathVariable Long driverId) {
         try {
             Driver driver = driverService.getDriverById(driverId);
@@ -65,6 +68,7 @@ public class DriverController {
     }
     
     @GetMapping("/{driverId}/vehicles")
+    @QueryBudget(1)
     public ResponseEntity<ApiResponse<List<Vehicle>>> getDriverVehicles(
         @PathVariable Long driverId
     ) {
@@ -91,7 +95,33 @@ public class DriverController {
         }
     }
     
+    /**
+     * Deactivate a route. Only the driver who owns the route may do this.
+     */
+    @PutMapping("/routes/{routeId}/deactivate")
+    public ResponseEntity<ApiResponse<Route>> deactivateRoute(
+        @PathVariable Long routeId,
+        Authentication authentication
+    ) {
+        try {
+            if (authentication == null || authentication.getPrincipal() == null) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(ApiResponse.error("Authentication required"));
+            }
+            if (!routeService.isRouteOwnedBy(routeId, authentication.getPrincipal().toString())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(ApiResponse.error("You can only deactivate your own routes"));
+            }
+            Route route = routeService.deactivateRoute(routeId);
+            return ResponseEntity.ok(ApiResponse.success("Route deactivated successfully", route));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
     @GetMapping("/{driverId}/routes")
+    @QueryBudget(1)
     public ResponseEntity<ApiResponse<List<Route>>> getDriverRoutes(
         @PathVariable Long driverId
     ) {
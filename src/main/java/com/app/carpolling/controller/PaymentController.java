@@ -5,13 +5,18 @@ import com.app.carpolling.dto.PaymentCallbackRequest;
 import com.app.carpolling.dto.PaymentOrderResponse;
 import com.app.carpolling.dto.PaymentRequest;
 import com.app.carpolling.entity.Payment;
+import com.app.carpolling.exception.BaseException;
 import com.app.carpolling.service.PaymentService;
+import com.app.carpolling.service.PaymentWebhookService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 @RestController
 @RequestMapping("/api/payments")
 @RequiredArgsConstructor
@@ -19,27 +24,40 @@ import org.springframework.web.bind.annotation.*;
 public class PaymentController {
     
     private final PaymentService paymentService;
+    private final PaymentWebhookService paymentWebhookService;
     
     /**
-     * Creates a Razorpay order for the given booking
+     * Creates a Razorpay order for the given booking.
+     * The request thread is released while the gateway call is in flight.
      * @param request PaymentRequest containing booking ID
-     * @return Razorpay order response as JSON string
+     * @return Razorpay order details for the client checkout
      */
     @PostMapping("/create-order")
-    public ResponseEntity<ApiResponse<PaymentOrderResponse>> createOrder(
+    public CompletableFuture<ResponseEntity<ApiResponse<PaymentOrderResponse>>> createOrder(
         @Valid @RequestBody PaymentRequest request
     ) {
         try {
-            PaymentOrderResponse orderResponse = paymentService.createOrder(request);
-            return ResponseEntity.ok(
-                ApiResponse.success("Razorpay order created successfully", orderResponse)
-            );
+            return paymentService.createOrder(request)
+                .thenApply(orderResponse -> ResponseEntity.ok(
+                    ApiResponse.success("Razorpay order created successfully", orderResponse)
+                ))
+                .exceptionally(this::orderFailed);
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                .body(ApiResponse.error(e.getMessage()));
+            return CompletableFuture.completedFuture(orderFailed(e));
         }
     }
     
+    private ResponseEntity<ApiResponse<PaymentOrderResponse>> orderFailed(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null
+            ? error.getCause() : error;
+        HttpStatus status = cause instanceof BaseException baseException
+            && baseException.getErrorCodeValue() >= 500
+            ? HttpStatus.valueOf(baseException.getErrorCodeValue())
+            : HttpStatus.BAD_REQUEST;
+        return ResponseEntity.status(status)
+            .body(ApiResponse.error(cause.getMessage()));
+    }
+    
     /**
      * Payment callback endpoint to verify Razorpay payment
      * @param callbackRequest PaymentCallbackRequest containing Razorpay payment details
@@ -47,10 +65,11 @@ public class PaymentController {
      */
     @PostMapping("/payment-callback")
     public ResponseEntity<ApiResponse<Payment>> paymentCallback(
-        @Valid @RequestBody PaymentCallbackRequest callbackRequest
+        @Valid @RequestBody PaymentCallbackRequest callbackRequest,
+        @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey
     ) {
         try {
-            Payment payment = paymentService.verifyPayment(callbackRequest);
+            Payment payment = paymentService.verifyPayment(callbackRequest, idempotencyKey);
             if (payment.getStatus().toString().equals("SUCCESS")) {
                 return ResponseEntity.ok(
                     ApiResponse.success("Payment verified successfully", payment)
@@ -65,6 +84,27 @@ public class PaymentController {
         }
     }
     
+    /**
+     * Razorpay webhook receiver. Only verifies and stores the event; the booking is
+     * updated asynchronously by the webhook processor.
+     */
+    @PostMapping("/webhook")
+    public ResponseEntity<ApiResponse<Void>> paymentWebhook(
+        @RequestBody String payload,
+        @RequestHeader(value = "X-Razorpay-Signature", required = false) String signature,
+        @RequestHeader(value = "X-Razorpay-Event-Id", required = false) String eventId
+    ) {
+        try {
+            boolean queued = paymentWebhookService.receive(payload, signature, eventId);
+            return ResponseEntity.ok(
+                ApiResponse.success(queued ? "Webhook event queued" : "Webhook event already received or ignored", null)
+            );
+        } catch (BaseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
     @GetMapping("/booking/{bookingId}")
     public ResponseEntity<ApiResponse<Payment>> getPaymentByBookingId(
         @PathVariable Long bookingId
@@ -0,0 +1,40 @@
+package com.app.carpolling.controller;
+
+import com.app.carpolling.dto.ApiResponse;
+import com.app.carpolling.service.SimulatedPaymentGateway;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Stands in for the provider's checkout form when the payment simulator is active.
+ * Only registered with payment.gateway=simulator.
+ */
+@RestController
+@RequestMapping("/api/payments/simulator")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "payment.gateway", havingValue = "simulator")
+public class PaymentSimulatorController {
+    
+    private final SimulatedPaymentGateway simulatedPaymentGateway;
+    
+    /**
+     * Pays a simulated order and returns the fields the client posts to /api/payments/payment-callback
+     */
+    @PostMapping("/orders/{orderId}/pay")
+    public ResponseEntity<ApiResponse<Map<String, String>>> payOrder(@PathVariable String orderId) {
+        try {
+            Map<String, String> payment = simulatedPaymentGateway.signPayment(orderId);
+            return ResponseEntity.ok(
+                ApiResponse.success("Simulated payment completed", payment)
+            );
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+}
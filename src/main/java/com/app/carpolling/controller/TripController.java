@@ -1,21 +1,29 @@
 package com.app.carpolling.controller;
 
+import com.app.carpolling.config.QueryBudget;
 import com.app.carpolling.dto.*;
+import com.app.carpolling.entity.RoutePoint;
 import com.app.carpolling.entity.Trip;
 import com.app.carpolling.entity.User;
 import com.app.carpolling.repository.BookingRepository;
 import com.app.carpolling.repository.UserRepository;
+import com.app.carpolling.service.CatalogService;
 import com.app.carpolling.service.DriverLocationService;
 import com.app.carpolling.service.RouteService;
 import com.app.carpolling.service.TripService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/trips")
@@ -28,6 +36,10 @@ public class TripController {
     private final DriverLocationService driverLocationService;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
+    private final CatalogService catalogService;
+    
+    @Value("${catalog.cache.max-age-seconds:300}")
+    private long catalogMaxAgeSeconds;
     
     @PostMapping
     public ResponseEntity<ApiResponse<Trip>> createTrip(
@@ -44,6 +56,7 @@ public class TripController {
     }
     
     @PostMapping("/search")
+    @QueryBudget(20)
     public ResponseEntity<ApiResponse<List<TripSearchResponse>>> searchTrips(
         @Valid @RequestBody TripSearchRequest request
     ) {
@@ -59,6 +72,7 @@ public class TripController {
     }
     
     @GetMapping("/{tripId}/seats")
+    @QueryBudget(3)
     public ResponseEntity<ApiResponse<SeatAvailabilityResponse>> getSeatAvailability(
         @PathVariable Long tripId
     ) {
@@ -74,19 +88,19 @@ public class TripController {
     }
     
     @GetMapping("/cities")
-    public ResponseEntity<ApiResponse<List<String>>> getAllCities(
-        @RequestParam(required = false) String search
+    public ResponseEntity<?> getAllCities(
+        @RequestParam(required = false) String search,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
     ) {
         try {
-            List<String> cities;
             if (search != null && !search.trim().isEmpty()) {
-                cities = routeService.searchCities(search);
-            } else {
-                cities = routeService.getAllCities();
+                List<String> cities = routeService.searchCities(search);
+                return ResponseEntity.ok(
+                    ApiResponse.success("Cities retrieved successfully", cities)
+                );
             }
-            return ResponseEntity.ok(
-                ApiResponse.success("Cities retrieved successfully", cities)
-            );
+            return catalogResponse(catalogService.getAllCities(), ifNoneMatch, acceptEncoding);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                 .body(ApiResponse.error(e.getMessage()));
@@ -94,12 +108,12 @@ public class TripController {
     }
     
     @GetMapping("/cities/boarding")
-    public ResponseEntity<ApiResponse<List<String>>> getBoardingCities() {
+    public ResponseEntity<?> getBoardingCities(
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
         try {
-            List<String> cities = routeService.getBoardingCities();
-            return ResponseEntity.ok(
-                ApiResponse.success("Boarding cities retrieved successfully", cities)
-            );
+            return catalogResponse(catalogService.getBoardingCities(), ifNoneMatch, acceptEncoding);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                 .body(ApiResponse.error(e.getMessage()));
@@ -107,12 +121,12 @@ public class TripController {
     }
     
     @GetMapping("/cities/drop")
-    public ResponseEntity<ApiResponse<List<String>>> getDropCities() {
+    public ResponseEntity<?> getDropCities(
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
         try {
-            List<String> cities = routeService.getDropCities();
-            return ResponseEntity.ok(
-                ApiResponse.success("Drop cities retrieved successfully", cities)
-            );
+            return catalogResponse(catalogService.getDropCities(), ifNoneMatch, acceptEncoding);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                 .body(ApiResponse.error(e.getMessage()));
@@ -120,14 +134,13 @@ public class TripController {
     }
     
     @GetMapping("/locations/boarding")
-    public ResponseEntity<ApiResponse<List<String>>> getBoardingSubLocations(
-        @RequestParam String city
+    public ResponseEntity<?> getBoardingSubLocations(
+        @RequestParam String city,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
     ) {
         try {
-            List<String> locations = routeService.getBoardingSubLocationsByCity(city);
-            return ResponseEntity.ok(
-                ApiResponse.success("Boarding locations retrieved successfully", locations)
-            );
+            return catalogResponse(catalogService.getBoardingSubLocations(city), ifNoneMatch, acceptEncoding);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                 .body(ApiResponse.error(e.getMessage()));
@@ -135,14 +148,13 @@ public class TripController {
     }
     
     @GetMapping("/locations/drop")
-    public ResponseEntity<ApiResponse<List<String>>> getDropSubLocations(
-        @RequestParam String city
+    public ResponseEntity<?> getDropSubLocations(
+        @RequestParam String city,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
     ) {
         try {
-            List<String> locations = routeService.getDropSubLocationsByCity(city);
-            return ResponseEntity.ok(
-                ApiResponse.success("Drop locations retrieved successfully", locations)
-            );
+            return catalogResponse(catalogService.getDropSubLocations(city), ifNoneMatch, acceptEncoding);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                 .body(ApiResponse.error(e.getMessage()));
@@ -150,19 +162,19 @@ public class TripController {
     }
     
     @GetMapping("/boarding-points")
-    public ResponseEntity<ApiResponse<List<com.app.carpolling.entity.RoutePoint>>> getAllBoardingPoints(
-        @RequestParam(required = false) String search
+    public ResponseEntity<?> getAllBoardingPoints(
+        @RequestParam(required = false) String search,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
     ) {
         try {
-            List<com.app.carpolling.entity.RoutePoint> points;
             if (search != null && !search.trim().isEmpty()) {
-                points = routeService.searchBoardingPoints(search);
-            } else {
-                points = routeService.getAllBoardingPoints();
+                List<RoutePoint> points = routeService.searchBoardingPoints(search);
+                return ResponseEntity.ok(
+                    ApiResponse.success("Boarding points retrieved successfully", points)
+                );
             }
-            return ResponseEntity.ok(
-                ApiResponse.success("Boarding points retrieved successfully", points)
-            );
+            return catalogResponse(catalogService.getAllBoardingPoints(), ifNoneMatch, acceptEncoding);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                 .body(ApiResponse.error(e.getMessage()));
@@ -170,18 +182,48 @@ public class TripController {
     }
     
     @GetMapping("/drop-points")
-    public ResponseEntity<ApiResponse<List<com.app.carpolling.entity.RoutePoint>>> getAllDropPoints(
-        @RequestParam(required = false) String search
+    public ResponseEntity<?> getAllDropPoints(
+        @RequestParam(required = false) String search,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
     ) {
         try {
-            List<com.app.carpolling.entity.RoutePoint> points;
             if (search != null && !search.trim().isEmpty()) {
-                points = routeService.searchDropPoints(search);
-            } else {
-                points = routeService.getAllDropPoints();
+                List<RoutePoint> points = routeService.searchDropPoints(search);
+                return ResponseEntity.ok(
+                    ApiResponse.success("Drop points retrieved successfully", points)
+                );
             }
+            return catalogResponse(catalogService.getAllDropPoints(), ifNoneMatch, acceptEncoding);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/boarding-points/suggest")
+    public ResponseEntity<ApiResponse<List<LocationSuggestionDto>>> suggestBoardingLocations(
+        @RequestParam String search
+    ) {
+        try {
+            List<LocationSuggestionDto> locations = routeService.suggestBoardingLocations(search);
             return ResponseEntity.ok(
-                ApiResponse.success("Drop points retrieved successfully", points)
+                ApiResponse.success("Boarding locations retrieved successfully", locations)
+            );
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/drop-points/suggest")
+    public ResponseEntity<ApiResponse<List<LocationSuggestionDto>>> suggestDropLocations(
+        @RequestParam String search
+    ) {
+        try {
+            List<LocationSuggestionDto> locations = routeService.suggestDropLocations(search);
+            return ResponseEntity.ok(
+                ApiResponse.success("Drop locations retrieved successfully", locations)
             );
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -196,6 +238,7 @@ public class TripController {
     }
     
     @GetMapping("/driver/{driverId}")
+    @QueryBudget(2)
     public ResponseEntity<ApiResponse<List<Trip>>> getTripsByDriverId(
         @PathVariable Long driverId
     ) {
@@ -256,5 +299,34 @@ public class TripController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ApiResponse.error(e.getMessage()));
         }
     }
-}
 
+    /**
+     * Writes a pre-serialized catalog body, or 304 when the client already has it.
+     * Clients revalidate after max-age; the ETag changes only when the catalog content does.
+     */
+    private ResponseEntity<byte[]> catalogResponse(CatalogService.CatalogBody body,
+                                                   String ifNoneMatch, String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        String etag = gzip ? body.gzipEtag() : body.etag();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(etag);
+        headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+        headers.setCacheControl(CacheControl.maxAge(catalogMaxAgeSeconds, TimeUnit.SECONDS)
+            .cachePrivate()
+            .mustRevalidate());
+        headers.set("X-Catalog-Version", String.valueOf(body.version()));
+
+        if (ifNoneMatch != null && (ifNoneMatch.trim().equals("*")
+                || ifNoneMatch.contains(body.etag()) || ifNoneMatch.contains(body.gzipEtag()))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
+
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return ResponseEntity.ok().headers(headers).body(body.gzip());
+        }
+        return ResponseEntity.ok().headers(headers).body(body.json());
+    }
+}
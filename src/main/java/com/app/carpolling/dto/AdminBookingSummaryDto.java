@@ -0,0 +1,27 @@
+package com.app.carpolling.dto;
+
+import com.app.carpolling.entity.BookingStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdminBookingSummaryDto {
+    private Long id;
+    private String bookingReference;
+    private Long userId;
+    private String userName;
+    private String userPhone;
+    private Long tripId;
+    private LocalDateTime departureTime;
+    private String boardingCity;
+    private String dropCity;
+    private Integer numberOfSeats;
+    private Double totalAmount;
+    private BookingStatus status;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,24 @@
+package com.app.carpolling.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdminDriverSummaryDto {
+    private Long id;
+    private Long userId;
+    private String name;
+    private String phone;
+    private String licenseNumber;
+    private String licenseExpiryDate;
+    private Integer experienceYears;
+    private Boolean isVerified;
+    private Double rating;
+    private Integer totalTrips;
+    private LocalDateTime createdAt;
+}
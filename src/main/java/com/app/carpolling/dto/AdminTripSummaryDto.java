@@ -0,0 +1,26 @@
+package com.app.carpolling.dto;
+
+import com.app.carpolling.entity.TripStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdminTripSummaryDto {
+    private Long id;
+    private Long routeId;
+    private String routeName;
+    private Long driverId;
+    private String driverName;
+    private String vehicleRegistrationNumber;
+    private LocalDateTime departureTime;
+    private LocalDateTime estimatedArrivalTime;
+    private Integer availableSeats;
+    private Integer bookedSeats;
+    private TripStatus status;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,21 @@
+package com.app.carpolling.dto;
+
+import com.app.carpolling.entity.UserRole;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdminUserSummaryDto {
+    private Long id;
+    private String name;
+    private String email;
+    private String phone;
+    private UserRole role;
+    private Boolean isActive;
+    private LocalDateTime createdAt;
+}
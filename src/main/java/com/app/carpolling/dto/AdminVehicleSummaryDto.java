@@ -0,0 +1,24 @@
+package com.app.carpolling.dto;
+
+import com.app.carpolling.entity.VehicleType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdminVehicleSummaryDto {
+    private Long id;
+    private Long driverId;
+    private String driverName;
+    private String registrationNumber;
+    private String brand;
+    private String model;
+    private VehicleType vehicleType;
+    private Integer passengerSeats;
+    private Boolean isActive;
+    private LocalDateTime createdAt;
+}
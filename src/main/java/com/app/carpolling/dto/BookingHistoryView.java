@@ -0,0 +1,26 @@
+package com.app.carpolling.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of a user's booking history, flattened from booking, trip,
+ * route points, vehicle and driver by the history query.
+ */
+public interface BookingHistoryView {
+    Long getBookingId();
+    String getBookingReference();
+    Long getTripId();
+    String getBoardingPoint();
+    String getDropPoint();
+    LocalDateTime getDepartureTime();
+    String[] getSeatNumbers();
+    Double getTotalAmount();
+    String getStatus();
+    String getDriverName();
+    String getDriverPhone();
+    String getVehicleBrand();
+    String getVehicleModel();
+    String getVehicleColor();
+    String getRegistrationNumber();
+    LocalDateTime getBookedAt();
+}
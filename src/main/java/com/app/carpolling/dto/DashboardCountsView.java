@@ -0,0 +1,16 @@
+package com.app.carpolling.dto;
+
+/**
+ * Row returned by the single-query dashboard aggregate.
+ */
+public interface DashboardCountsView {
+    Long getTotalUsers();
+    Long getTotalDrivers();
+    Long getVerifiedDrivers();
+    Long getTotalVehicles();
+    Long getTotalTrips();
+    Long getTotalBookings();
+    Long getConfirmedBookings();
+    Long getPendingBookings();
+    Long getCancelledBookings();
+}
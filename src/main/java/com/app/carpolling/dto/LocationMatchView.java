@@ -0,0 +1,10 @@
+package com.app.carpolling.dto;
+
+/**
+ * Distinct location row returned by the trigram search queries.
+ */
+public interface LocationMatchView {
+    String getCity();
+    String getSubLocation();
+    Long getRouteCount();
+}
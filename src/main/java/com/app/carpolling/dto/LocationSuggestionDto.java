@@ -0,0 +1,15 @@
+package com.app.carpolling.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationSuggestionDto {
+    private String city;
+    private String subLocation;
+    private String pointName; // Combined: "City - SubLocation"
+    private Long routeCount; // Number of active routes serving this location
+}
@@ -0,0 +1,19 @@
+package com.app.carpolling.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxStats {
+    private long recordedEvents;       // Since this instance started
+    private long publishedEvents;      // Since this instance started
+    private long failedBatches;        // Since this instance started
+    private long pendingEvents;
+    private Long oldestPendingAgeSeconds;
+    private long lastBatchSize;
+    private long lastBatchMillis;
+    private double lastRunEventsPerSecond;
+}
@@ -0,0 +1,25 @@
+package com.app.carpolling.dto;
+
+import com.app.carpolling.entity.PaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentExportDto {
+    private Long id;
+    private String transactionId;
+    private String razorpayOrderId;
+    private String razorpayPaymentId;
+    private Long bookingId;
+    private String bookingReference;
+    private Double amount;
+    private PaymentStatus status;
+    private String failureReason;
+    private LocalDateTime paidAt;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,28 @@
+package com.app.carpolling.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteAnalyticsDto {
+    private LocalDateTime bucketStart;
+    private Long routeId;
+    private Long trips;
+    private Long seatsOffered;
+    private Long confirmedBookings;
+    private Long seatsBooked;
+    private Double seatUtilization; // seatsBooked / seatsOffered, 0 when nothing was offered
+    private Double bookingAmount;
+    private Double revenue;
+    
+    public RouteAnalyticsDto(LocalDateTime bucketStart, Long routeId, Long trips, Long seatsOffered,
+                             Long confirmedBookings, Long seatsBooked, Double bookingAmount, Double revenue) {
+        this(bucketStart, routeId, trips, seatsOffered, confirmedBookings, seatsBooked,
+            seatsOffered > 0 ? (double) seatsBooked / seatsOffered : 0.0, bookingAmount, revenue);
+    }
+}
@@ -0,0 +1,17 @@
+package com.app.carpolling.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoutePointSummaryDto {
+    private Long id;
+    private Long routeId;
+    private String city;
+    private String subLocation;
+    private Boolean isBoardingPoint;
+    private Boolean isDropPoint;
+}
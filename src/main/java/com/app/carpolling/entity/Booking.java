@@ -13,16 +13,44 @@ import java.util.List;
 
 @Entity
 @Table(name = "bookings", indexes = {
-    @Index(name = "idx_booking_user", columnList = "user_id"),
+    @Index(name = "idx_booking_user_created", columnList = "user_id, createdAt DESC, id DESC"),
     @Index(name = "idx_booking_trip", columnList = "trip_id"),
-    @Index(name = "idx_booking_status", columnList = "status")
+    @Index(name = "idx_booking_status", columnList = "status"),
+    @Index(name = "idx_booking_updated_at", columnList = "updatedAt")
 })
+// Associations are lazy; these graphs fetch what a use case reads in the same query
+@NamedEntityGraph(name = Booking.GRAPH_DETAILS,
+    attributeNodes = {
+        @NamedAttributeNode("user"),
+        @NamedAttributeNode("boardingPoint"),
+        @NamedAttributeNode("dropPoint"),
+        @NamedAttributeNode("seatNumbers"),
+        @NamedAttributeNode(value = "trip", subgraph = "trip")
+    },
+    subgraphs = {
+        @NamedSubgraph(name = "trip", attributeNodes = {
+            @NamedAttributeNode("vehicle"),
+            @NamedAttributeNode(value = "driver", subgraph = "driver")
+        }),
+        @NamedSubgraph(name = "driver", attributeNodes = @NamedAttributeNode("user"))
+    })
+@NamedEntityGraph(name = Booking.GRAPH_SEATS_AND_TRIP,
+    attributeNodes = {
+        @NamedAttributeNode("seatNumbers"),
+        @NamedAttributeNode("trip")
+    })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Booking {
     
+    // User, trip with vehicle and driver's user, both points and seats: BookingResponse and
+    // the booking returned by cancel
+    public static final String GRAPH_DETAILS = "Booking.details";
+    // Seats and trip: releasing seats on expiry
+    public static final String GRAPH_SEATS_AND_TRIP = "Booking.seatsAndTrip";
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -30,19 +58,19 @@ public class Booking {
     @Column(nullable = false, unique = true)
     private String bookingReference; // e.g., "BK20231116001"
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "trip_id", nullable = false)
     private Trip trip;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "boarding_point_id", nullable = false)
     private RoutePoint boardingPoint;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "drop_point_id", nullable = false)
     private RoutePoint dropPoint;
     
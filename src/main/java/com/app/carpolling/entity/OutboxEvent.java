@@ -0,0 +1,47 @@
+package com.app.carpolling.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Domain event written in the same transaction as the state change it
+ * describes, and delivered afterwards by the outbox relay. The id identifies
+ * the event; it is taken at insert, so it does not follow commit order.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+    @Index(name = "idx_outbox_aggregate", columnList = "aggregateType, aggregateId")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, length = 50)
+    private String aggregateType;
+    
+    @Column(nullable = false)
+    private Long aggregateId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 50)
+    private OutboxEventType eventType;
+    
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload; // JSON
+    
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    private LocalDateTime publishedAt;
+}
@@ -0,0 +1,25 @@
+package com.app.carpolling.entity;
+
+/**
+ * Domain events written to the outbox, with the aggregate each one belongs to.
+ */
+public enum OutboxEventType {
+    BOOKING_CREATED("BOOKING"),
+    BOOKING_CONFIRMED("BOOKING"),
+    BOOKING_CANCELLED("BOOKING"),
+    BOOKING_EXPIRED("BOOKING"),
+    PAYMENT_ORDER_CREATED("PAYMENT"),
+    PAYMENT_SUCCEEDED("PAYMENT"),
+    PAYMENT_FAILED("PAYMENT"),
+    PAYMENT_REFUND_REQUIRED("PAYMENT");
+    
+    private final String aggregateType;
+    
+    OutboxEventType(String aggregateType) {
+        this.aggregateType = aggregateType;
+    }
+    
+    public String getAggregateType() {
+        return aggregateType;
+    }
+}
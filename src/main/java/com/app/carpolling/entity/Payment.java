@@ -13,14 +13,35 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "payments", indexes = {
     @Index(name = "idx_payment_booking", columnList = "booking_id"),
-    @Index(name = "idx_payment_status", columnList = "status")
+    @Index(name = "idx_payment_status", columnList = "status"),
+    @Index(name = "idx_payment_updated_at", columnList = "updatedAt")
 })
+// The booking is lazy; payment responses fetch it with what Booking.details covers
+@NamedEntityGraph(name = Payment.GRAPH_BOOKING,
+    attributeNodes = @NamedAttributeNode(value = "booking", subgraph = "booking"),
+    subgraphs = {
+        @NamedSubgraph(name = "booking", attributeNodes = {
+            @NamedAttributeNode("user"),
+            @NamedAttributeNode("boardingPoint"),
+            @NamedAttributeNode("dropPoint"),
+            @NamedAttributeNode("seatNumbers"),
+            @NamedAttributeNode(value = "trip", subgraph = "trip")
+        }),
+        @NamedSubgraph(name = "trip", attributeNodes = {
+            @NamedAttributeNode("vehicle"),
+            @NamedAttributeNode(value = "driver", subgraph = "driver")
+        }),
+        @NamedSubgraph(name = "driver", attributeNodes = @NamedAttributeNode("user"))
+    })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Payment {
     
+    // Booking as in Booking.details: the payment endpoints
+    public static final String GRAPH_BOOKING = "Payment.booking";
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -34,7 +55,7 @@ public class Payment {
     @Column
     private String razorpayPaymentId;
     
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "booking_id", nullable = false, unique = true)
     private Booking booking;
     
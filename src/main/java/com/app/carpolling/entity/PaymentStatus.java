@@ -5,7 +5,9 @@ public enum PaymentStatus {
     SUCCESS,
     FAILED,
     REFUNDED,
-    PENDING
+    PENDING,
+    // Captured after its booking expired or was cancelled; the amount is owed back
+    REFUND_PENDING
 }
 
 
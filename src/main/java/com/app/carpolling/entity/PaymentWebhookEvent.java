@@ -0,0 +1,65 @@
+package com.app.carpolling.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Payment gateway webhook event, stored as soon as its signature checks out
+ * and applied later by the webhook processor.
+ */
+@Entity
+@Table(name = "payment_webhook_events", indexes = {
+    @Index(name = "idx_webhook_event_pending", columnList = "status, nextAttemptAt"),
+    @Index(name = "idx_webhook_event_received_at", columnList = "receivedAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentWebhookEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, unique = true, length = 100)
+    private String eventId; // Provider event id; redeliveries of the same event share it
+    
+    @Column(nullable = false, length = 100)
+    private String eventType;
+    
+    @Column(length = 100)
+    private String razorpayOrderId;
+    
+    @Column(length = 100)
+    private String razorpayPaymentId;
+    
+    @Column(nullable = false)
+    private LocalDateTime eventTime; // When the provider raised the event
+    
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private WebhookEventStatus status = WebhookEventStatus.PENDING;
+    
+    @Column(nullable = false)
+    private Integer attempts = 0;
+    
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+    
+    private LocalDateTime claimedAt;
+    
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+    
+    @Column(nullable = false)
+    private LocalDateTime receivedAt;
+    
+    private LocalDateTime processedAt;
+}
@@ -0,0 +1,6 @@
+package com.app.carpolling.entity;
+
+public enum RollupGranularity {
+    HOUR,
+    DAY
+}
@@ -0,0 +1,26 @@
+package com.app.carpolling.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Highest source updated_at already folded into a rollup.
+ */
+@Entity
+@Table(name = "rollup_watermarks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupWatermark {
+    
+    @Id
+    @Column(length = 100)
+    private String name;
+    
+    @Column(nullable = false)
+    private LocalDateTime watermark;
+}
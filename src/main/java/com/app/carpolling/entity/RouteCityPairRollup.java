@@ -0,0 +1,61 @@
+package com.app.carpolling.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Confirmed bookings and revenue for a boarding city to drop city pair on a
+ * route, per hour or day of departure. Maintained by the analytics rollup job.
+ */
+@Entity
+@Table(name = "route_city_pair_rollups",
+    uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"granularity", "bucket_start", "route_id", "boarding_city", "drop_city"})
+    },
+    indexes = {
+        @Index(name = "idx_city_pair_rollup_bucket", columnList = "granularity, bucket_start")
+    })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteCityPairRollup {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RollupGranularity granularity;
+    
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+    
+    @Column(name = "route_id", nullable = false)
+    private Long routeId;
+    
+    @Column(name = "boarding_city", nullable = false)
+    private String boardingCity;
+    
+    @Column(name = "drop_city", nullable = false)
+    private String dropCity;
+    
+    @Column(nullable = false)
+    private Long confirmedBookings;
+    
+    @Column(nullable = false)
+    private Long seatsBooked;
+    
+    @Column(nullable = false)
+    private Double bookingAmount; // Sum of confirmed booking totals
+    
+    @Column(nullable = false)
+    private Double revenue; // Sum of successful payments for those bookings
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,51 @@
+package com.app.carpolling.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Price for a boarding city to drop city pair on a route.
+ * Every boarding point in the boarding city shares this price with every
+ * drop point in the drop city, so point pairs are resolved at read time.
+ */
+@Entity
+@Table(name = "route_city_prices",
+    uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"route_id", "boarding_city", "drop_city"})
+    },
+    indexes = {
+        @Index(name = "idx_route_city_price_route", columnList = "route_id")
+    })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler", "route"})
+public class RouteCityPrice {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "route_id", nullable = false)
+    private Route route;
+    
+    @Column(name = "boarding_city", nullable = false)
+    private String boardingCity; // e.g., "Bangalore"
+    
+    @Column(name = "drop_city", nullable = false)
+    private String dropCity; // e.g., "Chennai"
+    
+    @Column(nullable = false)
+    private Double price; // Fixed price for every point pair between the two cities
+    
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,49 @@
+package com.app.carpolling.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Trips and seats offered on a route per hour or day of departure.
+ * Maintained by the analytics rollup job; never written by request handlers.
+ */
+@Entity
+@Table(name = "route_rollups",
+    uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"granularity", "bucket_start", "route_id"})
+    },
+    indexes = {
+        @Index(name = "idx_route_rollup_bucket", columnList = "granularity, bucket_start")
+    })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteRollup {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RollupGranularity granularity;
+    
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart; // Start of the departure hour or day
+    
+    @Column(name = "route_id", nullable = false)
+    private Long routeId;
+    
+    @Column(nullable = false)
+    private Long trips;
+    
+    @Column(nullable = false)
+    private Long seatsOffered;
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -14,27 +14,42 @@ import java.util.List;
 @Entity
 @Table(name = "trips", indexes = {
     @Index(name = "idx_trip_date", columnList = "departureTime"),
-    @Index(name = "idx_trip_status", columnList = "status")
+    @Index(name = "idx_trip_status", columnList = "status"),
+    @Index(name = "idx_trip_updated_at", columnList = "updatedAt")
 })
+// Associations are lazy; these graphs fetch what a use case reads in the same query
+@NamedEntityGraph(name = Trip.GRAPH_DETAILS,
+    attributeNodes = {
+        @NamedAttributeNode("route"),
+        @NamedAttributeNode("vehicle"),
+        @NamedAttributeNode(value = "driver", subgraph = "driver")
+    },
+    subgraphs = @NamedSubgraph(name = "driver", attributeNodes = @NamedAttributeNode("user")))
+@NamedEntityGraph(name = Trip.GRAPH_VEHICLE, attributeNodes = @NamedAttributeNode("vehicle"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Trip {
     
+    // Route, vehicle and driver with the driver's user: search results and trip listings
+    public static final String GRAPH_DETAILS = "Trip.details";
+    // Vehicle only: seat availability
+    public static final String GRAPH_VEHICLE = "Trip.vehicle";
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "route_id", nullable = false)
     private Route route;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "vehicle_id", nullable = false)
     private Vehicle vehicle;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "driver_id", nullable = false)
     private Driver driver;
     
@@ -0,0 +1,9 @@
+package com.app.carpolling.entity;
+
+public enum WebhookEventStatus {
+    PENDING,
+    PROCESSING,
+    PROCESSED,
+    IGNORED,
+    FAILED
+}
@@ -0,0 +1,26 @@
+package com.app.carpolling.event;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Default sink: republishes each {@link OutboxMessage} as a Spring application
+ * event, so in-process consumers subscribe with {@code @EventListener(OutboxMessage.class)}.
+ * Listeners run on the relay thread, and one that throws fails the batch.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.sink", havingValue = "application", matchIfMissing = true)
+@RequiredArgsConstructor
+public class ApplicationEventOutboxSink implements OutboxSink {
+    
+    private final ApplicationEventPublisher eventPublisher;
+    
+    @Override
+    public void deliver(List<OutboxMessage> batch) {
+        batch.forEach(eventPublisher::publishEvent);
+    }
+}
@@ -0,0 +1,20 @@
+package com.app.carpolling.event;
+
+import com.app.carpolling.entity.OutboxEventType;
+
+import java.time.LocalDateTime;
+
+/**
+ * An outbox event as handed to an {@link OutboxSink}. Delivery is at least
+ * once and unordered, so consumers should treat {@code id} as an idempotency
+ * key and not let an older state in {@code payload} overwrite a newer one.
+ */
+public record OutboxMessage(
+    Long id,
+    String aggregateType,
+    Long aggregateId,
+    OutboxEventType eventType,
+    String payload,
+    LocalDateTime occurredAt
+) {
+}
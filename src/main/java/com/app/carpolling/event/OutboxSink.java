@@ -0,0 +1,15 @@
+package com.app.carpolling.event;
+
+import java.util.List;
+
+/**
+ * Destination for relayed outbox events.
+ *
+ * A batch counts as delivered only if {@link #deliver(List)} returns normally;
+ * if it throws, the whole batch is delivered again on the next relay run.
+ * Events are not guaranteed to arrive in the order they committed.
+ */
+public interface OutboxSink {
+    
+    void deliver(List<OutboxMessage> batch);
+}
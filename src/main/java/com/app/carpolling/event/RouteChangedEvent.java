@@ -0,0 +1,9 @@
+package com.app.carpolling.event;
+
+/**
+ * Published when a route or its points are created or change state.
+ * Listeners that keep derived in-memory views of routes (search indexes,
+ * catalogs) use it to refresh after the change has been committed.
+ */
+public record RouteChangedEvent(Long routeId) {
+}
@@ -60,7 +60,11 @@ public enum ErrorCode {
     // 500 - Internal Server Error (System Errors)
     INTERNAL_SERVER_ERROR(500, "Internal server error occurred"),
     DATABASE_ERROR(500, "Database operation failed"),
-    EXTERNAL_SERVICE_ERROR(500, "External service unavailable");
+    EXTERNAL_SERVICE_ERROR(500, "External service unavailable"),
+    
+    // 503/504 - Upstream Errors (Payment Gateway)
+    PAYMENT_GATEWAY_UNAVAILABLE(503, "Payment gateway is temporarily unavailable, please try again later"),
+    PAYMENT_GATEWAY_TIMEOUT(504, "Payment gateway did not respond in time");
     
     private final int code;
     private final String message;
@@ -2,6 +2,8 @@ package com.app.carpolling.filters;
 
 import com.app.carpolling.service.TokenBlacklistService;
 import com.app.carpolling.utils.JWTUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -30,6 +32,9 @@ public class JWTFilter extends OncePerRequestFilter {
   
   @Autowired
   private TokenBlacklistService tokenBlacklistService;
+  
+  @Autowired
+  private MeterRegistry meterRegistry;
 
   @Override
   protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
@@ -109,16 +114,15 @@ public class JWTFilter extends OncePerRequestFilter {
       return;
     }
 
-    // Token validation
+    // Token validation, timed separately from the rest of the filter chain
+    String outcome = "invalid";
+    Timer.Sample sample = Timer.start(meterRegistry);
     try {
       // Check if token is blacklisted
       if (tokenBlacklistService.isTokenBlacklisted(token)) {
+        outcome = "blacklisted";
         logger.warn("Token is blacklisted (user logged out) from {} for request to: {}", tokenSource, requestURI);
-        filterChain.doFilter(request, response);
-        return;
-      }
-      
-      if (jwtUtils.validateToken(token)) {
+      } else if (jwtUtils.validateToken(token)) {
         logger.debug("JWT token validation successful from {} for request to: {}", tokenSource, requestURI);
         
         String phoneNumber = jwtUtils.extractPhoneNumber(token);
@@ -126,22 +130,24 @@ public class JWTFilter extends OncePerRequestFilter {
         // Phone number extraction validation
         if (phoneNumber == null || phoneNumber.trim().isEmpty()) {
           logger.error("Failed to extract valid phoneNumber from token ({}) for request to: {}", tokenSource, requestURI);
-          filterChain.doFilter(request, response);
-          return;
+        } else {
+          logger.info("Successfully authenticated user with phoneNumber: {} from {} for request to: {}", 
+              phoneNumber, tokenSource, requestURI);
+          
+          var auth = new UsernamePasswordAuthenticationToken(phoneNumber, null, List.of());
+          SecurityContextHolder.getContext().setAuthentication(auth);
+          outcome = "authenticated";
         }
         
-        logger.info("Successfully authenticated user with phoneNumber: {} from {} for request to: {}", 
-            phoneNumber, tokenSource, requestURI);
-        
-        var auth = new UsernamePasswordAuthenticationToken(phoneNumber, null, List.of());
-        SecurityContextHolder.getContext().setAuthentication(auth);
-        
       } else {
         logger.warn("JWT token validation failed from {} for request to: {}", tokenSource, requestURI);
       }
     } catch (Exception e) {
+      outcome = "error";
       logger.error("Unexpected error during JWT token validation from {} for request to: {}. Error: {}", 
           tokenSource, requestURI, e.getMessage(), e);
+    } finally {
+      sample.stop(meterRegistry.timer("carpool.jwt.validation", "outcome", outcome));
     }
 
     // Always proceed with the filter chain
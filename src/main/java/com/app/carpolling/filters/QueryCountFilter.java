@@ -0,0 +1,109 @@
+package com.app.carpolling.filters;
+
+import com.app.carpolling.config.QueryBudget;
+import com.app.carpolling.config.QueryCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Counts SQL statements per HTTP request and records them as the
+ * {@code carpool.http.sql.statements} summary, tagged by method and route.
+ *
+ * Requests above the warn threshold are logged, as are requests that run the
+ * same statement many times (the usual sign of an N+1 lazy load). Handlers
+ * annotated with {@link QueryBudget} are checked against their budget; when
+ * budgets are enforced an overrun fails the request, which MockMvc-based
+ * integration tests surface as an exception.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class QueryCountFilter extends OncePerRequestFilter {
+
+  public static final String BUDGET_ATTRIBUTE = QueryCountFilter.class.getName() + ".budget";
+
+  private static final Logger logger = LoggerFactory.getLogger(QueryCountFilter.class);
+
+  private final QueryCounter queryCounter;
+  private final MeterRegistry meterRegistry;
+  private final int warnThreshold;
+  private final int repeatThreshold;
+  private final boolean enforceBudgets;
+
+  public QueryCountFilter(
+      QueryCounter queryCounter,
+      MeterRegistry meterRegistry,
+      @Value("${sql.query-count.warn-threshold:20}") int warnThreshold,
+      @Value("${sql.query-count.repeat-threshold:5}") int repeatThreshold,
+      @Value("${sql.query-count.enforce-budgets:false}") boolean enforceBudgets) {
+    this.queryCounter = queryCounter;
+    this.meterRegistry = meterRegistry;
+    this.warnThreshold = warnThreshold;
+    this.repeatThreshold = repeatThreshold;
+    this.enforceBudgets = enforceBudgets;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    QueryCounter.Result result;
+    queryCounter.begin();
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      result = queryCounter.end();
+      record(request, result);
+    }
+
+    // Checked only after a normal completion so a budget overrun never hides the request's own error
+    Object budget = request.getAttribute(BUDGET_ATTRIBUTE);
+    if (budget instanceof Integer limit && result.statements() > limit) {
+      String message = String.format("%s %s issued %d SQL statements, over its budget of %d",
+          request.getMethod(), route(request), result.statements(), limit);
+      if (enforceBudgets) {
+        throw new IllegalStateException(message);
+      }
+      logger.warn(message);
+    }
+  }
+
+  private void record(HttpServletRequest request, QueryCounter.Result result) {
+    String method = request.getMethod();
+    String route = route(request);
+
+    DistributionSummary.builder("carpool.http.sql.statements")
+        .description("SQL statements issued per HTTP request")
+        .baseUnit("statements")
+        .tags("method", method, "uri", route)
+        .serviceLevelObjectives(1, 2, 5, 10, 20, 50, 100)
+        .register(meterRegistry)
+        .record(result.statements());
+
+    if (result.statements() > warnThreshold) {
+      logger.warn("{} {} issued {} SQL statements", method, route, result.statements());
+    }
+    if (result.mostRepeatedCount() >= repeatThreshold) {
+      logger.warn("Possible N+1 on {} {}: statement ran {} times: {}",
+          method, route, result.mostRepeatedCount(), result.mostRepeatedStatement());
+    }
+  }
+
+  // Route template rather than the raw URI, to keep the tag's cardinality bounded
+  private static String route(HttpServletRequest request) {
+    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    return pattern != null ? pattern.toString() : "UNKNOWN";
+  }
+}
@@ -1,28 +1,151 @@
 package com.app.carpolling.repository;
 
+import com.app.carpolling.dto.AdminBookingSummaryDto;
+import com.app.carpolling.dto.BookingHistoryView;
+import com.app.carpolling.dto.DashboardCountsView;
 import com.app.carpolling.entity.Booking;
 import com.app.carpolling.entity.BookingStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
+    @EntityGraph(Booking.GRAPH_DETAILS)
     Optional<Booking> findByBookingReference(String bookingReference);
+    
+    @EntityGraph(Booking.GRAPH_DETAILS)
+    Optional<Booking> findWithDetailsById(Long id);
+    
     List<Booking> findByUserIdOrderByCreatedAtDesc(Long userId);
     List<Booking> findByTripIdAndStatus(Long tripId, BookingStatus status);
     List<Booking> findByUserIdAndStatus(Long userId, BookingStatus status);
     long countByStatus(BookingStatus status);
     
     // Find expired pending bookings
+    @EntityGraph(Booking.GRAPH_SEATS_AND_TRIP)
     List<Booking> findByStatusAndExpiresAtBefore(BookingStatus status, LocalDateTime expiresAt);
+    
+    // Compare-and-set out of PENDING, so a late payment and the expiry job cannot both win.
+    // Not cleared: the expiry job still holds the other bookings of its batch.
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :status, b.updatedAt = :updatedAt " +
+           "WHERE b.id = :id AND b.status = com.app.carpolling.entity.BookingStatus.PENDING")
+    int updateStatusIfPending(
+        @Param("id") Long id,
+        @Param("status") BookingStatus status,
+        @Param("updatedAt") LocalDateTime updatedAt
+    );
 
     // Check if user has a booking for a trip (for live location access)
     boolean existsByUser_IdAndTrip_Id(Long userId, Long tripId);
+    
+    // Keyset page of a user's history, newest first, strictly after the (createdAt, id) cursor.
+    // The page is picked from idx_booking_user_created alone; details and seats are joined for those rows only.
+    // Seats keep the trip's seat order (S2 before S10), taken from the trip_seats row ids.
+    @Query(value = "WITH page AS (" +
+                   "SELECT b.id, b.created_at FROM bookings b " +
+                   "WHERE b.user_id = :userId AND (b.created_at, b.id) < (:cursorCreatedAt, :cursorId) " +
+                   "ORDER BY b.created_at DESC, b.id DESC LIMIT :limit) " +
+                   "SELECT b.id AS \"bookingId\", b.booking_reference AS \"bookingReference\", " +
+                   "b.trip_id AS \"tripId\", bp.point_name AS \"boardingPoint\", dp.point_name AS \"dropPoint\", " +
+                   "t.departure_time AS \"departureTime\", " +
+                   "array_agg(bs.seat_number ORDER BY ts.id) FILTER (WHERE bs.seat_number IS NOT NULL) " +
+                   "AS \"seatNumbers\", " +
+                   "b.total_amount AS \"totalAmount\", b.status AS \"status\", " +
+                   "du.name AS \"driverName\", du.phone AS \"driverPhone\", " +
+                   "v.brand AS \"vehicleBrand\", v.model AS \"vehicleModel\", v.color AS \"vehicleColor\", " +
+                   "v.registration_number AS \"registrationNumber\", b.created_at AS \"bookedAt\" " +
+                   "FROM page p " +
+                   "JOIN bookings b ON b.id = p.id " +
+                   "JOIN trips t ON t.id = b.trip_id " +
+                   "JOIN route_points bp ON bp.id = b.boarding_point_id " +
+                   "JOIN route_points dp ON dp.id = b.drop_point_id " +
+                   "JOIN vehicles v ON v.id = t.vehicle_id " +
+                   "JOIN drivers d ON d.id = t.driver_id " +
+                   "JOIN users du ON du.id = d.user_id " +
+                   "LEFT JOIN booking_seats bs ON bs.booking_id = b.id " +
+                   "LEFT JOIN trip_seats ts ON ts.trip_id = b.trip_id AND ts.seat_number = bs.seat_number " +
+                   "GROUP BY b.id, t.id, bp.id, dp.id, v.id, du.id " +
+                   "ORDER BY b.created_at DESC, b.id DESC",
+           nativeQuery = true)
+    List<BookingHistoryView> findHistoryPage(
+        @Param("userId") Long userId,
+        @Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+        @Param("cursorId") Long cursorId,
+        @Param("limit") int limit
+    );
+    
+    @Query(value = "SELECT new com.app.carpolling.dto.AdminBookingSummaryDto(" +
+                   "b.id, b.bookingReference, u.id, u.name, u.phone, t.id, t.departureTime, " +
+                   "bp.city, dp.city, b.numberOfSeats, b.totalAmount, b.status, b.createdAt) " +
+                   "FROM Booking b JOIN b.user u JOIN b.trip t " +
+                   "JOIN b.boardingPoint bp JOIN b.dropPoint dp " +
+                   "WHERE (:search IS NULL OR LOWER(b.bookingReference) LIKE :search " +
+                   "OR LOWER(u.name) LIKE :search OR u.phone LIKE :search) " +
+                   "AND (:status IS NULL OR b.status = :status) " +
+                   "AND (:tripId IS NULL OR t.id = :tripId) " +
+                   "ORDER BY b.createdAt DESC, b.id DESC",
+           countQuery = "SELECT COUNT(b) FROM Booking b JOIN b.user u " +
+                        "WHERE (:search IS NULL OR LOWER(b.bookingReference) LIKE :search " +
+                        "OR LOWER(u.name) LIKE :search OR u.phone LIKE :search) " +
+                        "AND (:status IS NULL OR b.status = :status) " +
+                        "AND (:tripId IS NULL OR b.trip.id = :tripId)")
+    Page<AdminBookingSummaryDto> findAdminBookingSummaries(
+        @Param("search") String search,
+        @Param("status") BookingStatus status,
+        @Param("tripId") Long tripId,
+        Pageable pageable
+    );
+    
+    // Forward-only cursor for exports; must be consumed inside a read-only transaction
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.app.carpolling.dto.AdminBookingSummaryDto(" +
+           "b.id, b.bookingReference, u.id, u.name, u.phone, t.id, t.departureTime, " +
+           "bp.city, dp.city, b.numberOfSeats, b.totalAmount, b.status, b.createdAt) " +
+           "FROM Booking b JOIN b.user u JOIN b.trip t " +
+           "JOIN b.boardingPoint bp JOIN b.dropPoint dp " +
+           "WHERE (:status IS NULL OR b.status = :status) " +
+           "AND (:fromDate IS NULL OR b.createdAt >= :fromDate) " +
+           "AND (:toDate IS NULL OR b.createdAt < :toDate) " +
+           "ORDER BY b.id")
+    Stream<AdminBookingSummaryDto> streamForExport(
+        @Param("status") BookingStatus status,
+        @Param("fromDate") LocalDateTime fromDate,
+        @Param("toDate") LocalDateTime toDate
+    );
+    
+    // One round trip for every admin dashboard counter
+    @Query(value = "SELECT u.total_users AS \"totalUsers\", d.total_drivers AS \"totalDrivers\", " +
+                   "d.verified_drivers AS \"verifiedDrivers\", v.total_vehicles AS \"totalVehicles\", " +
+                   "t.total_trips AS \"totalTrips\", b.total_bookings AS \"totalBookings\", " +
+                   "b.confirmed_bookings AS \"confirmedBookings\", b.pending_bookings AS \"pendingBookings\", " +
+                   "b.cancelled_bookings AS \"cancelledBookings\" " +
+                   "FROM (SELECT COUNT(*) AS total_users FROM users) u " +
+                   "CROSS JOIN (SELECT COUNT(*) AS total_drivers, " +
+                   "COUNT(*) FILTER (WHERE is_verified) AS verified_drivers FROM drivers) d " +
+                   "CROSS JOIN (SELECT COUNT(*) AS total_vehicles FROM vehicles) v " +
+                   "CROSS JOIN (SELECT COUNT(*) AS total_trips FROM trips) t " +
+                   "CROSS JOIN (SELECT COUNT(*) AS total_bookings, " +
+                   "COUNT(*) FILTER (WHERE status = 'CONFIRMED') AS confirmed_bookings, " +
+                   "COUNT(*) FILTER (WHERE status = 'PENDING') AS pending_bookings, " +
+                   "COUNT(*) FILTER (WHERE status = 'CANCELLED') AS cancelled_bookings FROM bookings) b",
+           nativeQuery = true)
+    DashboardCountsView getDashboardCounts();
 }
-
-
-
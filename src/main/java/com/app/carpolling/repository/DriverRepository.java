@@ -1,8 +1,14 @@
 package com.app.carpolling.repository;
 
+import com.app.carpolling.dto.AdminDriverSummaryDto;
 import com.app.carpolling.entity.Driver;
 import com.app.carpolling.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,11 +18,29 @@ import java.util.Optional;
 public interface DriverRepository extends JpaRepository<Driver, Long> {
     Optional<Driver> findByUser(User user);
     Optional<Driver> findByUserId(Long userId);
+    
+    // Driver with its user, as returned by the driver endpoints
+    @EntityGraph(attributePaths = "user")
+    Optional<Driver> findWithUserById(Long id);
     boolean existsByLicenseNumber(String licenseNumber);
-    List<Driver> findByIsVerifiedFalse();
     List<Driver> findByIsVerifiedTrue();
     long countByIsVerifiedTrue();
+    
+    @Query(value = "SELECT new com.app.carpolling.dto.AdminDriverSummaryDto(" +
+                   "d.id, u.id, u.name, u.phone, d.licenseNumber, d.licenseExpiryDate, " +
+                   "d.experienceYears, d.isVerified, d.rating, d.totalTrips, d.createdAt) " +
+                   "FROM Driver d JOIN d.user u " +
+                   "WHERE (:search IS NULL OR LOWER(u.name) LIKE :search " +
+                   "OR u.phone LIKE :search OR LOWER(d.licenseNumber) LIKE :search) " +
+                   "AND (:isVerified IS NULL OR d.isVerified = :isVerified) " +
+                   "ORDER BY d.id DESC",
+           countQuery = "SELECT COUNT(d) FROM Driver d JOIN d.user u " +
+                        "WHERE (:search IS NULL OR LOWER(u.name) LIKE :search " +
+                        "OR u.phone LIKE :search OR LOWER(d.licenseNumber) LIKE :search) " +
+                        "AND (:isVerified IS NULL OR d.isVerified = :isVerified)")
+    Page<AdminDriverSummaryDto> findAdminDriverSummaries(
+        @Param("search") String search,
+        @Param("isVerified") Boolean isVerified,
+        Pageable pageable
+    );
 }
-
-
-
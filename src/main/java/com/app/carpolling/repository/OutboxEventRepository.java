@@ -0,0 +1,37 @@
+package com.app.carpolling.repository;
+
+import com.app.carpolling.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    
+    // Transaction-scoped; only one instance relays at a time, so two never deliver the same batch
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryRelayLock(@Param("key") long key);
+    
+    @Query(value = "SELECT * FROM outbox_events WHERE published_at IS NULL ORDER BY id LIMIT :limit",
+           nativeQuery = true)
+    List<OutboxEvent> findUnpublished(@Param("limit") int limit);
+    
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.publishedAt = :publishedAt WHERE e.id IN :ids")
+    int markPublished(@Param("ids") List<Long> ids, @Param("publishedAt") LocalDateTime publishedAt);
+    
+    @Query(value = "SELECT COUNT(*) FROM outbox_events WHERE published_at IS NULL", nativeQuery = true)
+    long countUnpublished();
+    
+    @Query(value = "SELECT MIN(created_at) FROM outbox_events WHERE published_at IS NULL", nativeQuery = true)
+    LocalDateTime findOldestUnpublishedCreatedAt();
+    
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.publishedAt < :cutoff")
+    int deletePublishedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
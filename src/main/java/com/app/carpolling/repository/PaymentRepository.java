@@ -1,23 +1,85 @@
 package com.app.carpolling.repository;
 
+import com.app.carpolling.dto.PaymentExportDto;
 import com.app.carpolling.entity.Payment;
+import com.app.carpolling.entity.PaymentStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
-    Optional<Payment> findByTransactionId(String transactionId);
     Optional<Payment> findByBookingId(Long bookingId);
     Optional<Payment> findByRazorpayOrderId(String razorpayOrderId);
+    
+    // Payment with its booking, as returned by the payment endpoints
+    @EntityGraph(Payment.GRAPH_BOOKING)
+    Optional<Payment> findWithBookingById(Long id);
+    
+    @EntityGraph(Payment.GRAPH_BOOKING)
+    Optional<Payment> findWithBookingByBookingId(Long bookingId);
+    
+    @EntityGraph(Payment.GRAPH_BOOKING)
+    Optional<Payment> findWithBookingByTransactionId(String transactionId);
+    
+    // Compare-and-set transitions: only the callback that moves the payment out of PENDING gets 1 back
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Payment p SET p.status = com.app.carpolling.entity.PaymentStatus.SUCCESS, " +
+           "p.razorpayPaymentId = :razorpayPaymentId, p.paidAt = :paidAt, p.updatedAt = :paidAt " +
+           "WHERE p.id = :id AND p.status = com.app.carpolling.entity.PaymentStatus.PENDING")
+    int markSucceeded(
+        @Param("id") Long id,
+        @Param("razorpayPaymentId") String razorpayPaymentId,
+        @Param("paidAt") LocalDateTime paidAt
+    );
+    
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Payment p SET p.status = com.app.carpolling.entity.PaymentStatus.FAILED, " +
+           "p.failureReason = :failureReason, p.updatedAt = :updatedAt " +
+           "WHERE p.id = :id AND p.status = com.app.carpolling.entity.PaymentStatus.PENDING")
+    int markFailed(
+        @Param("id") Long id,
+        @Param("failureReason") String failureReason,
+        @Param("updatedAt") LocalDateTime updatedAt
+    );
+    
+    // A captured payment whose booking could not be confirmed any more
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Payment p SET p.status = com.app.carpolling.entity.PaymentStatus.REFUND_PENDING, " +
+           "p.failureReason = :failureReason, p.updatedAt = :updatedAt " +
+           "WHERE p.id = :id AND p.status = com.app.carpolling.entity.PaymentStatus.SUCCESS")
+    int markRefundPending(
+        @Param("id") Long id,
+        @Param("failureReason") String failureReason,
+        @Param("updatedAt") LocalDateTime updatedAt
+    );
+    
+    // Forward-only cursor for exports; must be consumed inside a read-only transaction
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.app.carpolling.dto.PaymentExportDto(" +
+           "p.id, p.transactionId, p.razorpayOrderId, p.razorpayPaymentId, b.id, b.bookingReference, " +
+           "p.amount, p.status, p.failureReason, p.paidAt, p.createdAt) " +
+           "FROM Payment p JOIN p.booking b " +
+           "WHERE (:status IS NULL OR p.status = :status) " +
+           "AND (:fromDate IS NULL OR p.createdAt >= :fromDate) " +
+           "AND (:toDate IS NULL OR p.createdAt < :toDate) " +
+           "ORDER BY p.id")
+    Stream<PaymentExportDto> streamForExport(
+        @Param("status") PaymentStatus status,
+        @Param("fromDate") LocalDateTime fromDate,
+        @Param("toDate") LocalDateTime toDate
+    );
 }
-
-
-
-
-
-
-
-
-
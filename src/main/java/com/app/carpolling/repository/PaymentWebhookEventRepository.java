@@ -0,0 +1,77 @@
+package com.app.carpolling.repository;
+
+import com.app.carpolling.entity.PaymentWebhookEvent;
+import com.app.carpolling.entity.WebhookEventStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PaymentWebhookEventRepository extends JpaRepository<PaymentWebhookEvent, Long> {
+    
+    // Redelivered events hit the unique event_id and are dropped without an error
+    @Modifying
+    @Query(value = "INSERT INTO payment_webhook_events " +
+                   "(event_id, event_type, razorpay_order_id, razorpay_payment_id, event_time, payload, " +
+                   "status, attempts, next_attempt_at, received_at) " +
+                   "VALUES (:eventId, :eventType, :orderId, :paymentId, :eventTime, :payload, " +
+                   "'PENDING', 0, :receivedAt, :receivedAt) " +
+                   "ON CONFLICT (event_id) DO NOTHING",
+           nativeQuery = true)
+    int enqueue(
+        @Param("eventId") String eventId,
+        @Param("eventType") String eventType,
+        @Param("orderId") String orderId,
+        @Param("paymentId") String paymentId,
+        @Param("eventTime") LocalDateTime eventTime,
+        @Param("payload") String payload,
+        @Param("receivedAt") LocalDateTime receivedAt
+    );
+    
+    // Due events plus claims abandoned by a crashed worker; SKIP LOCKED lets several instances poll at once
+    @Query(value = "SELECT * FROM payment_webhook_events " +
+                   "WHERE (status = 'PENDING' AND next_attempt_at <= :now) " +
+                   "OR (status = 'PROCESSING' AND claimed_at < :staleBefore) " +
+                   "ORDER BY event_time, id " +
+                   "LIMIT :limit " +
+                   "FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<PaymentWebhookEvent> findClaimable(
+        @Param("now") LocalDateTime now,
+        @Param("staleBefore") LocalDateTime staleBefore,
+        @Param("limit") int limit
+    );
+    
+    // Clears the context so the claimed entities come back detached
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE PaymentWebhookEvent e SET e.status = com.app.carpolling.entity.WebhookEventStatus.PROCESSING, " +
+           "e.claimedAt = :now, e.attempts = e.attempts + 1 WHERE e.id IN :ids")
+    int markClaimed(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE PaymentWebhookEvent e SET e.status = :status, e.processedAt = :now, e.lastError = NULL " +
+           "WHERE e.id = :id")
+    int markFinished(@Param("id") Long id, @Param("status") WebhookEventStatus status, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("UPDATE PaymentWebhookEvent e SET e.status = :status, e.nextAttemptAt = :nextAttemptAt, " +
+           "e.lastError = :error WHERE e.id = :id")
+    int markAttemptFailed(
+        @Param("id") Long id,
+        @Param("status") WebhookEventStatus status,
+        @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+        @Param("error") String error
+    );
+    
+    @Modifying
+    @Query("DELETE FROM PaymentWebhookEvent e WHERE e.status IN :statuses AND e.receivedAt < :cutoff")
+    int deleteFinishedBefore(
+        @Param("statuses") List<WebhookEventStatus> statuses,
+        @Param("cutoff") LocalDateTime cutoff
+    );
+}
@@ -0,0 +1,20 @@
+package com.app.carpolling.repository;
+
+import com.app.carpolling.entity.RollupWatermark;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface RollupWatermarkRepository extends JpaRepository<RollupWatermark, String> {
+    
+    // Row lock keeps concurrent rollup runs (e.g. several instances) from interleaving
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM RollupWatermark w WHERE w.name = :name")
+    Optional<RollupWatermark> findByNameForUpdate(@Param("name") String name);
+}
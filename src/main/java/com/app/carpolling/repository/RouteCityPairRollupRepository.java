@@ -0,0 +1,76 @@
+package com.app.carpolling.repository;
+
+import com.app.carpolling.entity.RollupGranularity;
+import com.app.carpolling.entity.RouteCityPairRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.app.carpolling.repository.RouteRollupRepository.CHANGED_DAILY_KEYS;
+import static com.app.carpolling.repository.RouteRollupRepository.CHANGED_HOURLY_KEYS;
+
+@Repository
+public interface RouteCityPairRollupRepository extends JpaRepository<RouteCityPairRollup, Long> {
+    
+    @Modifying
+    @Query(value = "DELETE FROM route_city_pair_rollups WHERE granularity = 'HOUR' " +
+                   "AND (bucket_start, route_id) IN (" + CHANGED_HOURLY_KEYS + ")",
+           nativeQuery = true)
+    int deleteChangedHourly(@Param("fromTime") LocalDateTime fromTime, @Param("toTime") LocalDateTime toTime);
+    
+    @Modifying
+    @Query(value = "INSERT INTO route_city_pair_rollups (granularity, bucket_start, route_id, boarding_city, drop_city, " +
+                   "confirmed_bookings, seats_booked, booking_amount, revenue, updated_at) " +
+                   "SELECT 'HOUR', date_trunc('hour', t.departure_time), t.route_id, bp.city, dp.city, " +
+                   "COUNT(*), SUM(b.number_of_seats), SUM(b.total_amount), " +
+                   "COALESCE(SUM(p.amount) FILTER (WHERE p.status = 'SUCCESS'), 0), NOW() " +
+                   "FROM bookings b " +
+                   "JOIN trips t ON t.id = b.trip_id " +
+                   "JOIN route_points bp ON bp.id = b.boarding_point_id " +
+                   "JOIN route_points dp ON dp.id = b.drop_point_id " +
+                   "LEFT JOIN payments p ON p.booking_id = b.id " +
+                   "WHERE b.status IN ('CONFIRMED', 'COMPLETED') " +
+                   "AND (date_trunc('hour', t.departure_time), t.route_id) IN (" + CHANGED_HOURLY_KEYS + ") " +
+                   "GROUP BY date_trunc('hour', t.departure_time), t.route_id, bp.city, dp.city",
+           nativeQuery = true)
+    int insertChangedHourly(@Param("fromTime") LocalDateTime fromTime, @Param("toTime") LocalDateTime toTime);
+    
+    @Modifying
+    @Query(value = "DELETE FROM route_city_pair_rollups WHERE granularity = 'DAY' " +
+                   "AND (bucket_start, route_id) IN (" + CHANGED_DAILY_KEYS + ")",
+           nativeQuery = true)
+    int deleteChangedDaily(@Param("fromTime") LocalDateTime fromTime, @Param("toTime") LocalDateTime toTime);
+    
+    @Modifying
+    @Query(value = "INSERT INTO route_city_pair_rollups (granularity, bucket_start, route_id, boarding_city, drop_city, " +
+                   "confirmed_bookings, seats_booked, booking_amount, revenue, updated_at) " +
+                   "SELECT 'DAY', date_trunc('day', c.bucket_start), c.route_id, c.boarding_city, c.drop_city, " +
+                   "SUM(c.confirmed_bookings), SUM(c.seats_booked), SUM(c.booking_amount), SUM(c.revenue), NOW() " +
+                   "FROM route_city_pair_rollups c " +
+                   "WHERE c.granularity = 'HOUR' " +
+                   "AND (date_trunc('day', c.bucket_start), c.route_id) IN (" + CHANGED_DAILY_KEYS + ") " +
+                   "GROUP BY date_trunc('day', c.bucket_start), c.route_id, c.boarding_city, c.drop_city",
+           nativeQuery = true)
+    int insertChangedDaily(@Param("fromTime") LocalDateTime fromTime, @Param("toTime") LocalDateTime toTime);
+    
+    @Query("SELECT c FROM RouteCityPairRollup c " +
+           "WHERE c.granularity = :granularity " +
+           "AND c.bucketStart >= :fromTime AND c.bucketStart < :toTime " +
+           "AND (:routeId IS NULL OR c.routeId = :routeId) " +
+           "AND (:boardingCity IS NULL OR c.boardingCity = :boardingCity) " +
+           "AND (:dropCity IS NULL OR c.dropCity = :dropCity) " +
+           "ORDER BY c.bucketStart, c.routeId, c.boardingCity, c.dropCity")
+    List<RouteCityPairRollup> findCityPairAnalytics(
+        @Param("granularity") RollupGranularity granularity,
+        @Param("fromTime") LocalDateTime fromTime,
+        @Param("toTime") LocalDateTime toTime,
+        @Param("routeId") Long routeId,
+        @Param("boardingCity") String boardingCity,
+        @Param("dropCity") String dropCity
+    );
+}
@@ -0,0 +1,47 @@
+package com.app.carpolling.repository;
+
+import com.app.carpolling.entity.RouteCityPrice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RouteCityPriceRepository extends JpaRepository<RouteCityPrice, Long> {
+    
+    List<RouteCityPrice> findByRouteId(Long routeId);
+    
+    @Query("SELECT rcp FROM RouteCityPrice rcp WHERE rcp.route.id = :routeId " +
+           "AND rcp.boardingCity = :boardingCity " +
+           "AND rcp.dropCity = :dropCity")
+    Optional<RouteCityPrice> findByRouteAndCities(
+        @Param("routeId") Long routeId,
+        @Param("boardingCity") String boardingCity,
+        @Param("dropCity") String dropCity
+    );
+    
+    @Modifying
+    @Query("DELETE FROM RouteCityPrice rcp WHERE rcp.id IN :ids")
+    void deleteByIdIn(@Param("ids") List<Long> ids);
+    
+    // Multi-row upsert, as RoutePriceRepository.upsertPrices
+    @Modifying
+    @Query(value = "INSERT INTO route_city_prices (route_id, boarding_city, drop_city, price, created_at) " +
+                   "SELECT :routeId, pair.boarding_city, pair.drop_city, pair.price, :createdAt " +
+                   "FROM unnest(CAST(:boardingCities AS varchar[]), CAST(:dropCities AS varchar[]), " +
+                   "CAST(:prices AS double precision[])) AS pair(boarding_city, drop_city, price) " +
+                   "ON CONFLICT (route_id, boarding_city, drop_city) DO UPDATE SET price = EXCLUDED.price",
+           nativeQuery = true)
+    int upsertPrices(
+        @Param("routeId") Long routeId,
+        @Param("boardingCities") String[] boardingCities,
+        @Param("dropCities") String[] dropCities,
+        @Param("prices") Double[] prices,
+        @Param("createdAt") LocalDateTime createdAt
+    );
+}
@@ -1,5 +1,7 @@
 package com.app.carpolling.repository;
 
+import com.app.carpolling.dto.LocationMatchView;
+import com.app.carpolling.dto.RoutePointSummaryDto;
 import com.app.carpolling.entity.RoutePoint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -14,61 +16,128 @@ public interface RoutePointRepository extends JpaRepository<RoutePoint, Long> {
     List<RoutePoint> findByRouteIdOrderBySequenceOrderAsc(Long routeId);
     
     // Get all distinct cities
-    @Query("SELECT DISTINCT rp.city FROM RoutePoint rp ORDER BY rp.city")
+    @Query("SELECT DISTINCT rp.city FROM RoutePoint rp WHERE rp.route.isActive = true ORDER BY rp.city")
     List<String> findAllDistinctCities();
     
     // Get all distinct boarding cities
-    @Query("SELECT DISTINCT rp.city FROM RoutePoint rp WHERE rp.isBoardingPoint = true ORDER BY rp.city")
+    @Query("SELECT DISTINCT rp.city FROM RoutePoint rp " +
+           "WHERE rp.isBoardingPoint = true AND rp.route.isActive = true ORDER BY rp.city")
     List<String> findAllDistinctBoardingCities();
     
     // Get all distinct drop cities
-    @Query("SELECT DISTINCT rp.city FROM RoutePoint rp WHERE rp.isDropPoint = true ORDER BY rp.city")
+    @Query("SELECT DISTINCT rp.city FROM RoutePoint rp " +
+           "WHERE rp.isDropPoint = true AND rp.route.isActive = true ORDER BY rp.city")
     List<String> findAllDistinctDropCities();
     
     // Get all sub-locations for a specific city (boarding points)
     @Query("SELECT DISTINCT rp.subLocation FROM RoutePoint rp " +
-           "WHERE rp.city = :city AND rp.isBoardingPoint = true ORDER BY rp.subLocation")
+           "WHERE rp.city = :city AND rp.isBoardingPoint = true AND rp.route.isActive = true " +
+           "ORDER BY rp.subLocation")
     List<String> findBoardingSubLocationsByCity(@Param("city") String city);
     
     // Get all sub-locations for a specific city (drop points)
     @Query("SELECT DISTINCT rp.subLocation FROM RoutePoint rp " +
-           "WHERE rp.city = :city AND rp.isDropPoint = true ORDER BY rp.subLocation")
+           "WHERE rp.city = :city AND rp.isDropPoint = true AND rp.route.isActive = true " +
+           "ORDER BY rp.subLocation")
     List<String> findDropSubLocationsByCity(@Param("city") String city);
     
     // Get complete route points with city and sub-location (boarding)
     @Query("SELECT rp FROM RoutePoint rp " +
-           "WHERE rp.isBoardingPoint = true " +
+           "WHERE rp.isBoardingPoint = true AND rp.route.isActive = true " +
            "ORDER BY rp.city, rp.subLocation")
     List<RoutePoint> findAllBoardingPoints();
     
     // Get complete route points with city and sub-location (drop)
     @Query("SELECT rp FROM RoutePoint rp " +
-           "WHERE rp.isDropPoint = true " +
+           "WHERE rp.isDropPoint = true AND rp.route.isActive = true " +
            "ORDER BY rp.city, rp.subLocation")
     List<RoutePoint> findAllDropPoints();
     
-    // Search boarding points by city or sub-location (case-insensitive)
-    @Query("SELECT DISTINCT rp FROM RoutePoint rp " +
-           "WHERE rp.isBoardingPoint = true " +
-           "AND (LOWER(rp.city) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
-           "OR LOWER(rp.subLocation) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) " +
-           "ORDER BY rp.city, rp.subLocation")
-    List<RoutePoint> searchBoardingPoints(@Param("searchTerm") String searchTerm);
-    
-    // Search drop points by city or sub-location (case-insensitive)
-    @Query("SELECT DISTINCT rp FROM RoutePoint rp " +
-           "WHERE rp.isDropPoint = true " +
-           "AND (LOWER(rp.city) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
-           "OR LOWER(rp.subLocation) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) " +
-           "ORDER BY rp.city, rp.subLocation")
-    List<RoutePoint> searchDropPoints(@Param("searchTerm") String searchTerm);
-    
-    // Search cities by name
-    @Query("SELECT DISTINCT rp.city FROM RoutePoint rp " +
-           "WHERE LOWER(rp.city) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
-           "ORDER BY rp.city")
-    List<String> searchCities(@Param("searchTerm") String searchTerm);
+    // Lightweight rows of every point on an active route (for the in-memory location index)
+    @Query("SELECT new com.app.carpolling.dto.RoutePointSummaryDto(" +
+           "rp.id, rp.route.id, rp.city, rp.subLocation, rp.isBoardingPoint, rp.isDropPoint) " +
+           "FROM RoutePoint rp WHERE rp.route.isActive = true")
+    List<RoutePointSummaryDto> findActiveRoutePointSummaries();
+    
+    // Trigram search (pg_trgm): ILIKE and % are served by the GIN trigram indexes,
+    // results are distinct locations ranked by similarity then by active routes served
+    @Query(value = "SELECT rp.city FROM route_points rp " +
+                   "JOIN routes r ON r.id = rp.route_id AND r.is_active = true " +
+                   "WHERE rp.city ILIKE CONCAT('%', :searchTerm, '%') OR rp.city % :searchTerm " +
+                   "GROUP BY rp.city " +
+                   "ORDER BY MAX(similarity(rp.city, :searchTerm)) DESC, COUNT(DISTINCT rp.route_id) DESC, rp.city " +
+                   "LIMIT :limit",
+           nativeQuery = true)
+    List<String> searchCitiesByTrigram(@Param("searchTerm") String searchTerm, @Param("limit") int limit);
+    
+    @Query(value = "SELECT rp.city AS city, rp.sub_location AS \"subLocation\", " +
+                   "COUNT(DISTINCT rp.route_id) AS \"routeCount\" " +
+                   "FROM route_points rp " +
+                   "JOIN routes r ON r.id = rp.route_id AND r.is_active = true " +
+                   "WHERE rp.is_boarding_point = true " +
+                   "AND (rp.city ILIKE CONCAT('%', :searchTerm, '%') OR rp.city % :searchTerm " +
+                   "OR rp.sub_location ILIKE CONCAT('%', :searchTerm, '%') OR rp.sub_location % :searchTerm) " +
+                   "GROUP BY rp.city, rp.sub_location " +
+                   "ORDER BY MAX(GREATEST(similarity(rp.city, :searchTerm), similarity(rp.sub_location, :searchTerm))) DESC, " +
+                   "\"routeCount\" DESC, rp.city, rp.sub_location " +
+                   "LIMIT :limit",
+           nativeQuery = true)
+    List<LocationMatchView> searchBoardingLocationsByTrigram(@Param("searchTerm") String searchTerm, @Param("limit") int limit);
+    
+    @Query(value = "SELECT rp.city AS city, rp.sub_location AS \"subLocation\", " +
+                   "COUNT(DISTINCT rp.route_id) AS \"routeCount\" " +
+                   "FROM route_points rp " +
+                   "JOIN routes r ON r.id = rp.route_id AND r.is_active = true " +
+                   "WHERE rp.is_drop_point = true " +
+                   "AND (rp.city ILIKE CONCAT('%', :searchTerm, '%') OR rp.city % :searchTerm " +
+                   "OR rp.sub_location ILIKE CONCAT('%', :searchTerm, '%') OR rp.sub_location % :searchTerm) " +
+                   "GROUP BY rp.city, rp.sub_location " +
+                   "ORDER BY MAX(GREATEST(similarity(rp.city, :searchTerm), similarity(rp.sub_location, :searchTerm))) DESC, " +
+                   "\"routeCount\" DESC, rp.city, rp.sub_location " +
+                   "LIMIT :limit",
+           nativeQuery = true)
+    List<LocationMatchView> searchDropLocationsByTrigram(@Param("searchTerm") String searchTerm, @Param("limit") int limit);
 
+    // Points on active routes at the best matching distinct locations, grouped by location in rank order
+    @Query(value = "WITH matches AS (" +
+                   "SELECT rp.city, rp.sub_location, " +
+                   "MAX(GREATEST(similarity(rp.city, :searchTerm), similarity(rp.sub_location, :searchTerm))) AS score, " +
+                   "COUNT(DISTINCT rp.route_id) AS route_count " +
+                   "FROM route_points rp " +
+                   "JOIN routes r ON r.id = rp.route_id AND r.is_active = true " +
+                   "WHERE rp.is_boarding_point = true " +
+                   "AND (rp.city ILIKE CONCAT('%', :searchTerm, '%') OR rp.city % :searchTerm " +
+                   "OR rp.sub_location ILIKE CONCAT('%', :searchTerm, '%') OR rp.sub_location % :searchTerm) " +
+                   "GROUP BY rp.city, rp.sub_location " +
+                   "ORDER BY score DESC, route_count DESC, rp.city, rp.sub_location " +
+                   "LIMIT :limit) " +
+                   "SELECT rp.id FROM matches m " +
+                   "JOIN route_points rp ON rp.city = m.city AND rp.sub_location = m.sub_location AND rp.is_boarding_point = true " +
+                   "JOIN routes r ON r.id = rp.route_id AND r.is_active = true " +
+                   "ORDER BY m.score DESC, m.route_count DESC, m.city, m.sub_location, rp.id",
+           nativeQuery = true)
+    List<Long> searchBoardingPointIdsByTrigram(@Param("searchTerm") String searchTerm, @Param("limit") int limit);
+    
+    // Points on active routes at the best matching distinct locations, grouped by location in rank order
+    @Query(value = "WITH matches AS (" +
+                   "SELECT rp.city, rp.sub_location, " +
+                   "MAX(GREATEST(similarity(rp.city, :searchTerm), similarity(rp.sub_location, :searchTerm))) AS score, " +
+                   "COUNT(DISTINCT rp.route_id) AS route_count " +
+                   "FROM route_points rp " +
+                   "JOIN routes r ON r.id = rp.route_id AND r.is_active = true " +
+                   "WHERE rp.is_drop_point = true " +
+                   "AND (rp.city ILIKE CONCAT('%', :searchTerm, '%') OR rp.city % :searchTerm " +
+                   "OR rp.sub_location ILIKE CONCAT('%', :searchTerm, '%') OR rp.sub_location % :searchTerm) " +
+                   "GROUP BY rp.city, rp.sub_location " +
+                   "ORDER BY score DESC, route_count DESC, rp.city, rp.sub_location " +
+                   "LIMIT :limit) " +
+                   "SELECT rp.id FROM matches m " +
+                   "JOIN route_points rp ON rp.city = m.city AND rp.sub_location = m.sub_location AND rp.is_drop_point = true " +
+                   "JOIN routes r ON r.id = rp.route_id AND r.is_active = true " +
+                   "ORDER BY m.score DESC, m.route_count DESC, m.city, m.sub_location, rp.id",
+           nativeQuery = true)
+    List<Long> searchDropPointIdsByTrigram(@Param("searchTerm") String searchTerm, @Param("limit") int limit);
+    
     @Query("SELECT rp FROM RoutePoint rp WHERE rp.city = :city AND rp.isBoardingPoint = true ORDER BY rp.subLocation")
     List<RoutePoint> findBoardingPointsByCity(@Param("city") String city);
     
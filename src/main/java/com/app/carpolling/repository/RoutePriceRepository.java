@@ -2,10 +2,12 @@ package com.app.carpolling.repository;
 
 import com.app.carpolling.entity.RoutePrice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,6 +16,13 @@ public interface RoutePriceRepository extends JpaRepository<RoutePrice, Long> {
     
     List<RoutePrice> findByRouteId(Long routeId);
     
+    // Prices with both points fetched in the same query
+    @Query("SELECT rp FROM RoutePrice rp " +
+           "JOIN FETCH rp.boardingPoint " +
+           "JOIN FETCH rp.dropPoint " +
+           "WHERE rp.route.id = :routeId")
+    List<RoutePrice> findByRouteIdWithPoints(@Param("routeId") Long routeId);
+    
     @Query("SELECT rp FROM RoutePrice rp WHERE rp.route.id = :routeId " +
            "AND rp.boardingPoint.id = :boardingPointId " +
            "AND rp.dropPoint.id = :dropPointId")
@@ -23,6 +32,29 @@ public interface RoutePriceRepository extends JpaRepository<RoutePrice, Long> {
         @Param("dropPointId") Long dropPointId
     );
     
-    void deleteByRouteId(Long routeId);
+    @Modifying
+    @Query("DELETE FROM RoutePrice rp WHERE rp.route.id = :routeId")
+    void deleteByRouteId(@Param("routeId") Long routeId);
+    
+    @Modifying
+    @Query("DELETE FROM RoutePrice rp WHERE rp.id IN :ids")
+    void deleteByIdIn(@Param("ids") List<Long> ids);
+    
+    // One multi-row statement for the whole matrix: IDENTITY ids keep saveAll from batching inserts.
+    // A cell another request inserted since the matrix was read is overwritten instead of failing.
+    @Modifying
+    @Query(value = "INSERT INTO route_prices (route_id, boarding_point_id, drop_point_id, price, created_at) " +
+                   "SELECT :routeId, cell.boarding_point_id, cell.drop_point_id, cell.price, :createdAt " +
+                   "FROM unnest(CAST(:boardingPointIds AS bigint[]), CAST(:dropPointIds AS bigint[]), " +
+                   "CAST(:prices AS double precision[])) AS cell(boarding_point_id, drop_point_id, price) " +
+                   "ON CONFLICT (route_id, boarding_point_id, drop_point_id) DO UPDATE SET price = EXCLUDED.price",
+           nativeQuery = true)
+    int upsertPrices(
+        @Param("routeId") Long routeId,
+        @Param("boardingPointIds") Long[] boardingPointIds,
+        @Param("dropPointIds") Long[] dropPointIds,
+        @Param("prices") Double[] prices,
+        @Param("createdAt") LocalDateTime createdAt
+    );
 }
 
@@ -2,18 +2,29 @@ package com.app.carpolling.repository;
 
 import com.app.carpolling.entity.Route;
 import com.app.carpolling.entity.Driver;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface RouteRepository extends JpaRepository<Route, Long> {
     List<Route> findByDriverAndIsActiveTrue(Driver driver);
+    
+    // Driver's routes with their points, as returned by GET /api/drivers/{driverId}/routes
+    @EntityGraph(attributePaths = "routePoints")
     List<Route> findByDriverIdAndIsActiveTrue(Long driverId);
     
+    // Route with its points, as returned by the deactivate endpoint
+    @EntityGraph(attributePaths = "routePoints")
+    Optional<Route> findWithPointsById(Long id);
+    
+    boolean existsByIdAndDriver_User_Phone(Long routeId, String phone);
+    
     @Query("SELECT DISTINCT r FROM Route r JOIN r.routePoints rp1 JOIN r.routePoints rp2 " +
            "WHERE r.isActive = true " +
            "AND rp1.city = :boardingPoint " +
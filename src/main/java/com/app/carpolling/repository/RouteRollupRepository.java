@@ -0,0 +1,86 @@
+package com.app.carpolling.repository;
+
+import com.app.carpolling.dto.RouteAnalyticsDto;
+import com.app.carpolling.entity.RollupGranularity;
+import com.app.carpolling.entity.RouteRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RouteRollupRepository extends JpaRepository<RouteRollup, Long> {
+    
+    /**
+     * (departure hour, route) keys touched by trips, bookings or payments
+     * updated in the window (:fromTime, :toTime]. Those hourly buckets are recomputed.
+     */
+    String CHANGED_HOURLY_KEYS =
+        "SELECT date_trunc('hour', t.departure_time) AS bucket_start, t.route_id FROM trips t " +
+        "WHERE t.updated_at > :fromTime AND t.updated_at <= :toTime " +
+        "UNION SELECT date_trunc('hour', t.departure_time), t.route_id FROM bookings b " +
+        "JOIN trips t ON t.id = b.trip_id " +
+        "WHERE b.updated_at > :fromTime AND b.updated_at <= :toTime " +
+        "UNION SELECT date_trunc('hour', t.departure_time), t.route_id FROM payments p " +
+        "JOIN bookings b ON b.id = p.booking_id JOIN trips t ON t.id = b.trip_id " +
+        "WHERE p.updated_at > :fromTime AND p.updated_at <= :toTime";
+    
+    String CHANGED_DAILY_KEYS =
+        "SELECT DISTINCT date_trunc('day', k.bucket_start), k.route_id FROM (" + CHANGED_HOURLY_KEYS + ") k";
+    
+    @Modifying
+    @Query(value = "DELETE FROM route_rollups WHERE granularity = 'HOUR' " +
+                   "AND (bucket_start, route_id) IN (" + CHANGED_HOURLY_KEYS + ")",
+           nativeQuery = true)
+    int deleteChangedHourly(@Param("fromTime") LocalDateTime fromTime, @Param("toTime") LocalDateTime toTime);
+    
+    @Modifying
+    @Query(value = "INSERT INTO route_rollups (granularity, bucket_start, route_id, trips, seats_offered, updated_at) " +
+                   "SELECT 'HOUR', date_trunc('hour', t.departure_time), t.route_id, COUNT(*), " +
+                   "SUM(t.available_seats + t.booked_seats), NOW() " +
+                   "FROM trips t " +
+                   "WHERE t.status <> 'CANCELLED' " +
+                   "AND (date_trunc('hour', t.departure_time), t.route_id) IN (" + CHANGED_HOURLY_KEYS + ") " +
+                   "GROUP BY date_trunc('hour', t.departure_time), t.route_id",
+           nativeQuery = true)
+    int insertChangedHourly(@Param("fromTime") LocalDateTime fromTime, @Param("toTime") LocalDateTime toTime);
+    
+    @Modifying
+    @Query(value = "DELETE FROM route_rollups WHERE granularity = 'DAY' " +
+                   "AND (bucket_start, route_id) IN (" + CHANGED_DAILY_KEYS + ")",
+           nativeQuery = true)
+    int deleteChangedDaily(@Param("fromTime") LocalDateTime fromTime, @Param("toTime") LocalDateTime toTime);
+    
+    @Modifying
+    @Query(value = "INSERT INTO route_rollups (granularity, bucket_start, route_id, trips, seats_offered, updated_at) " +
+                   "SELECT 'DAY', date_trunc('day', r.bucket_start), r.route_id, SUM(r.trips), SUM(r.seats_offered), NOW() " +
+                   "FROM route_rollups r " +
+                   "WHERE r.granularity = 'HOUR' " +
+                   "AND (date_trunc('day', r.bucket_start), r.route_id) IN (" + CHANGED_DAILY_KEYS + ") " +
+                   "GROUP BY date_trunc('day', r.bucket_start), r.route_id",
+           nativeQuery = true)
+    int insertChangedDaily(@Param("fromTime") LocalDateTime fromTime, @Param("toTime") LocalDateTime toTime);
+    
+    @Query("SELECT new com.app.carpolling.dto.RouteAnalyticsDto(" +
+           "r.bucketStart, r.routeId, r.trips, r.seatsOffered, " +
+           "COALESCE(SUM(c.confirmedBookings), 0), COALESCE(SUM(c.seatsBooked), 0), " +
+           "COALESCE(SUM(c.bookingAmount), 0.0), COALESCE(SUM(c.revenue), 0.0)) " +
+           "FROM RouteRollup r " +
+           "LEFT JOIN RouteCityPairRollup c ON c.granularity = r.granularity " +
+           "AND c.bucketStart = r.bucketStart AND c.routeId = r.routeId " +
+           "WHERE r.granularity = :granularity " +
+           "AND r.bucketStart >= :fromTime AND r.bucketStart < :toTime " +
+           "AND (:routeId IS NULL OR r.routeId = :routeId) " +
+           "GROUP BY r.bucketStart, r.routeId, r.trips, r.seatsOffered " +
+           "ORDER BY r.bucketStart, r.routeId")
+    List<RouteAnalyticsDto> findRouteAnalytics(
+        @Param("granularity") RollupGranularity granularity,
+        @Param("fromTime") LocalDateTime fromTime,
+        @Param("toTime") LocalDateTime toTime,
+        @Param("routeId") Long routeId
+    );
+}
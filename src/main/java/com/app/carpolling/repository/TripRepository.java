@@ -1,7 +1,11 @@
 package com.app.carpolling.repository;
 
+import com.app.carpolling.dto.AdminTripSummaryDto;
 import com.app.carpolling.entity.Trip;
 import com.app.carpolling.entity.TripStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -15,8 +19,16 @@ import java.util.Optional;
 public interface TripRepository extends JpaRepository<Trip, Long> {
     List<Trip> findByDriverIdAndStatus(Long driverId, TripStatus status);
     
+    @EntityGraph(Trip.GRAPH_DETAILS)
     List<Trip> findByDriverIdOrderByDepartureTimeDesc(Long driverId);
     
+    @EntityGraph(Trip.GRAPH_VEHICLE)
+    Optional<Trip> findWithVehicleById(Long id);
+    
+    @EntityGraph(Trip.GRAPH_DETAILS)
+    Optional<Trip> findWithDetailsById(Long id);
+    
+    @EntityGraph(Trip.GRAPH_DETAILS)
     @Query("SELECT t FROM Trip t WHERE t.route.id IN :routeIds " +
            "AND t.departureTime >= :fromDate " +
            "AND t.departureTime <= :toDate " +
@@ -32,13 +44,27 @@ public interface TripRepository extends JpaRepository<Trip, Long> {
     List<Trip> findByStatusAndDepartureTimeBefore(TripStatus status, LocalDateTime dateTime);
 
     Optional<Trip> findByIdAndDriver_Id(Long tripId, Long driverId);
+    
+    @Query(value = "SELECT new com.app.carpolling.dto.AdminTripSummaryDto(" +
+                   "t.id, r.id, r.routeName, d.id, u.name, v.registrationNumber, " +
+                   "t.departureTime, t.estimatedArrivalTime, t.availableSeats, t.bookedSeats, " +
+                   "t.status, t.createdAt) " +
+                   "FROM Trip t JOIN t.route r JOIN t.vehicle v JOIN t.driver d JOIN d.user u " +
+                   "WHERE (:status IS NULL OR t.status = :status) " +
+                   "AND (:driverId IS NULL OR d.id = :driverId) " +
+                   "AND (:fromDate IS NULL OR t.departureTime >= :fromDate) " +
+                   "AND (:toDate IS NULL OR t.departureTime <= :toDate) " +
+                   "ORDER BY t.departureTime DESC, t.id DESC",
+           countQuery = "SELECT COUNT(t) FROM Trip t " +
+                        "WHERE (:status IS NULL OR t.status = :status) " +
+                        "AND (:driverId IS NULL OR t.driver.id = :driverId) " +
+                        "AND (:fromDate IS NULL OR t.departureTime >= :fromDate) " +
+                        "AND (:toDate IS NULL OR t.departureTime <= :toDate)")
+    Page<AdminTripSummaryDto> findAdminTripSummaries(
+        @Param("status") TripStatus status,
+        @Param("driverId") Long driverId,
+        @Param("fromDate") LocalDateTime fromDate,
+        @Param("toDate") LocalDateTime toDate,
+        Pageable pageable
+    );
 }
-
-
-
-
-
-
-
-
-
@@ -1,7 +1,13 @@
 package com.app.carpolling.repository;
 
+import com.app.carpolling.dto.AdminUserSummaryDto;
 import com.app.carpolling.entity.User;
+import com.app.carpolling.entity.UserRole;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -12,13 +18,24 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByPhone(String phone);
     boolean existsByEmail(String email);
     boolean existsByPhone(String phone);
+    
+    @Query(value = "SELECT new com.app.carpolling.dto.AdminUserSummaryDto(" +
+                   "u.id, u.name, u.email, u.phone, u.role, u.isActive, u.createdAt) " +
+                   "FROM User u " +
+                   "WHERE (:search IS NULL OR LOWER(u.name) LIKE :search " +
+                   "OR LOWER(u.email) LIKE :search OR u.phone LIKE :search) " +
+                   "AND (:role IS NULL OR u.role = :role) " +
+                   "AND (:isActive IS NULL OR u.isActive = :isActive) " +
+                   "ORDER BY u.id DESC",
+           countQuery = "SELECT COUNT(u) FROM User u " +
+                        "WHERE (:search IS NULL OR LOWER(u.name) LIKE :search " +
+                        "OR LOWER(u.email) LIKE :search OR u.phone LIKE :search) " +
+                        "AND (:role IS NULL OR u.role = :role) " +
+                        "AND (:isActive IS NULL OR u.isActive = :isActive)")
+    Page<AdminUserSummaryDto> findAdminUserSummaries(
+        @Param("search") String search,
+        @Param("role") UserRole role,
+        @Param("isActive") Boolean isActive,
+        Pageable pageable
+    );
 }
-
-
-
-
-
-
-
-
-
@@ -1,8 +1,14 @@
 package com.app.carpolling.repository;
 
-import com.app.carpolling.entity.Vehicle;
+import com.app.carpolling.dto.AdminVehicleSummaryDto;
 import com.app.carpolling.entity.Driver;
+import com.app.carpolling.entity.Vehicle;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,15 +16,31 @@ import java.util.List;
 @Repository
 public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
     List<Vehicle> findByDriver(Driver driver);
+    
+    // Driver's vehicles with the driver and its user, as returned by GET /api/drivers/{driverId}/vehicles
+    @EntityGraph(attributePaths = "driver.user")
     List<Vehicle> findByDriverIdAndIsActiveTrue(Long driverId);
+    
     boolean existsByRegistrationNumber(String registrationNumber);
+    
+    @Query(value = "SELECT new com.app.carpolling.dto.AdminVehicleSummaryDto(" +
+                   "v.id, d.id, u.name, v.registrationNumber, v.brand, v.model, " +
+                   "v.vehicleType, v.passengerSeats, v.isActive, v.createdAt) " +
+                   "FROM Vehicle v JOIN v.driver d JOIN d.user u " +
+                   "WHERE (:search IS NULL OR LOWER(v.registrationNumber) LIKE :search " +
+                   "OR LOWER(v.brand) LIKE :search OR LOWER(v.model) LIKE :search) " +
+                   "AND (:driverId IS NULL OR d.id = :driverId) " +
+                   "AND (:isActive IS NULL OR v.isActive = :isActive) " +
+                   "ORDER BY v.id DESC",
+           countQuery = "SELECT COUNT(v) FROM Vehicle v JOIN v.driver d " +
+                        "WHERE (:search IS NULL OR LOWER(v.registrationNumber) LIKE :search " +
+                        "OR LOWER(v.brand) LIKE :search OR LOWER(v.model) LIKE :search) " +
+                        "AND (:driverId IS NULL OR d.id = :driverId) " +
+                        "AND (:isActive IS NULL OR v.isActive = :isActive)")
+    Page<AdminVehicleSummaryDto> findAdminVehicleSummaries(
+        @Param("search") String search,
+        @Param("driverId") Long driverId,
+        @Param("isActive") Boolean isActive,
+        Pageable pageable
+    );
 }
-
-
-
-
-
-
-
-
-
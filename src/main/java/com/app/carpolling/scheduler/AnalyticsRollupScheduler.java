@@ -0,0 +1,28 @@
+package com.app.carpolling.scheduler;
+
+import com.app.carpolling.service.AnalyticsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Folds recently updated trips, bookings and payments into the
+ * hourly and daily analytics rollup tables.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AnalyticsRollupScheduler {
+    
+    private final AnalyticsService analyticsService;
+    
+    @Scheduled(fixedDelayString = "${analytics.rollup.interval-ms:60000}")
+    public void refreshRollups() {
+        try {
+            analyticsService.refreshRollups();
+        } catch (Exception e) {
+            log.error("Error refreshing analytics rollups", e);
+        }
+    }
+}
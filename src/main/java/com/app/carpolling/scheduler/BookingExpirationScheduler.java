@@ -4,6 +4,8 @@ import com.app.carpolling.entity.Booking;
 import com.app.carpolling.entity.BookingStatus;
 import com.app.carpolling.repository.BookingRepository;
 import com.app.carpolling.service.BookingService;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -26,12 +28,14 @@ public class BookingExpirationScheduler {
     
     private final BookingRepository bookingRepository;
     private final BookingService bookingService;
+    private final MeterRegistry meterRegistry;
     
     /**
      * Runs every minute to check and cancel expired pending bookings
      * Cron: "0 * * * * *" = At second 0 of every minute
      */
     @Scheduled(cron = "0 * * * * *")
+    @Timed("carpool.scheduler.booking-expiration")
     @Transactional
     public void cancelExpiredBookings() {
         log.info("Running booking expiration check...");
@@ -49,14 +53,16 @@ public class BookingExpirationScheduler {
         
         log.info("Found {} expired bookings to cancel", expiredBookings.size());
         
+        int cancelled = 0;
         for (Booking booking : expiredBookings) {
             try {
-                // Release seats
-                bookingService.releaseSeats(booking);
-                
-                // Update booking status
-                booking.setStatus(BookingStatus.CANCELLED);
-                bookingRepository.save(booking);
+                // Release seats, cancel and record the expiry event
+                if (!bookingService.expireBooking(booking)) {
+                    log.info("Expired booking {} was confirmed meanwhile; left as is", booking.getId());
+                    continue;
+                }
+                meterRegistry.counter("carpool.booking.expired").increment();
+                cancelled++;
                 
                 log.info("Cancelled expired booking: {} (Reference: {})", 
                     booking.getId(), booking.getBookingReference());
@@ -67,8 +73,7 @@ public class BookingExpirationScheduler {
             }
         }
         
-        log.info("Completed booking expiration check. Cancelled {} bookings", 
-            expiredBookings.size());
+        log.info("Completed booking expiration check. Cancelled {} bookings", cancelled);
     }
 }
 
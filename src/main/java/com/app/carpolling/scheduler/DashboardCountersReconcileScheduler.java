@@ -0,0 +1,29 @@
+package com.app.carpolling.scheduler;
+
+import com.app.carpolling.service.DashboardCounters;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Seeds the in-memory dashboard counters from the database at startup, then
+ * periodically reconciles them to correct drift from bulk updates and other
+ * application instances.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardCountersReconcileScheduler {
+    
+    private final DashboardCounters dashboardCounters;
+    
+    @Scheduled(fixedDelayString = "${admin.stats.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        try {
+            dashboardCounters.reconcile();
+        } catch (Exception e) {
+            log.error("Error reconciling dashboard counters", e);
+        }
+    }
+}
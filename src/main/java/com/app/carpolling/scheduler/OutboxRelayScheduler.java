@@ -0,0 +1,41 @@
+package com.app.carpolling.scheduler;
+
+import com.app.carpolling.service.OutboxService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Relays booking and payment domain events from the outbox table
+ * and purges delivered ones.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxRelayScheduler {
+    
+    private final OutboxService outboxService;
+    
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:500}")
+    public void relayEvents() {
+        try {
+            outboxService.relay();
+        } catch (Exception e) {
+            log.error("Error relaying outbox events", e);
+        }
+    }
+    
+    /**
+     * Runs daily at 3:30 AM
+     */
+    @Scheduled(cron = "0 30 3 * * *")
+    public void purgePublishedEvents() {
+        try {
+            int deleted = outboxService.purgePublished();
+            log.info("Purged {} published outbox events", deleted);
+        } catch (Exception e) {
+            log.error("Error purging outbox events", e);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.app.carpolling.scheduler;
+
+import com.app.carpolling.service.PaymentWebhookService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drains the payment webhook inbox and purges old handled events.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentWebhookScheduler {
+    
+    private final PaymentWebhookService paymentWebhookService;
+    
+    @Scheduled(fixedDelayString = "${payment.webhook.poll-interval-ms:1000}")
+    public void processPendingEvents() {
+        try {
+            int processed = paymentWebhookService.processPending();
+            if (processed > 0) {
+                log.debug("Processed {} payment webhook events", processed);
+            }
+        } catch (Exception e) {
+            log.error("Error processing payment webhook events", e);
+        }
+    }
+    
+    /**
+     * Runs daily at 3:00 AM, after the token cleanup
+     */
+    @Scheduled(cron = "0 0 3 * * *")
+    public void purgeFinishedEvents() {
+        try {
+            int deleted = paymentWebhookService.purgeFinished();
+            log.info("Purged {} handled payment webhook events", deleted);
+        } catch (Exception e) {
+            log.error("Error purging payment webhook events", e);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.app.carpolling.scheduler;
 
 import com.app.carpolling.service.TokenBlacklistService;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -22,6 +23,7 @@ public class TokenCleanupScheduler {
      * Cron: "0 0 2 * * *" = At 2:00 AM every day
      */
     @Scheduled(cron = "0 0 2 * * *")
+    @Timed("carpool.scheduler.token-cleanup")
     public void cleanupExpiredTokens() {
         log.info("Starting token blacklist cleanup...");
         tokenBlacklistService.cleanupExpiredTokens();
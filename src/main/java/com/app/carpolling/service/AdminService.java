@@ -1,15 +1,25 @@
 package com.app.carpolling.service;
 
+import com.app.carpolling.dto.AdminBookingSummaryDto;
 import com.app.carpolling.dto.AdminDashboardStats;
+import com.app.carpolling.dto.AdminDriverSummaryDto;
+import com.app.carpolling.dto.AdminTripSummaryDto;
+import com.app.carpolling.dto.AdminUserSummaryDto;
+import com.app.carpolling.dto.AdminVehicleSummaryDto;
+import com.app.carpolling.dto.PageResponse;
 import com.app.carpolling.entity.*;
 import com.app.carpolling.exception.BaseException;
 import com.app.carpolling.exception.ErrorCode;
 import com.app.carpolling.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.Locale;
 
 @Service
 @RequiredArgsConstructor
@@ -21,25 +31,28 @@ public class AdminService {
     private final TripRepository tripRepository;
     private final BookingRepository bookingRepository;
     private final PaymentRepository paymentRepository;
+    private final DashboardCounters dashboardCounters;
     
-    @Transactional(readOnly = true)
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
-    }
+    @Value("${admin.page.max-size:100}")
+    private int maxPageSize;
     
     @Transactional(readOnly = true)
-    public List<Driver> getAllDrivers() {
-        return driverRepository.findAll();
+    public PageResponse<AdminUserSummaryDto> getUsers(String search, UserRole role, Boolean isActive,
+                                                      int page, int size) {
+        return PageResponse.from(userRepository.findAdminUserSummaries(
+            searchPattern(search), role, isActive, pageRequest(page, size)));
     }
     
     @Transactional(readOnly = true)
-    public List<Driver> getUnverifiedDrivers() {
-        return driverRepository.findByIsVerifiedFalse();
+    public PageResponse<AdminDriverSummaryDto> getDrivers(String search, Boolean isVerified,
+                                                          int page, int size) {
+        return PageResponse.from(driverRepository.findAdminDriverSummaries(
+            searchPattern(search), isVerified, pageRequest(page, size)));
     }
     
     @Transactional
     public Driver verifyDriver(Long driverId) {
-        Driver driver = driverRepository.findById(driverId)
+        Driver driver = driverRepository.findWithUserById(driverId)
             .orElseThrow(() -> new BaseException(ErrorCode.DRIVER_NOT_FOUND));
         driver.setIsVerified(true);
         return driverRepository.save(driver);
@@ -47,7 +60,7 @@ public class AdminService {
     
     @Transactional
     public Driver unverifyDriver(Long driverId) {
-        Driver driver = driverRepository.findById(driverId)
+        Driver driver = driverRepository.findWithUserById(driverId)
             .orElseThrow(() -> new BaseException(ErrorCode.DRIVER_NOT_FOUND));
         driver.setIsVerified(false);
         return driverRepository.save(driver);
@@ -70,49 +83,43 @@ public class AdminService {
     }
     
     @Transactional(readOnly = true)
-    public List<Booking> getAllBookings() {
-        return bookingRepository.findAll();
+    public PageResponse<AdminBookingSummaryDto> getBookings(String search, BookingStatus status, Long tripId,
+                                                            int page, int size) {
+        return PageResponse.from(bookingRepository.findAdminBookingSummaries(
+            searchPattern(search), status, tripId, pageRequest(page, size)));
     }
     
     @Transactional(readOnly = true)
-    public List<Trip> getAllTrips() {
-        return tripRepository.findAll();
+    public PageResponse<AdminTripSummaryDto> getTrips(TripStatus status, Long driverId,
+                                                      LocalDateTime fromDate, LocalDateTime toDate,
+                                                      int page, int size) {
+        return PageResponse.from(tripRepository.findAdminTripSummaries(
+            status, driverId, fromDate, toDate, pageRequest(page, size)));
     }
     
     @Transactional(readOnly = true)
-    public List<Vehicle> getAllVehicles() {
-        return vehicleRepository.findAll();
+    public PageResponse<AdminVehicleSummaryDto> getVehicles(String search, Long driverId, Boolean isActive,
+                                                            int page, int size) {
+        return PageResponse.from(vehicleRepository.findAdminVehicleSummaries(
+            searchPattern(search), driverId, isActive, pageRequest(page, size)));
     }
     
-    @Transactional(readOnly = true)
     public AdminDashboardStats getDashboardStats() {
-        long totalUsers = userRepository.count();
-        long totalDrivers = driverRepository.count();
-        long verifiedDrivers = driverRepository.countByIsVerifiedTrue();
-        long totalVehicles = vehicleRepository.count();
-        long totalTrips = tripRepository.count();
-        long totalBookings = bookingRepository.count();
-        long confirmedBookings = bookingRepository.countByStatus(BookingStatus.CONFIRMED);
-        long pendingBookings = bookingRepository.countByStatus(BookingStatus.PENDING);
-        long cancelledBookings = bookingRepository.countByStatus(BookingStatus.CANCELLED);
-        
-        return new AdminDashboardStats(
-            totalUsers,
-            totalDrivers,
-            verifiedDrivers,
-            totalVehicles,
-            totalTrips,
-            totalBookings,
-            confirmedBookings,
-            pendingBookings,
-            cancelledBookings
-        );
+        return dashboardCounters.getStats();
+    }
+    
+    // Page size is capped so a single admin request can never pull a whole table
+    private Pageable pageRequest(int page, int size) {
+        if (page < 0) {
+            throw new BaseException(ErrorCode.INVALID_REQUEST, "Page index must not be negative");
+        }
+        return PageRequest.of(page, Math.max(1, Math.min(size, maxPageSize)));
+    }
+    
+    private static String searchPattern(String search) {
+        if (search == null || search.trim().isEmpty()) {
+            return null;
+        }
+        return "%" + search.trim().toLowerCase(Locale.ROOT) + "%";
     }
 }
-
-
-
-
-
-
-
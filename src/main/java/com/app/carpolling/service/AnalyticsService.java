@@ -0,0 +1,114 @@
+package com.app.carpolling.service;
+
+import com.app.carpolling.dto.RouteAnalyticsDto;
+import com.app.carpolling.entity.RollupGranularity;
+import com.app.carpolling.entity.RollupWatermark;
+import com.app.carpolling.entity.RouteCityPairRollup;
+import com.app.carpolling.exception.BaseException;
+import com.app.carpolling.exception.ErrorCode;
+import com.app.carpolling.repository.RollupWatermarkRepository;
+import com.app.carpolling.repository.RouteCityPairRollupRepository;
+import com.app.carpolling.repository.RouteRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Booking and revenue analytics served from pre-aggregated rollup tables.
+ *
+ * Buckets are keyed by trip departure time, so seats sold and seats offered
+ * for the same hour line up. Each run recomputes only the (hour, route)
+ * buckets touched by trips, bookings or payments updated since the last
+ * watermark, then re-derives the daily rows for those days from the hourly ones.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnalyticsService {
+
+    private static final String WATERMARK_NAME = "booking_rollups";
+    private static final LocalDateTime INITIAL_WATERMARK = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    private final RouteRollupRepository routeRollupRepository;
+    private final RouteCityPairRollupRepository cityPairRollupRepository;
+    private final RollupWatermarkRepository watermarkRepository;
+
+    // Rows updated in the last few seconds may belong to transactions that have not committed yet
+    @Value("${analytics.rollup.lag-seconds:60}")
+    private long lagSeconds;
+
+    @Value("${analytics.query.max-hourly-days:31}")
+    private long maxHourlyDays;
+
+    @Value("${analytics.query.max-daily-days:366}")
+    private long maxDailyDays;
+
+    @Transactional
+    public void refreshRollups() {
+        RollupWatermark watermark = watermarkRepository.findByNameForUpdate(WATERMARK_NAME)
+            .orElseGet(() -> watermarkRepository.save(new RollupWatermark(WATERMARK_NAME, INITIAL_WATERMARK)));
+
+        LocalDateTime fromTime = watermark.getWatermark();
+        LocalDateTime toTime = LocalDateTime.now().minusSeconds(lagSeconds);
+        if (!toTime.isAfter(fromTime)) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        routeRollupRepository.deleteChangedHourly(fromTime, toTime);
+        int routeBuckets = routeRollupRepository.insertChangedHourly(fromTime, toTime);
+        cityPairRollupRepository.deleteChangedHourly(fromTime, toTime);
+        int cityPairBuckets = cityPairRollupRepository.insertChangedHourly(fromTime, toTime);
+
+        // Daily rows are summed from the hourly rows refreshed above
+        routeRollupRepository.deleteChangedDaily(fromTime, toTime);
+        routeRollupRepository.insertChangedDaily(fromTime, toTime);
+        cityPairRollupRepository.deleteChangedDaily(fromTime, toTime);
+        cityPairRollupRepository.insertChangedDaily(fromTime, toTime);
+
+        watermark.setWatermark(toTime);
+        watermarkRepository.save(watermark);
+
+        if (routeBuckets > 0 || cityPairBuckets > 0) {
+            log.info("Refreshed {} route and {} city pair hourly buckets up to {} in {} ms",
+                routeBuckets, cityPairBuckets, toTime, System.currentTimeMillis() - start);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<RouteAnalyticsDto> getRouteAnalytics(RollupGranularity granularity, LocalDateTime fromTime,
+                                                     LocalDateTime toTime, Long routeId) {
+        validateRange(granularity, fromTime, toTime);
+        return routeRollupRepository.findRouteAnalytics(granularity, fromTime, toTime, routeId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<RouteCityPairRollup> getCityPairAnalytics(RollupGranularity granularity, LocalDateTime fromTime,
+                                                          LocalDateTime toTime, Long routeId,
+                                                          String boardingCity, String dropCity) {
+        validateRange(granularity, fromTime, toTime);
+        return cityPairRollupRepository.findCityPairAnalytics(
+            granularity, fromTime, toTime, routeId, blankToNull(boardingCity), blankToNull(dropCity));
+    }
+
+    private void validateRange(RollupGranularity granularity, LocalDateTime fromTime, LocalDateTime toTime) {
+        if (!toTime.isAfter(fromTime)) {
+            throw new BaseException(ErrorCode.INVALID_REQUEST, "toTime must be after fromTime");
+        }
+        long maxDays = granularity == RollupGranularity.HOUR ? maxHourlyDays : maxDailyDays;
+        if (Duration.between(fromTime, toTime).toDays() > maxDays) {
+            throw new BaseException(ErrorCode.INVALID_REQUEST,
+                "Range too large for " + granularity + " buckets (max " + maxDays + " days)");
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+}
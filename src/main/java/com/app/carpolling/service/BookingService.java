@@ -1,23 +1,32 @@
 package com.app.carpolling.service;
 
+import com.app.carpolling.config.ReadYourWritesTracker;
+import com.app.carpolling.dto.BookingHistoryView;
 import com.app.carpolling.dto.BookingRequest;
 import com.app.carpolling.dto.BookingResponse;
+import com.app.carpolling.dto.CursorPage;
 import com.app.carpolling.entity.*;
 import com.app.carpolling.exception.BaseException;
 import com.app.carpolling.exception.ErrorCode;
 import com.app.carpolling.repository.BookingRepository;
 import com.app.carpolling.repository.RoutePointRepository;
-import com.app.carpolling.repository.RoutePriceRepository;
 import com.app.carpolling.repository.TripSeatRepository;
 import com.app.carpolling.repository.TripRepository;
+import com.app.carpolling.utils.IdGenerator;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,19 +36,30 @@ public class BookingService {
     private final BookingRepository bookingRepository;
     private final TripSeatRepository tripSeatRepository;
     private final RoutePointRepository routePointRepository;
-    private final RoutePriceRepository routePriceRepository;
     private final TripRepository tripRepository;
     private final UserService userService;
     private final TripService tripService;
+    private final RouteService routeService;
+    private final OutboxService outboxService;
+    private final IdGenerator idGenerator;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    
+    // First-page cursor: sorts after every real booking (and fits PostgreSQL's timestamp range)
+    private static final LocalDateTime HISTORY_START = LocalDateTime.of(9999, 12, 31, 0, 0);
     
     @Value("${booking.expiration.minutes:15}")
     private int bookingExpirationMinutes;
     
+    @Value("${booking.history.max-page-size:50}")
+    private int maxHistoryPageSize;
+    
+    @Timed(value = "carpool.booking.create", histogram = true)
     @Transactional
     public Booking createBooking(BookingRequest request) {
         // Get dependencies
         User user = userService.getUserById(request.getUserId());
-        Trip trip = tripService.getTripById(request.getTripId());
+        // With route, vehicle and driver: the created booking is returned as is
+        Trip trip = tripService.getTripWithDetailsById(request.getTripId());
         Long routeId = trip.getRoute().getId();
         
         // Find boarding point by city and sub-location
@@ -83,18 +103,12 @@ public class BookingService {
         }
         
         // Get fixed price from route price matrix
-        RoutePrice routePrice = routePriceRepository.findByRouteAndPoints(
-            trip.getRoute().getId(),
-            boardingPoint.getId(),
-            dropPoint.getId()
-        ).orElseThrow(() -> new BaseException(ErrorCode.PRICE_NOT_FOUND, 
-            "Price not configured for this boarding-drop combination"));
+        double pricePerSeat = routeService.getPrice(routeId, boardingPoint, dropPoint);
         
         // Calculate distance (for reference)
         double distance = (dropPoint.getDistanceFromStart() - boardingPoint.getDistanceFromStart()) / 1000.0;
         
         // Calculate total amount
-        double pricePerSeat = routePrice.getPrice();
         double totalAmount = pricePerSeat * request.getSeatNumbers().size();
         
         // Update trip available seats
@@ -103,7 +117,7 @@ public class BookingService {
         
         // Create booking
         Booking booking = new Booking();
-        booking.setBookingReference(generateBookingReference());
+        booking.setBookingReference(idGenerator.nextBookingReference());
         booking.setUser(user);
         booking.setTrip(trip);
         booking.setBoardingPoint(boardingPoint);
@@ -118,26 +132,36 @@ public class BookingService {
         // Set expiration time (configurable, default 15 minutes from now)
         booking.setExpiresAt(LocalDateTime.now().plusMinutes(bookingExpirationMinutes));
         
-        return bookingRepository.save(booking);
-    }
-    
-    private String generateBookingReference() {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        return "BK" + timestamp;
+        Booking savedBooking = bookingRepository.save(booking);
+        outboxService.record(OutboxEventType.BOOKING_CREATED, savedBooking.getId(), bookingPayload(savedBooking));
+        readYourWritesTracker.recordWrite();
+        return savedBooking;
     }
     
+    /**
+     * Confirms a booking that is still pending. A booking the expiry job or a
+     * cancellation got to first has already released its seats and stays cancelled.
+     *
+     * @return true if this call confirmed the booking
+     */
     @Transactional
-    public Booking confirmBooking(Long bookingId) {
+    public boolean confirmBooking(Long bookingId) {
+        if (bookingRepository.updateStatusIfPending(bookingId, BookingStatus.CONFIRMED, LocalDateTime.now()) != 1) {
+            return false;
+        }
+        
         Booking booking = bookingRepository.findById(bookingId)
             .orElseThrow(() -> new BaseException(ErrorCode.BOOKING_NOT_FOUND));
-        
+        // In step with the row if the booking was loaded before the update
         booking.setStatus(BookingStatus.CONFIRMED);
-        return bookingRepository.save(booking);
+        outboxService.record(OutboxEventType.BOOKING_CONFIRMED, bookingId, bookingPayload(booking));
+        readYourWritesTracker.recordWrite();
+        return true;
     }
     
     @Transactional
     public Booking cancelBooking(Long bookingId) {
-        Booking booking = bookingRepository.findById(bookingId)
+        Booking booking = bookingRepository.findWithDetailsById(bookingId)
             .orElseThrow(() -> new BaseException(ErrorCode.BOOKING_NOT_FOUND));
         
         if (booking.getStatus() == BookingStatus.CANCELLED) {
@@ -148,7 +172,28 @@ public class BookingService {
         releaseSeats(booking);
         
         booking.setStatus(BookingStatus.CANCELLED);
-        return bookingRepository.save(booking);
+        Booking savedBooking = bookingRepository.save(booking);
+        outboxService.record(OutboxEventType.BOOKING_CANCELLED, savedBooking.getId(), bookingPayload(savedBooking));
+        readYourWritesTracker.recordWrite();
+        return savedBooking;
+    }
+    
+    /**
+     * Cancels a pending booking whose payment window has passed and releases its seats
+     *
+     * @return false if the booking was confirmed since it was read, and is left as is
+     */
+    @Transactional
+    public boolean expireBooking(Booking booking) {
+        if (bookingRepository.updateStatusIfPending(booking.getId(), BookingStatus.CANCELLED, LocalDateTime.now()) != 1) {
+            return false;
+        }
+        
+        releaseSeats(booking);
+        
+        booking.setStatus(BookingStatus.CANCELLED);
+        outboxService.record(OutboxEventType.BOOKING_EXPIRED, booking.getId(), bookingPayload(booking));
+        return true;
     }
     
     /**
@@ -174,14 +219,71 @@ public class BookingService {
         tripRepository.save(trip);
     }
     
+    private static Map<String, Object> bookingPayload(Booking booking) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("bookingId", booking.getId());
+        payload.put("bookingReference", booking.getBookingReference());
+        payload.put("userId", booking.getUser().getId());
+        payload.put("tripId", booking.getTrip().getId());
+        payload.put("seatNumbers", booking.getSeatNumbers());
+        payload.put("numberOfSeats", booking.getNumberOfSeats());
+        payload.put("totalAmount", booking.getTotalAmount());
+        payload.put("status", booking.getStatus());
+        return payload;
+    }
+    
+    /**
+     * The user's most recent bookings, newest first: the first page of
+     * {@link #getUserBookingHistory} at the largest page size, without a cursor.
+     */
     @Transactional(readOnly = true)
     public List<BookingResponse> getUserBookings(Long userId) {
-        List<Booking> bookings = bookingRepository.findByUserIdOrderByCreatedAtDesc(userId);
-        return bookings.stream()
-            .map(this::convertToBookingResponse)
+        return bookingRepository.findHistoryPage(userId, HISTORY_START, Long.MAX_VALUE, maxHistoryPageSize)
+            .stream()
+            .map(BookingService::toBookingResponse)
             .collect(Collectors.toList());
     }
     
+    /**
+     * One page of a user's bookings, newest first, from a single query.
+     *
+     * @param cursor nextCursor of the previous page, or null for the first page
+     * @param size requested page size, capped at booking.history.max-page-size
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<BookingResponse> getUserBookingHistory(Long userId, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, maxHistoryPageSize));
+        LocalDateTime cursorCreatedAt = HISTORY_START;
+        long cursorId = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                cursorCreatedAt = LocalDateTime.parse(parts[0]);
+                cursorId = Long.parseLong(parts[1]);
+            } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+                throw new BaseException(ErrorCode.INVALID_REQUEST, "Invalid history cursor");
+            }
+        }
+        
+        // One extra row tells whether another page exists
+        List<BookingHistoryView> rows = bookingRepository.findHistoryPage(userId, cursorCreatedAt, cursorId, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<BookingHistoryView> page = hasMore ? rows.subList(0, pageSize) : rows;
+        
+        String nextCursor = null;
+        if (hasMore) {
+            BookingHistoryView last = page.get(page.size() - 1);
+            nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                (last.getBookedAt() + "|" + last.getBookingId()).getBytes(StandardCharsets.UTF_8));
+        }
+        return new CursorPage<>(
+            page.stream().map(BookingService::toBookingResponse).collect(Collectors.toList()),
+            pageSize,
+            nextCursor,
+            hasMore
+        );
+    }
+    
     @Transactional(readOnly = true)
     public BookingResponse getBookingByReference(String bookingReference) {
         Booking booking = bookingRepository.findByBookingReference(bookingReference)
@@ -214,6 +316,25 @@ public class BookingService {
         );
     }
     
+    private static BookingResponse toBookingResponse(BookingHistoryView row) {
+        return new BookingResponse(
+            row.getBookingId(),
+            row.getBookingReference(),
+            row.getTripId(),
+            row.getBoardingPoint(),
+            row.getDropPoint(),
+            row.getDepartureTime(),
+            row.getSeatNumbers() == null ? List.of() : Arrays.asList(row.getSeatNumbers()),
+            row.getTotalAmount(),
+            BookingStatus.valueOf(row.getStatus()),
+            row.getDriverName(),
+            row.getDriverPhone(),
+            String.format("%s %s (%s) - %s",
+                row.getVehicleBrand(), row.getVehicleModel(), row.getVehicleColor(), row.getRegistrationNumber()),
+            row.getBookedAt()
+        );
+    }
+    
     @Transactional(readOnly = true)
     public Booking getBookingById(Long bookingId) {
         return bookingRepository.findById(bookingId)
@@ -0,0 +1,222 @@
+package com.app.carpolling.service;
+
+import com.app.carpolling.dto.ApiResponse;
+import com.app.carpolling.entity.RoutePoint;
+import com.app.carpolling.event.RouteChangedEvent;
+import com.app.carpolling.repository.RoutePointRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Read-mostly catalog of cities and locations served by active routes.
+ *
+ * Responses are serialized once per catalog version (plain and gzip) together
+ * with a strong ETag derived from the body, so the catalog endpoints do not
+ * touch the database or Jackson until a route is created or deactivated.
+ */
+@Service
+@Slf4j
+public class CatalogService {
+
+    private final RoutePointRepository routePointRepository;
+    private final ObjectMapper objectMapper;
+    // One snapshot for all five queries, so the bodies agree; read-only also routes it to a replica
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final AtomicLong version = new AtomicLong(1);
+    private final AtomicBoolean stale = new AtomicBoolean(true);
+    private final ReentrantLock firstLoadLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+
+    public CatalogService(RoutePointRepository routePointRepository, ObjectMapper objectMapper,
+                          PlatformTransactionManager transactionManager) {
+        this.routePointRepository = routePointRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    public CatalogBody getAllCities() {
+        return current().body("cities");
+    }
+
+    public CatalogBody getBoardingCities() {
+        return current().body("cities:boarding");
+    }
+
+    public CatalogBody getDropCities() {
+        return current().body("cities:drop");
+    }
+
+    public CatalogBody getBoardingSubLocations(String city) {
+        Snapshot current = current();
+        return cityBody(current, "boarding:" + city, current.boardingSubLocations.get(city),
+            "Boarding locations retrieved successfully");
+    }
+
+    public CatalogBody getDropSubLocations(String city) {
+        Snapshot current = current();
+        return cityBody(current, "drop:" + city, current.dropSubLocations.get(city),
+            "Drop locations retrieved successfully");
+    }
+
+    public CatalogBody getAllBoardingPoints() {
+        return current().body("points:boarding");
+    }
+
+    public CatalogBody getAllDropPoints() {
+        return current().body("points:drop");
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRouteChanged(RouteChangedEvent event) {
+        long newVersion = version.incrementAndGet();
+        stale.set(true);
+        log.debug("Route {} changed, catalog version is now {}", event.routeId(), newVersion);
+    }
+
+    private Snapshot current() {
+        if (snapshot == null) {
+            // A lock rather than synchronized: a virtual thread blocked on the query inside a monitor would pin its carrier
+            firstLoadLock.lock();
+            try {
+                if (snapshot == null) {
+                    stale.set(false);
+                    reload();
+                }
+            } finally {
+                firstLoadLock.unlock();
+            }
+        } else if (stale.compareAndSet(true, false)) {
+            reload();
+        }
+        return snapshot;
+    }
+
+    private void reload() {
+        try {
+            long catalogVersion = version.get();
+            snapshot = readOnlyTransaction.execute(status -> load(catalogVersion));
+        } catch (RuntimeException e) {
+            stale.set(true);
+            throw e;
+        }
+    }
+
+    private Snapshot load(long catalogVersion) {
+        long start = System.currentTimeMillis();
+        List<RoutePoint> boardingPoints = routePointRepository.findAllBoardingPoints();
+        List<RoutePoint> dropPoints = routePointRepository.findAllDropPoints();
+
+        Map<String, CatalogBody> bodies = new HashMap<>();
+        bodies.put("cities", serialize(catalogVersion, ApiResponse.success(
+            "Cities retrieved successfully", routePointRepository.findAllDistinctCities())));
+        bodies.put("cities:boarding", serialize(catalogVersion, ApiResponse.success(
+            "Boarding cities retrieved successfully", routePointRepository.findAllDistinctBoardingCities())));
+        bodies.put("cities:drop", serialize(catalogVersion, ApiResponse.success(
+            "Drop cities retrieved successfully", routePointRepository.findAllDistinctDropCities())));
+        bodies.put("points:boarding", serialize(catalogVersion, ApiResponse.success(
+            "Boarding points retrieved successfully", boardingPoints)));
+        bodies.put("points:drop", serialize(catalogVersion, ApiResponse.success(
+            "Drop points retrieved successfully", dropPoints)));
+
+        Snapshot loaded = new Snapshot(catalogVersion, bodies,
+            subLocationsByCity(boardingPoints), subLocationsByCity(dropPoints));
+        log.info("Catalog version {} loaded in {} ms", catalogVersion, System.currentTimeMillis() - start);
+        return loaded;
+    }
+
+    // Per-city bodies are serialized on first request; unknown cities are answered but not memoized
+    private CatalogBody cityBody(Snapshot current, String key, List<String> subLocations, String message) {
+        if (subLocations == null) {
+            return serialize(current.version, ApiResponse.success(message, Collections.emptyList()));
+        }
+        return current.cityBodies.computeIfAbsent(key,
+            k -> serialize(current.version, ApiResponse.success(message, subLocations)));
+    }
+
+    private static Map<String, List<String>> subLocationsByCity(List<RoutePoint> points) {
+        Map<String, TreeSet<String>> grouped = new TreeMap<>();
+        for (RoutePoint point : points) {
+            grouped.computeIfAbsent(point.getCity(), city -> new TreeSet<>()).add(point.getSubLocation());
+        }
+        Map<String, List<String>> result = new HashMap<>();
+        grouped.forEach((city, subLocations) -> result.put(city, List.copyOf(subLocations)));
+        return result;
+    }
+
+    private CatalogBody serialize(long catalogVersion, Object response) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(response);
+            String hash = DigestUtils.md5DigestAsHex(json);
+            return new CatalogBody(catalogVersion, json, gzip(json),
+                "\"" + hash + "\"", "\"" + hash + "-gzip\"");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize catalog response", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Pre-serialized catalog response in both encodings, with one strong ETag per encoding.
+     */
+    public record CatalogBody(long version, byte[] json, byte[] gzip, String etag, String gzipEtag) {
+    }
+
+    private static final class Snapshot {
+        private final long version;
+        private final Map<String, CatalogBody> bodies;
+        private final Map<String, List<String>> boardingSubLocations;
+        private final Map<String, List<String>> dropSubLocations;
+        private final Map<String, CatalogBody> cityBodies = new ConcurrentHashMap<>();
+
+        private Snapshot(long version, Map<String, CatalogBody> bodies,
+                         Map<String, List<String>> boardingSubLocations,
+                         Map<String, List<String>> dropSubLocations) {
+            this.version = version;
+            this.bodies = bodies;
+            this.boardingSubLocations = boardingSubLocations;
+            this.dropSubLocations = dropSubLocations;
+        }
+
+        private CatalogBody body(String key) {
+            return bodies.get(key);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.app.carpolling.service;
+
+import com.app.carpolling.dto.AdminDashboardStats;
+import com.app.carpolling.dto.DashboardCountsView;
+import com.app.carpolling.entity.BookingStatus;
+import com.app.carpolling.repository.BookingRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory admin dashboard counters.
+ *
+ * Counters are seeded from one aggregate query and then kept current from
+ * committed entity inserts, updates and deletes. Changes made outside
+ * Hibernate (bulk JPQL, SQL scripts, other instances) are picked up by the
+ * periodic {@link #reconcile()}, which also seeds them at startup.
+ *
+ * A reconcile adds the difference between the counted and the previous value
+ * rather than overwriting the counter, so deltas applied by the listener while
+ * the count query runs are kept.
+ */
+@Service
+@Slf4j
+public class DashboardCounters {
+
+    private final BookingRepository bookingRepository;
+    // Programmatic so the reload from getStats() is read-only too; a self call would skip @Transactional
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final AtomicLong totalUsers = new AtomicLong();
+    private final AtomicLong totalDrivers = new AtomicLong();
+    private final AtomicLong verifiedDrivers = new AtomicLong();
+    private final AtomicLong totalVehicles = new AtomicLong();
+    private final AtomicLong totalTrips = new AtomicLong();
+    private final AtomicLong totalBookings = new AtomicLong();
+    private final AtomicLong confirmedBookings = new AtomicLong();
+    private final AtomicLong pendingBookings = new AtomicLong();
+    private final AtomicLong cancelledBookings = new AtomicLong();
+
+    private final ReentrantLock reconcileLock = new ReentrantLock();
+    private volatile boolean initialized;
+
+    public DashboardCounters(BookingRepository bookingRepository, PlatformTransactionManager transactionManager) {
+        this.bookingRepository = bookingRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public AdminDashboardStats getStats() {
+        if (!initialized) {
+            reconcile();
+        }
+        return new AdminDashboardStats(
+            totalUsers.get(),
+            totalDrivers.get(),
+            verifiedDrivers.get(),
+            totalVehicles.get(),
+            totalTrips.get(),
+            totalBookings.get(),
+            confirmedBookings.get(),
+            pendingBookings.get(),
+            cancelledBookings.get()
+        );
+    }
+
+    public void reconcile() {
+        // A lock rather than synchronized: a virtual thread blocked on the query inside a monitor would pin its carrier
+        reconcileLock.lock();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> reload());
+        } finally {
+            reconcileLock.unlock();
+        }
+    }
+
+    private void reload() {
+        long users = totalUsers.get();
+        long drivers = totalDrivers.get();
+        long verified = verifiedDrivers.get();
+        long vehicles = totalVehicles.get();
+        long trips = totalTrips.get();
+        long bookings = totalBookings.get();
+        long confirmed = confirmedBookings.get();
+        long pending = pendingBookings.get();
+        long cancelled = cancelledBookings.get();
+
+        DashboardCountsView counts = bookingRepository.getDashboardCounts();
+        if (initialized && bookings != counts.getTotalBookings()) {
+            log.debug("Dashboard booking counter drifted by {}", bookings - counts.getTotalBookings());
+        }
+        totalUsers.addAndGet(counts.getTotalUsers() - users);
+        totalDrivers.addAndGet(counts.getTotalDrivers() - drivers);
+        verifiedDrivers.addAndGet(counts.getVerifiedDrivers() - verified);
+        totalVehicles.addAndGet(counts.getTotalVehicles() - vehicles);
+        totalTrips.addAndGet(counts.getTotalTrips() - trips);
+        totalBookings.addAndGet(counts.getTotalBookings() - bookings);
+        confirmedBookings.addAndGet(counts.getConfirmedBookings() - confirmed);
+        pendingBookings.addAndGet(counts.getPendingBookings() - pending);
+        cancelledBookings.addAndGet(counts.getCancelledBookings() - cancelled);
+        initialized = true;
+    }
+
+    public void userAdded(int delta) {
+        totalUsers.addAndGet(delta);
+    }
+
+    public void driverAdded(boolean verified, int delta) {
+        totalDrivers.addAndGet(delta);
+        if (verified) {
+            verifiedDrivers.addAndGet(delta);
+        }
+    }
+
+    public void driverVerificationChanged(boolean wasVerified, boolean isVerified) {
+        if (wasVerified != isVerified) {
+            verifiedDrivers.addAndGet(isVerified ? 1 : -1);
+        }
+    }
+
+    public void vehicleAdded(int delta) {
+        totalVehicles.addAndGet(delta);
+    }
+
+    public void tripAdded(int delta) {
+        totalTrips.addAndGet(delta);
+    }
+
+    public void bookingAdded(BookingStatus status, int delta) {
+        totalBookings.addAndGet(delta);
+        adjustBookingStatus(status, delta);
+    }
+
+    public void bookingStatusChanged(BookingStatus oldStatus, BookingStatus newStatus) {
+        if (oldStatus != newStatus) {
+            adjustBookingStatus(oldStatus, -1);
+            adjustBookingStatus(newStatus, 1);
+        }
+    }
+
+    /**
+     * Forces the next read to reload the counters, for changes whose previous state is unknown.
+     */
+    public void invalidate() {
+        initialized = false;
+    }
+
+    private void adjustBookingStatus(BookingStatus status, int delta) {
+        if (status == null) {
+            return;
+        }
+        switch (status) {
+            case CONFIRMED -> confirmedBookings.addAndGet(delta);
+            case PENDING -> pendingBookings.addAndGet(delta);
+            case CANCELLED -> cancelledBookings.addAndGet(delta);
+            default -> {
+                // Not shown on the dashboard
+            }
+        }
+    }
+}
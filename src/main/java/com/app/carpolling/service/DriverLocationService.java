@@ -3,6 +3,7 @@ package com.app.carpolling.service;
 import com.app.carpolling.dto.DriverLocationDto;
 import com.app.carpolling.dto.DriverLocationResponseDto;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -34,6 +35,7 @@ public class DriverLocationService {
     /**
      * Store driver location in Redis and broadcast to subscribed customers.
      */
+    @Timed(value = "carpool.location.update", histogram = true)
     public void updateAndBroadcastLocation(DriverLocationDto dto) {
         String key = REDIS_KEY_PREFIX + dto.getTripId();
         long timestamp = dto.getTimestamp() != null ? dto.getTimestamp() : System.currentTimeMillis();
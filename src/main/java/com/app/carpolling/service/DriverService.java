@@ -48,7 +48,7 @@ public class DriverService {
     
     @Transactional(readOnly = true)
     public Driver getDriverById(Long driverId) {
-        return driverRepository.findById(driverId)
+        return driverRepository.findWithUserById(driverId)
             .orElseThrow(() -> new BaseException(ErrorCode.DRIVER_NOT_FOUND));
     }
     
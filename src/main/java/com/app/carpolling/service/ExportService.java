@@ -0,0 +1,190 @@
+package com.app.carpolling.service;
+
+import com.app.carpolling.dto.AdminBookingSummaryDto;
+import com.app.carpolling.dto.PaymentExportDto;
+import com.app.carpolling.entity.BookingStatus;
+import com.app.carpolling.entity.PaymentStatus;
+import com.app.carpolling.exception.BaseException;
+import com.app.carpolling.exception.ErrorCode;
+import com.app.carpolling.repository.BookingRepository;
+import com.app.carpolling.repository.PaymentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Streams bookings and payments to an output stream as CSV or NDJSON.
+ *
+ * Rows are read through a forward-only cursor as flat projections, so memory
+ * use does not grow with the number of rows exported.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportService {
+
+    private static final int FLUSH_EVERY_ROWS = 1000;
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    private static final Map<String, Function<AdminBookingSummaryDto, Object>> BOOKING_COLUMNS = new LinkedHashMap<>();
+    private static final Map<String, Function<PaymentExportDto, Object>> PAYMENT_COLUMNS = new LinkedHashMap<>();
+
+    static {
+        BOOKING_COLUMNS.put("id", AdminBookingSummaryDto::getId);
+        BOOKING_COLUMNS.put("bookingReference", AdminBookingSummaryDto::getBookingReference);
+        BOOKING_COLUMNS.put("userId", AdminBookingSummaryDto::getUserId);
+        BOOKING_COLUMNS.put("userName", AdminBookingSummaryDto::getUserName);
+        BOOKING_COLUMNS.put("userPhone", AdminBookingSummaryDto::getUserPhone);
+        BOOKING_COLUMNS.put("tripId", AdminBookingSummaryDto::getTripId);
+        BOOKING_COLUMNS.put("departureTime", AdminBookingSummaryDto::getDepartureTime);
+        BOOKING_COLUMNS.put("boardingCity", AdminBookingSummaryDto::getBoardingCity);
+        BOOKING_COLUMNS.put("dropCity", AdminBookingSummaryDto::getDropCity);
+        BOOKING_COLUMNS.put("numberOfSeats", AdminBookingSummaryDto::getNumberOfSeats);
+        BOOKING_COLUMNS.put("totalAmount", AdminBookingSummaryDto::getTotalAmount);
+        BOOKING_COLUMNS.put("status", AdminBookingSummaryDto::getStatus);
+        BOOKING_COLUMNS.put("createdAt", AdminBookingSummaryDto::getCreatedAt);
+
+        PAYMENT_COLUMNS.put("id", PaymentExportDto::getId);
+        PAYMENT_COLUMNS.put("transactionId", PaymentExportDto::getTransactionId);
+        PAYMENT_COLUMNS.put("razorpayOrderId", PaymentExportDto::getRazorpayOrderId);
+        PAYMENT_COLUMNS.put("razorpayPaymentId", PaymentExportDto::getRazorpayPaymentId);
+        PAYMENT_COLUMNS.put("bookingId", PaymentExportDto::getBookingId);
+        PAYMENT_COLUMNS.put("bookingReference", PaymentExportDto::getBookingReference);
+        PAYMENT_COLUMNS.put("amount", PaymentExportDto::getAmount);
+        PAYMENT_COLUMNS.put("status", PaymentExportDto::getStatus);
+        PAYMENT_COLUMNS.put("failureReason", PaymentExportDto::getFailureReason);
+        PAYMENT_COLUMNS.put("paidAt", PaymentExportDto::getPaidAt);
+        PAYMENT_COLUMNS.put("createdAt", PaymentExportDto::getCreatedAt);
+    }
+
+    private final BookingRepository bookingRepository;
+    private final PaymentRepository paymentRepository;
+    private final ObjectMapper objectMapper;
+
+    public enum ExportFormat {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        ExportFormat(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static ExportFormat from(String value) {
+            try {
+                return ExportFormat.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException | NullPointerException e) {
+                throw new BaseException(ErrorCode.INVALID_REQUEST, "Unsupported export format: " + value);
+            }
+        }
+    }
+
+    // The cursor only streams while the transaction is open, so the whole write happens inside it
+    @Transactional(readOnly = true)
+    public long exportBookings(BookingStatus status, LocalDateTime fromDate, LocalDateTime toDate,
+                               ExportFormat format, OutputStream outputStream) throws IOException {
+        try (Stream<AdminBookingSummaryDto> rows = bookingRepository.streamForExport(status, fromDate, toDate)) {
+            return write(rows, BOOKING_COLUMNS, format, outputStream);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportPayments(PaymentStatus status, LocalDateTime fromDate, LocalDateTime toDate,
+                               ExportFormat format, OutputStream outputStream) throws IOException {
+        try (Stream<PaymentExportDto> rows = paymentRepository.streamForExport(status, fromDate, toDate)) {
+            return write(rows, PAYMENT_COLUMNS, format, outputStream);
+        }
+    }
+
+    private <T> long write(Stream<T> rows, Map<String, Function<T, Object>> columns,
+                           ExportFormat format, OutputStream outputStream) throws IOException {
+        long start = System.currentTimeMillis();
+        BufferedOutputStream out = new BufferedOutputStream(outputStream, 64 * 1024);
+        if (format == ExportFormat.CSV) {
+            writeLine(out, String.join(",", columns.keySet()));
+        }
+
+        long count = 0;
+        Iterator<T> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            T row = iterator.next();
+            if (format == ExportFormat.CSV) {
+                writeLine(out, toCsvLine(row, columns));
+            } else {
+                out.write(objectMapper.writeValueAsBytes(row));
+                out.write('\n');
+            }
+            if (++count % FLUSH_EVERY_ROWS == 0) {
+                out.flush();
+            }
+        }
+        out.flush();
+
+        log.info("Exported {} rows as {} in {} ms", count, format, System.currentTimeMillis() - start);
+        return count;
+    }
+
+    private static <T> String toCsvLine(T row, Map<String, Function<T, Object>> columns) {
+        StringBuilder line = new StringBuilder(256);
+        boolean first = true;
+        for (Function<T, Object> column : columns.values()) {
+            if (!first) {
+                line.append(',');
+            }
+            first = false;
+            Object value = column.apply(row);
+            if (value instanceof Number) {
+                line.append(value);
+            } else if (value != null) {
+                line.append(escapeCsv(value.toString()));
+            }
+        }
+        return line.toString();
+    }
+
+    /**
+     * Quotes the value when needed and prefixes {@code '} to text a spreadsheet
+     * would run as a formula (leading {@code = + - @}, tab or carriage return).
+     * Numbers are written as-is by the caller so negative amounts stay numeric.
+     */
+    static String escapeCsv(String value) {
+        if (!value.isEmpty() && FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static void writeLine(OutputStream out, String line) throws IOException {
+        out.write(line.getBytes(StandardCharsets.UTF_8));
+        out.write('\n');
+    }
+}
@@ -0,0 +1,83 @@
+package com.app.carpolling.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived, per-instance cache of results keyed by an idempotency key.
+ *
+ * The first caller for a key runs the action; concurrent callers with the same
+ * key wait for that result instead of running it again, and later callers get
+ * the cached result until it expires. Failed actions are not cached, so a retry
+ * after an error runs again. This only absorbs retry storms cheaply; correctness
+ * across instances still comes from the conditional status update in the database.
+ */
+@Component
+public class IdempotencyCache {
+
+    private record Entry(CompletableFuture<Object> result, long expiresAt) {
+    }
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+    private final long sweepIntervalMillis;
+    private volatile long nextSweepAt;
+
+    public IdempotencyCache(@Value("${payment.callback.dedupe-ttl-seconds:300}") long ttlSeconds) {
+        this.ttlMillis = ttlSeconds * 1000;
+        // Expired entries are dropped on a later call rather than by a timer thread
+        this.sweepIntervalMillis = Math.min(ttlMillis, 10_000);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> action) {
+        long now = System.currentTimeMillis();
+        sweepIfDue(now);
+
+        CompletableFuture<Object> created = new CompletableFuture<>();
+        Entry entry = entries.compute(key, (k, existing) ->
+            existing != null && existing.expiresAt() > now ? existing : new Entry(created, now + ttlMillis));
+
+        if (entry.result() != created) {
+            try {
+                return (T) entry.result().join();
+            } catch (CompletionException e) {
+                throw unwrap(e);
+            }
+        }
+
+        try {
+            T result = action.get();
+            created.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            entries.remove(key, entry);
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void sweepIfDue(long now) {
+        if (now < nextSweepAt) {
+            return;
+        }
+        nextSweepAt = now + sweepIntervalMillis;
+        entries.values().removeIf(entry -> entry.expiresAt() <= now && entry.result().isDone());
+    }
+
+    private static RuntimeException unwrap(CompletionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return e;
+    }
+}
@@ -0,0 +1,304 @@
+package com.app.carpolling.service;
+
+import com.app.carpolling.dto.LocationSuggestionDto;
+import com.app.carpolling.dto.RoutePointSummaryDto;
+import com.app.carpolling.event.RouteChangedEvent;
+import com.app.carpolling.repository.RoutePointRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory autocomplete over the cities and sub-locations of active routes.
+ *
+ * Every location is indexed under each word of its name (case and diacritics
+ * folded), so "elec", "city" and "bangalore el" all find "Bangalore - Electronic City".
+ * Matches are ranked by how many active routes serve the location.
+ *
+ * The index is built at startup and rebuilt lazily on the first search after
+ * a route change is committed; searches running during a rebuild use the
+ * previous snapshot. Until the first build has succeeded there is no previous
+ * snapshot, so searches wait for it instead of finding nothing.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LocationSearchIndex {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WORD_START = Pattern.compile("(?<![\\p{L}\\p{N}])[\\p{L}\\p{N}]");
+
+    private final RoutePointRepository routePointRepository;
+
+    private final AtomicBoolean stale = new AtomicBoolean(true);
+    private final ReentrantLock firstBuildLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+
+    @Value("${location.search.mode:memory}")
+    private String searchMode;
+
+    /**
+     * Cities whose name has a word starting with the given text.
+     */
+    public List<String> searchCities(String searchTerm, int limit) {
+        List<String> cities = new ArrayList<>();
+        for (Location location : current().cities.search(fold(searchTerm), limit)) {
+            cities.add(location.label);
+        }
+        return cities;
+    }
+
+    /**
+     * Ids of boarding points whose city or sub-location has a word starting with the given text,
+     * grouped by location, best served locations first.
+     */
+    public List<Long> searchBoardingPointIds(String searchTerm, int limit) {
+        return pointIds(current().boardingLocations.search(fold(searchTerm), limit));
+    }
+
+    /**
+     * Ids of drop points whose city or sub-location has a word starting with the given text,
+     * grouped by location, best served locations first.
+     */
+    public List<Long> searchDropPointIds(String searchTerm, int limit) {
+        return pointIds(current().dropLocations.search(fold(searchTerm), limit));
+    }
+
+    /**
+     * Distinct boarding locations matching the given text, best served first.
+     */
+    public List<LocationSuggestionDto> searchBoardingLocations(String searchTerm, int limit) {
+        return suggestions(current().boardingLocations.search(fold(searchTerm), limit));
+    }
+
+    /**
+     * Distinct drop locations matching the given text, best served first.
+     */
+    public List<LocationSuggestionDto> searchDropLocations(String searchTerm, int limit) {
+        return suggestions(current().dropLocations.search(fold(searchTerm), limit));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildAtStartup() {
+        if ("trigram".equalsIgnoreCase(searchMode)) {
+            return;
+        }
+        try {
+            current();
+        } catch (RuntimeException e) {
+            log.warn("Location index not built at startup, the first search will retry: {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRouteChanged(RouteChangedEvent event) {
+        log.debug("Route {} changed, location index marked stale", event.routeId());
+        stale.set(true);
+    }
+
+    private Snapshot current() {
+        if (snapshot == null) {
+            // A lock rather than synchronized: a virtual thread blocked on the query inside a monitor would pin its carrier
+            firstBuildLock.lock();
+            try {
+                if (snapshot == null) {
+                    stale.set(false);
+                    rebuild();
+                }
+            } finally {
+                firstBuildLock.unlock();
+            }
+        } else if (stale.compareAndSet(true, false)) {
+            rebuild();
+        }
+        return snapshot;
+    }
+
+    private void rebuild() {
+        try {
+            long start = System.currentTimeMillis();
+            List<RoutePointSummaryDto> points = routePointRepository.findActiveRoutePointSummaries();
+            snapshot = Snapshot.build(points);
+            log.info("Location index rebuilt from {} route points in {} ms",
+                points.size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            stale.set(true);
+            throw e;
+        }
+    }
+
+    private static List<Long> pointIds(List<Location> locations) {
+        List<Long> ids = new ArrayList<>();
+        for (Location location : locations) {
+            for (long id : location.pointIds) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private static List<LocationSuggestionDto> suggestions(List<Location> locations) {
+        List<LocationSuggestionDto> suggestions = new ArrayList<>(locations.size());
+        for (Location location : locations) {
+            suggestions.add(new LocationSuggestionDto(
+                location.city,
+                location.subLocation,
+                location.label,
+                (long) location.routeCount
+            ));
+        }
+        return suggestions;
+    }
+
+    /**
+     * Lower-cases and strips diacritics so "São Paulo" and "sao paulo" index alike.
+     */
+    static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text.trim(), Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Location {
+        private final String city;
+        private final String subLocation; // null for city entries
+        private final String label;
+        private final Set<Long> routeIds = new HashSet<>();
+        private final List<Long> pointIdList = new ArrayList<>();
+        private int routeCount;
+        private long[] pointIds;
+
+        private Location(String city, String subLocation) {
+            this.city = city;
+            this.subLocation = subLocation;
+            this.label = subLocation == null ? city : city + " - " + subLocation;
+        }
+
+        private void add(RoutePointSummaryDto point) {
+            routeIds.add(point.getRouteId());
+            pointIdList.add(point.getId());
+        }
+
+        private Location freeze() {
+            routeCount = routeIds.size();
+            pointIds = pointIdList.stream().mapToLong(Long::longValue).toArray();
+            return this;
+        }
+    }
+
+    private static final Comparator<Location> BY_RANK = Comparator
+        .comparingInt((Location l) -> l.routeCount).reversed()
+        .thenComparing(l -> l.label);
+
+    /**
+     * Sorted array of (word-start suffix -> location). A prefix lookup is a
+     * binary search for the first key >= prefix followed by a scan while keys
+     * still start with it.
+     */
+    private static final class PrefixIndex {
+        private final String[] keys;
+        private final Location[] targets;
+
+        private PrefixIndex(Map<String, Location> locations, Map<String, String> searchText) {
+            List<Map.Entry<String, Location>> tokens = new ArrayList<>();
+            for (Map.Entry<String, Location> entry : locations.entrySet()) {
+                Location location = entry.getValue().freeze();
+                String folded = fold(searchText.get(entry.getKey()));
+                var matcher = WORD_START.matcher(folded);
+                while (matcher.find()) {
+                    tokens.add(Map.entry(folded.substring(matcher.start()), location));
+                }
+            }
+            tokens.sort(Map.Entry.comparingByKey());
+
+            keys = new String[tokens.size()];
+            targets = new Location[tokens.size()];
+            for (int i = 0; i < tokens.size(); i++) {
+                keys[i] = tokens.get(i).getKey();
+                targets[i] = tokens.get(i).getValue();
+            }
+        }
+
+        private List<Location> search(String prefix, int limit) {
+            if (prefix.isEmpty() || limit <= 0) {
+                return List.of();
+            }
+            int from = Arrays.binarySearch(keys, prefix);
+            if (from < 0) {
+                from = -from - 1;
+            }
+
+            Set<Location> matches = new HashSet<>();
+            for (int i = from; i < keys.length && keys[i].startsWith(prefix); i++) {
+                matches.add(targets[i]);
+            }
+
+            List<Location> ranked = new ArrayList<>(matches);
+            ranked.sort(BY_RANK);
+            return ranked.size() > limit ? ranked.subList(0, limit) : ranked;
+        }
+    }
+
+    private static final class Snapshot {
+        private final PrefixIndex cities;
+        private final PrefixIndex boardingLocations;
+        private final PrefixIndex dropLocations;
+
+        private Snapshot(PrefixIndex cities, PrefixIndex boardingLocations, PrefixIndex dropLocations) {
+            this.cities = cities;
+            this.boardingLocations = boardingLocations;
+            this.dropLocations = dropLocations;
+        }
+
+        private static Snapshot build(List<RoutePointSummaryDto> points) {
+            Map<String, Location> cities = new HashMap<>();
+            Map<String, Location> boarding = new HashMap<>();
+            Map<String, Location> drop = new HashMap<>();
+            Map<String, String> searchText = new HashMap<>();
+
+            for (RoutePointSummaryDto point : points) {
+                cities.computeIfAbsent(point.getCity(), city -> {
+                    searchText.put(city, city);
+                    return new Location(city, null);
+                }).add(point);
+
+                String locationKey = point.getCity() + '\u0000' + point.getSubLocation();
+                searchText.putIfAbsent(locationKey, point.getCity() + " " + point.getSubLocation());
+                if (point.getIsBoardingPoint()) {
+                    boarding.computeIfAbsent(locationKey,
+                        key -> new Location(point.getCity(), point.getSubLocation())).add(point);
+                }
+                if (point.getIsDropPoint()) {
+                    drop.computeIfAbsent(locationKey,
+                        key -> new Location(point.getCity(), point.getSubLocation())).add(point);
+                }
+            }
+
+            return new Snapshot(
+                new PrefixIndex(cities, searchText),
+                new PrefixIndex(boarding, searchText),
+                new PrefixIndex(drop, searchText)
+            );
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.app.carpolling.service;
+
+import com.app.carpolling.dto.OutboxStats;
+import com.app.carpolling.entity.OutboxEvent;
+import com.app.carpolling.entity.OutboxEventType;
+import com.app.carpolling.event.OutboxMessage;
+import com.app.carpolling.event.OutboxSink;
+import com.app.carpolling.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transactional outbox for booking and payment domain events.
+ *
+ * {@link #record} must run inside the transaction that makes the state change,
+ * so an event exists if and only if the change committed. {@link #relay()}
+ * delivers unpublished events to the configured {@link OutboxSink} in
+ * batches, marking a batch published only after the sink accepts it
+ * (at-least-once). A transaction-scoped advisory lock keeps one relay active
+ * across instances.
+ *
+ * Delivery is not ordered, not even per aggregate: ids are assigned at insert
+ * and not at commit, so an event can commit, and be relayed, after one with a
+ * higher id.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxService {
+
+    // Arbitrary application-wide key for pg_try_advisory_xact_lock
+    private static final long RELAY_LOCK_KEY = 0x6f7574626f78L;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxSink outboxSink;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicLong recordedEvents = new AtomicLong();
+    private final AtomicLong publishedEvents = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong lastBatchSize = new AtomicLong();
+    private final AtomicLong lastBatchMillis = new AtomicLong();
+    private volatile double lastRunEventsPerSecond;
+
+    @Value("${outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${outbox.relay.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${outbox.retention-days:7}")
+    private long retentionDays;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(OutboxEventType eventType, Long aggregateId, Map<String, Object> payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setAggregateType(eventType.getAggregateType());
+        event.setAggregateId(aggregateId);
+        event.setEventType(eventType);
+        try {
+            event.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outbox payload is not serializable", e);
+        }
+        outboxEventRepository.save(event);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recordedEvents.incrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Delivers pending events until none are left or the per-run batch limit is reached.
+     *
+     * @return number of events delivered
+     */
+    public int relay() {
+        long start = System.currentTimeMillis();
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            long batchStart = System.currentTimeMillis();
+            Integer delivered;
+            try {
+                delivered = transactionTemplate.execute(status -> relayBatch());
+            } catch (Exception e) {
+                // Nothing was marked published; the same batch is retried on the next run
+                failedBatches.incrementAndGet();
+                log.warn("Outbox batch delivery failed: {}", e.getMessage());
+                break;
+            }
+            if (delivered == null || delivered <= 0) {
+                break;
+            }
+            publishedEvents.addAndGet(delivered);
+            lastBatchSize.set(delivered);
+            lastBatchMillis.set(System.currentTimeMillis() - batchStart);
+            total += delivered;
+            if (delivered < batchSize) {
+                break;
+            }
+        }
+
+        if (total > 0) {
+            long elapsed = Math.max(System.currentTimeMillis() - start, 1);
+            lastRunEventsPerSecond = total * 1000.0 / elapsed;
+            log.debug("Relayed {} outbox events in {} ms", total, elapsed);
+        }
+        return total;
+    }
+
+    @Transactional
+    public int purgePublished() {
+        return outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minusDays(retentionDays));
+    }
+
+    @Transactional(readOnly = true)
+    public OutboxStats getStats() {
+        LocalDateTime oldest = outboxEventRepository.findOldestUnpublishedCreatedAt();
+        return new OutboxStats(
+            recordedEvents.get(),
+            publishedEvents.get(),
+            failedBatches.get(),
+            outboxEventRepository.countUnpublished(),
+            oldest == null ? null : Duration.between(oldest, LocalDateTime.now()).toSeconds(),
+            lastBatchSize.get(),
+            lastBatchMillis.get(),
+            lastRunEventsPerSecond
+        );
+    }
+
+    private int relayBatch() {
+        if (!outboxEventRepository.tryRelayLock(RELAY_LOCK_KEY)) {
+            return -1; // Another instance is relaying
+        }
+        List<OutboxEvent> events = outboxEventRepository.findUnpublished(batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        outboxSink.deliver(events.stream()
+            .map(event -> new OutboxMessage(event.getId(), event.getAggregateType(), event.getAggregateId(),
+                event.getEventType(), event.getPayload(), event.getCreatedAt()))
+            .toList());
+        outboxEventRepository.markPublished(events.stream().map(OutboxEvent::getId).toList(), LocalDateTime.now());
+        return events.size();
+    }
+}
@@ -0,0 +1,64 @@
+package com.app.carpolling.service;
+
+import com.app.carpolling.exception.BaseException;
+import com.app.carpolling.exception.ErrorCode;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Payment provider used by {@link PaymentService}.
+ *
+ * Selected with {@code payment.gateway}: {@code razorpay} (default) or
+ * {@code simulator} for offline end-to-end and load testing.
+ */
+public interface PaymentGateway {
+
+    /**
+     * Key the client checkout uses to open the provider's payment form.
+     */
+    String getPublicKey();
+
+    /**
+     * Creates an order at the provider. Completes exceptionally with a
+     * {@link BaseException} when the provider fails, or with an
+     * {@link OrderTimeoutException} when the caller stopped waiting while the
+     * provider call was still running.
+     */
+    CompletableFuture<GatewayOrder> createOrder(long amountInPaise, String currency, String receipt);
+
+    /**
+     * Checks the signature the provider attached to a completed payment.
+     */
+    boolean verifySignature(String orderId, String paymentId, String signature);
+
+    /**
+     * Checks the signature the provider attached to a webhook delivery, over the raw request body.
+     */
+    boolean verifyWebhookSignature(String payload, String signature);
+
+    /**
+     * Order created at the provider: its id, the fields returned to the client, and the raw response.
+     */
+    record GatewayOrder(String id, Map<String, Object> details, String rawResponse) {
+    }
+
+    /**
+     * Order creation that outlived the time limit. The provider call is not
+     * cancelled, so it may still create an order: {@link #getCompletion()}
+     * completes with that order, or exceptionally, once the call has finished.
+     */
+    class OrderTimeoutException extends BaseException {
+
+        private final transient CompletableFuture<GatewayOrder> completion;
+
+        public OrderTimeoutException(CompletableFuture<GatewayOrder> completion) {
+            super(ErrorCode.PAYMENT_GATEWAY_TIMEOUT);
+            this.completion = completion;
+        }
+
+        public CompletableFuture<GatewayOrder> getCompletion() {
+            return completion;
+        }
+    }
+}
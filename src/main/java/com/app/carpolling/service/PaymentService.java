@@ -5,160 +5,288 @@ import com.app.carpolling.dto.PaymentOrderResponse;
 import com.app.carpolling.dto.PaymentRequest;
 import com.app.carpolling.entity.Booking;
 import com.app.carpolling.entity.BookingStatus;
+import com.app.carpolling.entity.OutboxEventType;
 import com.app.carpolling.entity.Payment;
 import com.app.carpolling.entity.PaymentStatus;
 import com.app.carpolling.exception.BaseException;
 import com.app.carpolling.exception.ErrorCode;
 import com.app.carpolling.repository.PaymentRepository;
-import com.razorpay.Order;
-import com.razorpay.RazorpayClient;
-import com.razorpay.RazorpayException;
-import com.razorpay.Utils;
+import com.app.carpolling.utils.IdGenerator;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
-import org.json.JSONObject;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class PaymentService {
     
+    private static final String REFUND_REASON = "Booking was no longer pending when the payment was captured";
+    
     private final PaymentRepository paymentRepository;
     private final BookingService bookingService;
-    private static final String KEY_ID = "rzp_test_S2Ff0VPxryvVep";
-    private static final String KEY_SECRET = "weJQH3VKMciZ9WNn4zW1o0hm";
+    private final PaymentGateway paymentGateway;
+    private final TransactionTemplate transactionTemplate;
+    private final IdempotencyCache idempotencyCache;
+    private final OutboxService outboxService;
+    private final IdGenerator idGenerator;
+    
+    @Value("${razorpay.reservation-timeout-seconds:120}")
+    private long reservationTimeoutSeconds;
 
     /**
-     * Creates a Razorpay order and saves the payment details with PENDING status
+     * Creates a payment gateway order for a pending booking.
+     *
+     * Runs as reserve -> call -> persist: the payment row is reserved in a short
+     * transaction, the gateway is called with no transaction open, and the order
+     * id is stored in a second short transaction. If the gateway call fails the
+     * reservation is released so the client can retry. If it only timed out, the
+     * order may still be created, so the reservation is kept until the call
+     * finishes: a late order is attached to it, and a retry in the meantime gets
+     * PAYMENT_ALREADY_EXISTS instead of creating a second order.
+     *
      * @param request PaymentRequest containing booking ID
-     * @return Razorpay order response as JSON string
+     * @return future completing with the order details for the client checkout
      */
-    @Transactional
-    public PaymentOrderResponse createOrder(PaymentRequest request) throws RazorpayException {
-        // Get booking
-        Booking booking = bookingService.getBookingById(request.getBookingId());
+    @Timed(value = "carpool.payment.order.create", histogram = true)
+    public CompletableFuture<PaymentOrderResponse> createOrder(PaymentRequest request) {
+        Payment reservation = transactionTemplate.execute(status -> reservePayment(request.getBookingId()));
+        Long paymentId = reservation.getId();
+        
+        return paymentGateway.createOrder(
+                Math.round(reservation.getAmount() * 100), // Amount in paise
+                "INR",
+                reservation.getTransactionId())
+            .thenApply(order -> transactionTemplate.execute(status -> attachOrder(paymentId, order)))
+            .whenComplete((response, error) -> {
+                if (error == null) {
+                    return;
+                }
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+                if (cause instanceof PaymentGateway.OrderTimeoutException timeout) {
+                    timeout.getCompletion().whenComplete((order, callError) -> {
+                        if (order != null) {
+                            attachLateOrder(paymentId, order);
+                        } else {
+                            releaseReservation(paymentId);
+                        }
+                    });
+                } else {
+                    releaseReservation(paymentId);
+                }
+            });
+    }
+    
+    private Payment reservePayment(Long bookingId) {
+        Booking booking = bookingService.getBookingById(bookingId);
         
         // Validate booking is pending
         if (booking.getStatus() != BookingStatus.PENDING) {
             throw new BaseException(ErrorCode.BOOKING_NOT_PENDING);
         }
         
-        // Check if payment already exists for this booking
-        if (paymentRepository.findByBookingId(booking.getId()).isPresent()) {
-            throw new BaseException(ErrorCode.PAYMENT_ALREADY_EXISTS);
+        // A reservation whose gateway call never completed (e.g. the node died) can be reused once stale
+        Payment payment = paymentRepository.findByBookingId(booking.getId()).orElse(null);
+        if (payment != null) {
+            boolean staleReservation = payment.getStatus() == PaymentStatus.INITIATED
+                && payment.getRazorpayOrderId() == null
+                && payment.getCreatedAt().isBefore(LocalDateTime.now().minusSeconds(reservationTimeoutSeconds));
+            if (!staleReservation) {
+                throw new BaseException(ErrorCode.PAYMENT_ALREADY_EXISTS);
+            }
+        } else {
+            payment = new Payment();
+            payment.setBooking(booking);
+            payment.setTransactionId(idGenerator.nextTransactionId());
         }
-
-        // Create Razorpay order
-        RazorpayClient razorpay = new RazorpayClient(KEY_ID, KEY_SECRET);
-        JSONObject orderRequest = new JSONObject();
-        orderRequest.put("amount", (int) (booking.getTotalAmount() * 100)); // Amount in paise
-        orderRequest.put("currency", "INR");
-        orderRequest.put("receipt", generateTransactionId());
-        
-        Order order = razorpay.orders.create(orderRequest);
-        
-        // Create and save payment record with PENDING status
-        Payment payment = new Payment();
-        payment.setTransactionId(order.get("receipt"));
-        payment.setRazorpayOrderId(order.get("id"));
-        payment.setBooking(booking);
         payment.setAmount(booking.getTotalAmount());
-        payment.setStatus(PaymentStatus.PENDING);
-        payment.setPaymentGatewayResponse(order.toString());
+        payment.setStatus(PaymentStatus.INITIATED);
         
+        return paymentRepository.save(payment);
+    }
+    
+    private PaymentOrderResponse attachOrder(Long paymentId, PaymentGateway.GatewayOrder order) {
+        Payment payment = paymentRepository.findById(paymentId)
+            .orElseThrow(() -> new BaseException(ErrorCode.PAYMENT_NOT_FOUND));
+        payment.setRazorpayOrderId(order.id());
+        payment.setStatus(PaymentStatus.PENDING);
+        payment.setPaymentGatewayResponse(order.rawResponse());
         Payment savedPayment = paymentRepository.save(payment);
-        
-        Map<String, Object> orderMap = new HashMap<>();
-        orderMap.put("id", order.get("id"));
-        orderMap.put("entity", order.get("entity"));
-        orderMap.put("amount", order.get("amount"));
-        orderMap.put("amount_paid", order.get("amount_paid"));
-        orderMap.put("amount_due", order.get("amount_due"));
-        orderMap.put("currency", order.get("currency"));
-        orderMap.put("receipt", order.get("receipt"));
-        orderMap.put("status", order.get("status"));
-        orderMap.put("created_at", order.get("created_at"));
+        outboxService.record(OutboxEventType.PAYMENT_ORDER_CREATED, savedPayment.getId(),
+            paymentPayload(savedPayment, PaymentStatus.PENDING, null));
         
         return PaymentOrderResponse.builder()
                 .paymentId(savedPayment.getId())
-                .order(orderMap)
-                .publicKey(KEY_ID)
+                .order(order.details())
+                .publicKey(paymentGateway.getPublicKey())
                 .build();
     }
+    
+    private void attachLateOrder(Long paymentId, PaymentGateway.GatewayOrder order) {
+        try {
+            transactionTemplate.execute(status -> attachOrder(paymentId, order));
+            log.info("Attached order {} to payment {} after the gateway timed out", order.id(), paymentId);
+        } catch (Exception e) {
+            // Left INITIATED; reusing it after the reservation timeout sends the same receipt again
+            log.warn("Could not attach late order {} to payment {}: {}", order.id(), paymentId, e.getMessage());
+        }
+    }
+    
+    private void releaseReservation(Long paymentId) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                paymentRepository.findById(paymentId)
+                    .filter(payment -> payment.getStatus() == PaymentStatus.INITIATED
+                        && payment.getRazorpayOrderId() == null)
+                    .ifPresent(paymentRepository::delete));
+        } catch (Exception e) {
+            // The reservation becomes reusable after the reservation timeout anyway
+            log.warn("Could not release payment reservation {}: {}", paymentId, e.getMessage());
+        }
+    }
 
     /**
-     * Verifies the Razorpay payment callback and updates the payment status
+     * Verifies the Razorpay payment callback and updates the payment status.
+     *
+     * Callbacks are idempotent: retries with the same idempotency key (or, without
+     * one, the same payment and gateway ids) are answered from a short-lived cache,
+     * a payment that already left PENDING is returned as is without re-verifying,
+     * and the status moves with a conditional update so only one callback ever
+     * confirms or cancels the booking.
+     *
      * @param callbackRequest PaymentCallbackRequest containing Razorpay details
+     * @param idempotencyKey client supplied key, may be null
      * @return Updated Payment entity
      */
-    @Transactional
-    public Payment verifyPayment(PaymentCallbackRequest callbackRequest) throws RazorpayException {
-        // Find payment by ID
-        Payment payment = paymentRepository.findById(callbackRequest.getPaymentId())
+    @Timed(value = "carpool.payment.verify", histogram = true)
+    public Payment verifyPayment(PaymentCallbackRequest callbackRequest, String idempotencyKey) {
+        String key = idempotencyKey != null && !idempotencyKey.isBlank()
+            ? "payment-callback:" + callbackRequest.getPaymentId() + ":" + idempotencyKey
+            : "payment-callback:" + callbackRequest.getPaymentId() + ":"
+                + callbackRequest.getRazorpayOrderId() + ":" + callbackRequest.getRazorpayPaymentId();
+        return idempotencyCache.execute(key,
+            () -> transactionTemplate.execute(status -> processCallback(callbackRequest)));
+    }
+    
+    private Payment processCallback(PaymentCallbackRequest callbackRequest) {
+        // Find payment by ID, with the booking the response carries
+        Payment payment = paymentRepository.findWithBookingById(callbackRequest.getPaymentId())
                 .orElseThrow(() -> new BaseException(ErrorCode.PAYMENT_NOT_FOUND));
         
         // Verify that the razorpay order ID matches
-        if (!payment.getRazorpayOrderId().equals(callbackRequest.getRazorpayOrderId())) {
+        if (!callbackRequest.getRazorpayOrderId().equals(payment.getRazorpayOrderId())) {
             throw new BaseException(ErrorCode.PAYMENT_VERIFICATION_FAILED, "Order ID mismatch");
         }
         
+        // Already settled by an earlier callback; nothing to verify or write
+        if (payment.getStatus() != PaymentStatus.PENDING) {
+            return payment;
+        }
+        
+        Long bookingId = payment.getBooking().getId();
+        
         // Verify the Razorpay signature
-        String signature = callbackRequest.getRazorpayOrderId() + "|" + callbackRequest.getRazorpayPaymentId();
-        boolean isValid = Utils.verifySignature(signature, callbackRequest.getRazorpaySignature(), KEY_SECRET);
+        boolean isValid = paymentGateway.verifySignature(
+                callbackRequest.getRazorpayOrderId(),
+                callbackRequest.getRazorpayPaymentId(),
+                callbackRequest.getRazorpaySignature());
         
+        LocalDateTime now = LocalDateTime.now();
         if (isValid) {
-            // Payment verified successfully
-            payment.setRazorpayPaymentId(callbackRequest.getRazorpayPaymentId());
-            payment.setStatus(PaymentStatus.SUCCESS);
-            payment.setPaidAt(LocalDateTime.now());
-            payment.setPaymentGatewayResponse(
-                    payment.getPaymentGatewayResponse() + 
-                    "\n--- Verification Response ---\n" +
-                    "Payment ID: " + callbackRequest.getRazorpayPaymentId() + 
-                    ", Verified: true"
-            );
-            
-            // Confirm the booking
-            bookingService.confirmBooking(payment.getBooking().getId());
+            // Confirm the booking only if this callback won the PENDING -> SUCCESS transition
+            if (paymentRepository.markSucceeded(payment.getId(), callbackRequest.getRazorpayPaymentId(), now) == 1) {
+                outboxService.record(OutboxEventType.PAYMENT_SUCCEEDED, payment.getId(),
+                    paymentPayload(payment, PaymentStatus.SUCCESS, callbackRequest.getRazorpayPaymentId()));
+                confirmOrFlagForRefund(payment, callbackRequest.getRazorpayPaymentId());
+            }
         } else {
-            // Payment verification failed
-            payment.setStatus(PaymentStatus.FAILED);
-            payment.setFailureReason("Signature verification failed");
-            
-            // Cancel the booking
-            bookingService.cancelBooking(payment.getBooking().getId());
+            if (paymentRepository.markFailed(payment.getId(), "Signature verification failed", now) == 1) {
+                outboxService.record(OutboxEventType.PAYMENT_FAILED, payment.getId(),
+                    paymentPayload(payment, PaymentStatus.FAILED, callbackRequest.getRazorpayPaymentId()));
+                bookingService.cancelBooking(bookingId);
+            }
         }
         
-        return paymentRepository.save(payment);
+        // Whichever callback won, return the state it left behind
+        return paymentRepository.findWithBookingById(payment.getId())
+                .orElseThrow(() -> new BaseException(ErrorCode.PAYMENT_NOT_FOUND));
+    }
+    
+    /**
+     * Applies a captured-payment webhook event. Shares the conditional
+     * PENDING -> SUCCESS transition with the client callback, so whichever
+     * arrives first confirms the booking and the other is a no-op. A capture
+     * that arrives after the booking expired leaves the payment REFUND_PENDING.
+     *
+     * @return true if this event changed the payment
+     */
+    @Transactional
+    public boolean applyCapturedPayment(String razorpayOrderId, String razorpayPaymentId) {
+        Payment payment = paymentRepository.findByRazorpayOrderId(razorpayOrderId).orElse(null);
+        if (payment == null || payment.getStatus() != PaymentStatus.PENDING) {
+            return false;
+        }
+        if (paymentRepository.markSucceeded(payment.getId(), razorpayPaymentId, LocalDateTime.now()) != 1) {
+            return false;
+        }
+        outboxService.record(OutboxEventType.PAYMENT_SUCCEEDED, payment.getId(),
+            paymentPayload(payment, PaymentStatus.SUCCESS, razorpayPaymentId));
+        confirmOrFlagForRefund(payment, razorpayPaymentId);
+        return true;
+    }
+    
+    // The booking may have expired (and its seats been resold) while the payment was open;
+    // reviving it would oversell the trip, so the captured amount is flagged for refund instead
+    private void confirmOrFlagForRefund(Payment payment, String razorpayPaymentId) {
+        Long bookingId = payment.getBooking().getId();
+        if (bookingService.confirmBooking(bookingId)) {
+            return;
+        }
+        log.warn("Payment {} captured after booking {} stopped pending; flagged for refund", payment.getId(), bookingId);
+        paymentRepository.markRefundPending(payment.getId(), REFUND_REASON, LocalDateTime.now());
+        outboxService.record(OutboxEventType.PAYMENT_REFUND_REQUIRED, payment.getId(),
+            paymentPayload(payment, PaymentStatus.REFUND_PENDING, razorpayPaymentId));
     }
     
-    private String generateTransactionId() {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        String uuid = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        return "TXN" + timestamp + uuid;
+    // Built from values read before the conditional update, which detaches the loaded payment
+    private static Map<String, Object> paymentPayload(Payment payment, PaymentStatus status, String razorpayPaymentId) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("paymentId", payment.getId());
+        payload.put("bookingId", payment.getBooking().getId());
+        payload.put("transactionId", payment.getTransactionId());
+        payload.put("razorpayOrderId", payment.getRazorpayOrderId());
+        payload.put("razorpayPaymentId", razorpayPaymentId);
+        payload.put("amount", payment.getAmount());
+        payload.put("status", status);
+        return payload;
     }
     
     @Transactional(readOnly = true)
     public Payment getPaymentByBookingId(Long bookingId) {
-        return paymentRepository.findByBookingId(bookingId)
+        return paymentRepository.findWithBookingByBookingId(bookingId)
             .orElseThrow(() -> new BaseException(ErrorCode.PAYMENT_NOT_FOUND, "Payment not found for this booking"));
     }
     
     @Transactional(readOnly = true)
     public Payment getPaymentByTransactionId(String transactionId) {
-        return paymentRepository.findByTransactionId(transactionId)
+        return paymentRepository.findWithBookingByTransactionId(transactionId)
             .orElseThrow(() -> new BaseException(ErrorCode.PAYMENT_NOT_FOUND));
     }
     
     @Transactional(readOnly = true)
     public Payment getPaymentById(Long paymentId) {
-        return paymentRepository.findById(paymentId)
+        return paymentRepository.findWithBookingById(paymentId)
             .orElseThrow(() -> new BaseException(ErrorCode.PAYMENT_NOT_FOUND));
     }
 }
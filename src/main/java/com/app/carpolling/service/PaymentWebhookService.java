@@ -0,0 +1,226 @@
+package com.app.carpolling.service;
+
+import com.app.carpolling.entity.PaymentWebhookEvent;
+import com.app.carpolling.entity.WebhookEventStatus;
+import com.app.carpolling.exception.BaseException;
+import com.app.carpolling.exception.ErrorCode;
+import com.app.carpolling.repository.PaymentWebhookEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Payment gateway webhooks, received into a durable inbox and applied in batches.
+ *
+ * The request thread only checks the signature and inserts the event (redeliveries
+ * are dropped by the unique event id), so bursts from the gateway never wait on
+ * booking updates. A scheduled drain claims due events with SKIP LOCKED, groups
+ * them by order (one order per booking) and applies each group in event time
+ * order on a worker pool, one transaction per event. Failed events are retried
+ * with exponential backoff and parked as FAILED after the last attempt.
+ */
+@Service
+@Slf4j
+public class PaymentWebhookService {
+
+    // Captured payments are all we act on; failed attempts leave the order open for the customer to retry
+    private static final Set<String> HANDLED_EVENTS = Set.of("payment.captured", "order.paid");
+    private static final List<WebhookEventStatus> FINISHED = List.of(
+        WebhookEventStatus.PROCESSED, WebhookEventStatus.IGNORED);
+
+    private final PaymentWebhookEventRepository eventRepository;
+    private final PaymentService paymentService;
+    private final PaymentGateway paymentGateway;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService workers;
+
+    @Value("${payment.webhook.batch-size:500}")
+    private int batchSize;
+
+    @Value("${payment.webhook.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${payment.webhook.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${payment.webhook.retry-backoff-seconds:5}")
+    private long retryBackoffSeconds;
+
+    @Value("${payment.webhook.claim-timeout-seconds:300}")
+    private long claimTimeoutSeconds;
+
+    @Value("${payment.webhook.retention-days:30}")
+    private long retentionDays;
+
+    public PaymentWebhookService(
+        PaymentWebhookEventRepository eventRepository,
+        PaymentService paymentService,
+        PaymentGateway paymentGateway,
+        TransactionTemplate transactionTemplate,
+        ObjectMapper objectMapper,
+        @Value("${payment.webhook.worker-threads:4}") int workerThreads
+    ) {
+        this.eventRepository = eventRepository;
+        this.paymentService = paymentService;
+        this.paymentGateway = paymentGateway;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerThreads,
+            runnable -> new Thread(runnable, "payment-webhook-" + threadCount.incrementAndGet()));
+    }
+
+    /**
+     * Verifies and stores one webhook delivery.
+     *
+     * @param payload raw request body, exactly as signed by the gateway
+     * @param signature signature header sent with the delivery
+     * @param eventId gateway event id header, may be null
+     * @return true if the event was new and queued, false if ignored or already queued
+     */
+    @Transactional
+    public boolean receive(String payload, String signature, String eventId) {
+        if (!paymentGateway.verifyWebhookSignature(payload, signature)) {
+            throw new BaseException(ErrorCode.PAYMENT_VERIFICATION_FAILED, "Invalid webhook signature");
+        }
+
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(payload);
+        } catch (JsonProcessingException e) {
+            throw new BaseException(ErrorCode.INVALID_REQUEST, "Malformed webhook payload");
+        }
+        String eventType = root.path("event").asText("");
+        if (!HANDLED_EVENTS.contains(eventType)) {
+            log.debug("Ignoring webhook event {}", eventType);
+            return false;
+        }
+
+        JsonNode paymentEntity = root.path("payload").path("payment").path("entity");
+        String orderId = paymentEntity.path("order_id").asText(null);
+        String paymentId = paymentEntity.path("id").asText(null);
+        if (orderId == null || paymentId == null) {
+            throw new BaseException(ErrorCode.INVALID_REQUEST, "Webhook payload has no payment entity");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime eventTime = root.hasNonNull("created_at")
+            ? LocalDateTime.ofInstant(Instant.ofEpochSecond(root.get("created_at").asLong()), ZoneId.systemDefault())
+            : now;
+        String key = eventId != null && !eventId.isBlank() ? eventId : sha256(payload);
+
+        return eventRepository.enqueue(key, eventType, orderId, paymentId, eventTime, payload, now) == 1;
+    }
+
+    /**
+     * Applies due events until the inbox is drained or the per-run batch limit is reached.
+     *
+     * @return number of events handled
+     */
+    public int processPending() {
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<PaymentWebhookEvent> claimed = transactionTemplate.execute(status -> claimBatch());
+            if (claimed == null || claimed.isEmpty()) {
+                break;
+            }
+
+            // Claimed rows arrive in event time order; keep that order within each booking's group
+            Map<String, List<PaymentWebhookEvent>> byOrder = new LinkedHashMap<>();
+            for (PaymentWebhookEvent event : claimed) {
+                byOrder.computeIfAbsent(event.getRazorpayOrderId(), k -> new ArrayList<>()).add(event);
+            }
+            CompletableFuture.allOf(byOrder.values().stream()
+                    .map(group -> CompletableFuture.runAsync(() -> group.forEach(this::apply), workers))
+                    .toArray(CompletableFuture[]::new))
+                .join();
+
+            total += claimed.size();
+            if (claimed.size() < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    @Transactional
+    public int purgeFinished() {
+        return eventRepository.deleteFinishedBefore(FINISHED, LocalDateTime.now().minusDays(retentionDays));
+    }
+
+    private List<PaymentWebhookEvent> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<PaymentWebhookEvent> events = eventRepository.findClaimable(
+            now, now.minusSeconds(claimTimeoutSeconds), batchSize);
+        if (!events.isEmpty()) {
+            eventRepository.markClaimed(events.stream().map(PaymentWebhookEvent::getId).toList(), now);
+            // Detached by the bulk update, so this only keeps the in-memory copies in step
+            events.forEach(event -> event.setAttempts(event.getAttempts() + 1));
+        }
+        return events;
+    }
+
+    private void apply(PaymentWebhookEvent event) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                boolean applied = paymentService.applyCapturedPayment(
+                    event.getRazorpayOrderId(), event.getRazorpayPaymentId());
+                eventRepository.markFinished(event.getId(),
+                    applied ? WebhookEventStatus.PROCESSED : WebhookEventStatus.IGNORED, LocalDateTime.now());
+            });
+        } catch (Exception e) {
+            boolean exhausted = event.getAttempts() >= maxAttempts;
+            long backoff = retryBackoffSeconds << Math.min(event.getAttempts() - 1, 16);
+            log.warn("Webhook event {} attempt {} failed{}: {}", event.getEventId(), event.getAttempts(),
+                exhausted ? ", giving up" : "", e.getMessage());
+            try {
+                transactionTemplate.executeWithoutResult(status -> eventRepository.markAttemptFailed(
+                    event.getId(),
+                    exhausted ? WebhookEventStatus.FAILED : WebhookEventStatus.PENDING,
+                    LocalDateTime.now().plusSeconds(backoff),
+                    e.getMessage()));
+            } catch (Exception markError) {
+                // Left PROCESSING; reclaimed once the claim times out
+                log.error("Could not record failure of webhook event {}", event.getEventId(), markError);
+            }
+        }
+    }
+
+    private static String sha256(String payload) {
+        try {
+            return HexFormat.of().formatHex(
+                MessageDigest.getInstance("SHA-256").digest(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,188 @@
+package com.app.carpolling.service;
+
+import com.app.carpolling.exception.BaseException;
+import com.app.carpolling.exception.ErrorCode;
+import com.razorpay.Order;
+import com.razorpay.RazorpayClient;
+import com.razorpay.RazorpayException;
+import com.razorpay.Utils;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Razorpay implementation of {@link PaymentGateway}, behind a circuit breaker and a time limit.
+ *
+ * Order creation runs on a small bounded pool owned by this class, so callers
+ * never block a request thread (or a pooled DB connection) on the gateway.
+ * The time limit only bounds how long the caller waits: Razorpay has no way to
+ * abort an order request already sent, so a timed-out call keeps running and
+ * its outcome is handed back through {@link OrderTimeoutException}.
+ */
+@Service
+@ConditionalOnProperty(name = "payment.gateway", havingValue = "razorpay", matchIfMissing = true)
+@Slf4j
+public class RazorpayPaymentGateway implements PaymentGateway {
+
+    private static final String INSTANCE = "razorpay";
+
+    private final RazorpayClient razorpayClient;
+    private final String keyId;
+    private final String keySecret;
+    private final String webhookSecret;
+    private final CircuitBreaker circuitBreaker;
+    private final TimeLimiter timeLimiter;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService timeoutScheduler;
+
+    public RazorpayPaymentGateway(
+        RazorpayClient razorpayClient,
+        CircuitBreakerRegistry circuitBreakerRegistry,
+        TimeLimiterRegistry timeLimiterRegistry,
+        @Value("${razorpay.key-id}") String keyId,
+        @Value("${razorpay.key-secret}") String keySecret,
+        @Value("${razorpay.webhook-secret:}") String webhookSecret,
+        @Value("${razorpay.executor.pool-size:8}") int poolSize,
+        @Value("${razorpay.executor.queue-capacity:100}") int queueCapacity
+    ) {
+        this.razorpayClient = razorpayClient;
+        this.keyId = keyId;
+        this.keySecret = keySecret;
+        this.webhookSecret = webhookSecret;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(INSTANCE);
+        this.timeLimiter = timeLimiterRegistry.timeLimiter(INSTANCE);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        // AbortPolicy: when the gateway is backed up, fail fast instead of queueing forever
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> new Thread(runnable, "payment-gateway-" + threadCount.incrementAndGet()),
+            new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutScheduler = Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+                Thread thread = new Thread(runnable, "payment-gateway-timeout");
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    @Override
+    public String getPublicKey() {
+        return keyId;
+    }
+
+    // Completes on a gateway thread, or with a BaseException on timeout, open circuit or gateway error
+    @Override
+    public CompletableFuture<GatewayOrder> createOrder(long amountInPaise, String currency, String receipt) {
+        // The real outcome of the provider call, which the time limiter never cancels
+        CompletableFuture<GatewayOrder> completion = new CompletableFuture<>();
+        CompletableFuture<GatewayOrder> result;
+        try {
+            result = circuitBreaker.executeCompletionStage(() ->
+                timeLimiter.executeCompletionStage(timeoutScheduler, () -> {
+                    executor.execute(() -> {
+                        try {
+                            completion.complete(doCreateOrder(amountInPaise, currency, receipt));
+                        } catch (RuntimeException e) {
+                            completion.completeExceptionally(e);
+                        }
+                    });
+                    return completion.copy();
+                })
+            ).toCompletableFuture();
+        } catch (RejectedExecutionException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        return result.exceptionallyCompose(e -> CompletableFuture.failedFuture(translate(e, completion)));
+    }
+
+    @Override
+    public boolean verifySignature(String orderId, String paymentId, String signature) {
+        try {
+            return Utils.verifySignature(orderId + "|" + paymentId, signature, keySecret);
+        } catch (RazorpayException e) {
+            log.warn("Signature verification error for order {}: {}", orderId, e.getMessage());
+            return false;
+        }
+    }
+
+    // Webhooks are signed with the secret set on the Razorpay dashboard, not the API key secret
+    @Override
+    public boolean verifyWebhookSignature(String payload, String signature) {
+        if (webhookSecret.isBlank() || signature == null) {
+            return false;
+        }
+        try {
+            return Utils.verifyWebhookSignature(payload, signature, webhookSecret);
+        } catch (RazorpayException e) {
+            log.warn("Webhook signature verification error: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private GatewayOrder doCreateOrder(long amountInPaise, String currency, String receipt) {
+        JSONObject orderRequest = new JSONObject();
+        orderRequest.put("amount", amountInPaise);
+        orderRequest.put("currency", currency);
+        orderRequest.put("receipt", receipt);
+        try {
+            Order order = razorpayClient.orders.create(orderRequest);
+            Map<String, Object> details = new HashMap<>();
+            details.put("id", order.get("id"));
+            details.put("entity", order.get("entity"));
+            details.put("amount", order.get("amount"));
+            details.put("amount_paid", order.get("amount_paid"));
+            details.put("amount_due", order.get("amount_due"));
+            details.put("currency", order.get("currency"));
+            details.put("receipt", order.get("receipt"));
+            details.put("status", order.get("status"));
+            details.put("created_at", order.get("created_at"));
+            return new GatewayOrder(order.get("id"), details, order.toString());
+        } catch (RazorpayException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private static Throwable translate(Throwable e, CompletableFuture<GatewayOrder> completion) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof BaseException) {
+            return cause;
+        }
+        if (cause instanceof TimeoutException) {
+            return new OrderTimeoutException(completion);
+        }
+        if (cause instanceof CallNotPermittedException || cause instanceof RejectedExecutionException) {
+            return new BaseException(ErrorCode.PAYMENT_GATEWAY_UNAVAILABLE);
+        }
+        log.warn("Payment gateway call failed: {}", cause.getMessage());
+        return new BaseException(ErrorCode.EXTERNAL_SERVICE_ERROR,
+            "Payment gateway error: " + cause.getMessage(), cause);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+        timeoutScheduler.shutdownNow();
+    }
+}
@@ -3,30 +3,57 @@ package com.app.carpolling.service;
 import com.app.carpolling.dto.*;
 import com.app.carpolling.entity.Driver;
 import com.app.carpolling.entity.Route;
+import com.app.carpolling.entity.RouteCityPrice;
 import com.app.carpolling.entity.RoutePoint;
 import com.app.carpolling.entity.RoutePrice;
+import com.app.carpolling.event.RouteChangedEvent;
 import com.app.carpolling.exception.BaseException;
 import com.app.carpolling.exception.ErrorCode;
+import com.app.carpolling.repository.RouteCityPriceRepository;
 import com.app.carpolling.repository.RoutePointRepository;
 import com.app.carpolling.repository.RoutePriceRepository;
 import com.app.carpolling.repository.RouteRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class RouteService {
     
     private final RouteRepository routeRepository;
     private final RoutePointRepository routePointRepository;
     private final RoutePriceRepository routePriceRepository;
+    private final RouteCityPriceRepository routeCityPriceRepository;
     private final DriverService driverService;
+    private final LocationSearchIndex locationSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    // "point" stores one row per boarding/drop point pair (route_prices),
+    // "city" stores one row per city pair (route_city_prices) and resolves point pairs on read
+    @Value("${route.price.granularity:point}")
+    private String priceGranularity;
+    
+    @Value("${location.search.max-results:20}")
+    private int searchMaxResults;
+    
+    // "memory" serves location search from LocationSearchIndex,
+    // "trigram" queries PostgreSQL pg_trgm indexes (for very large location sets)
+    @Value("${location.search.mode:memory}")
+    private String searchMode;
     
     @Transactional
     public Route createRoute(RouteCreationRequest request) {
@@ -81,15 +108,21 @@ public class RouteService {
         routePointRepository.saveAll(routePoints);
         savedRoute.setRoutePoints(routePoints);
         
+        eventPublisher.publishEvent(new RouteChangedEvent(savedRoute.getId()));
+        
         return savedRoute;
     }
     
-    private void createPriceMatrix(Route route, List<RoutePoint> routePoints, List<RoutePriceDto> priceDtos) {
+    /**
+     * Expands city-pair prices into the point-pair cells of the price matrix,
+     * keyed by (boarding point, drop point).
+     */
+    private Map<PricePointKey, Double> buildPriceMatrix(List<RoutePoint> routePoints, List<RoutePriceDto> priceDtos) {
         // Create a map of city to list of route points for easy lookup
         Map<String, List<RoutePoint>> cityPointsMap = routePoints.stream()
             .collect(Collectors.groupingBy(RoutePoint::getCity));
         
-        List<RoutePrice> routePrices = new ArrayList<>();
+        Map<PricePointKey, Double> matrix = new HashMap<>();
         
         for (RoutePriceDto priceDto : priceDtos) {
             // Get all boarding points from boarding city
@@ -125,17 +158,179 @@ public class RouteService {
                             "Boarding point must come before drop point in route sequence");
                     }
                     
-                    RoutePrice routePrice = new RoutePrice();
-                    routePrice.setRoute(route);
-                    routePrice.setBoardingPoint(boardingPoint);
-                    routePrice.setDropPoint(dropPoint);
-                    routePrice.setPrice(priceDto.getPrice());
-                    routePrices.add(routePrice);
+                    matrix.put(new PricePointKey(boardingPoint.getId(), dropPoint.getId()), priceDto.getPrice());
+                }
+            }
+        }
+        
+        return matrix;
+    }
+    
+    /**
+     * Applies the difference between the stored matrix and the requested one:
+     * changed cells are updated in place, missing cells inserted in a single
+     * multi-row upsert and cells no longer priced removed in a single bulk
+     * delete. Untouched cells are not written.
+     */
+    private void applyPriceMatrix(Route route, Map<PricePointKey, Double> matrix) {
+        List<RoutePrice> existingPrices = routePriceRepository.findByRouteIdWithPoints(route.getId());
+        Map<PricePointKey, Double> remaining = new HashMap<>(matrix);
+        List<Long> staleIds = new ArrayList<>();
+        
+        for (RoutePrice existing : existingPrices) {
+            PricePointKey key = new PricePointKey(
+                existing.getBoardingPoint().getId(), existing.getDropPoint().getId());
+            Double price = remaining.remove(key);
+            if (price == null) {
+                staleIds.add(existing.getId());
+            } else if (!price.equals(existing.getPrice())) {
+                // Managed entity - flushed as a batched UPDATE on commit
+                existing.setPrice(price);
+            }
+        }
+        
+        if (!staleIds.isEmpty()) {
+            routePriceRepository.deleteByIdIn(staleIds);
+        }
+        
+        if (!remaining.isEmpty()) {
+            int size = remaining.size();
+            Long[] boardingPointIds = new Long[size];
+            Long[] dropPointIds = new Long[size];
+            Double[] prices = new Double[size];
+            int i = 0;
+            for (Map.Entry<PricePointKey, Double> entry : remaining.entrySet()) {
+                boardingPointIds[i] = entry.getKey().boardingPointId();
+                dropPointIds[i] = entry.getKey().dropPointId();
+                prices[i++] = entry.getValue();
+            }
+            routePriceRepository.upsertPrices(route.getId(), boardingPointIds, dropPointIds, prices,
+                LocalDateTime.now());
+        }
+        
+        log.debug("Route {} price matrix: {} inserted, {} deleted, {} cells requested",
+            route.getId(), remaining.size(), staleIds.size(), matrix.size());
+    }
+    
+    /**
+     * Validates city-pair prices against the route and keys them by
+     * (boarding city, drop city). Same rules as {@link #buildPriceMatrix},
+     * but checked once per city pair instead of once per point pair.
+     */
+    private Map<PriceCityKey, Double> buildCityPriceMatrix(List<RoutePoint> routePoints, List<RoutePriceDto> priceDtos) {
+        Map<String, List<RoutePoint>> cityPointsMap = routePoints.stream()
+            .collect(Collectors.groupingBy(RoutePoint::getCity));
+        
+        Map<PriceCityKey, Double> matrix = new HashMap<>();
+        
+        for (RoutePriceDto priceDto : priceDtos) {
+            List<RoutePoint> boardingCityPoints = cityPointsMap.get(priceDto.getBoardingCity());
+            if (boardingCityPoints == null || boardingCityPoints.isEmpty()) {
+                throw new BaseException(ErrorCode.BOARDING_POINT_NOT_FOUND, 
+                    "No boarding points found for city: " + priceDto.getBoardingCity());
+            }
+            
+            List<RoutePoint> dropCityPoints = cityPointsMap.get(priceDto.getDropCity());
+            if (dropCityPoints == null || dropCityPoints.isEmpty()) {
+                throw new BaseException(ErrorCode.DROP_POINT_NOT_FOUND, 
+                    "No drop points found for city: " + priceDto.getDropCity());
+            }
+            
+            // Every boarding point must come before every drop point
+            int lastBoarding = Integer.MIN_VALUE;
+            for (RoutePoint rp : boardingCityPoints) {
+                if (rp.getIsBoardingPoint()) {
+                    lastBoarding = Math.max(lastBoarding, rp.getSequenceOrder());
                 }
             }
+            int firstDrop = Integer.MAX_VALUE;
+            for (RoutePoint rp : dropCityPoints) {
+                if (rp.getIsDropPoint()) {
+                    firstDrop = Math.min(firstDrop, rp.getSequenceOrder());
+                }
+            }
+            
+            // No bookable combination in this city pair
+            if (lastBoarding == Integer.MIN_VALUE || firstDrop == Integer.MAX_VALUE) {
+                continue;
+            }
+            
+            if (lastBoarding >= firstDrop) {
+                throw new BaseException(ErrorCode.INVALID_ROUTE, 
+                    "Boarding point must come before drop point in route sequence");
+            }
+            
+            matrix.put(new PriceCityKey(priceDto.getBoardingCity(), priceDto.getDropCity()), priceDto.getPrice());
+        }
+        
+        return matrix;
+    }
+    
+    /**
+     * City-granularity counterpart of {@link #applyPriceMatrix}.
+     */
+    private void applyCityPriceMatrix(Route route, Map<PriceCityKey, Double> matrix) {
+        List<RouteCityPrice> existingPrices = routeCityPriceRepository.findByRouteId(route.getId());
+        Map<PriceCityKey, Double> remaining = new HashMap<>(matrix);
+        List<Long> staleIds = new ArrayList<>();
+        
+        for (RouteCityPrice existing : existingPrices) {
+            Double price = remaining.remove(new PriceCityKey(existing.getBoardingCity(), existing.getDropCity()));
+            if (price == null) {
+                staleIds.add(existing.getId());
+            } else if (!price.equals(existing.getPrice())) {
+                existing.setPrice(price);
+            }
+        }
+        
+        if (!staleIds.isEmpty()) {
+            routeCityPriceRepository.deleteByIdIn(staleIds);
+        }
+        
+        if (!remaining.isEmpty()) {
+            int size = remaining.size();
+            String[] boardingCities = new String[size];
+            String[] dropCities = new String[size];
+            Double[] prices = new Double[size];
+            int i = 0;
+            for (Map.Entry<PriceCityKey, Double> entry : remaining.entrySet()) {
+                boardingCities[i] = entry.getKey().boardingCity();
+                dropCities[i] = entry.getKey().dropCity();
+                prices[i++] = entry.getValue();
+            }
+            routeCityPriceRepository.upsertPrices(route.getId(), boardingCities, dropCities, prices,
+                LocalDateTime.now());
         }
         
-        routePriceRepository.saveAll(routePrices);
+        log.debug("Route {} city price matrix: {} inserted, {} deleted, {} pairs requested",
+            route.getId(), remaining.size(), staleIds.size(), matrix.size());
+    }
+    
+    private boolean isCityGranularity() {
+        return "city".equalsIgnoreCase(priceGranularity);
+    }
+    
+    private record PricePointKey(Long boardingPointId, Long dropPointId) {
+    }
+    
+    record PriceCityKey(String boardingCity, String dropCity) {
+    }
+    
+    @Transactional
+    public Route deactivateRoute(Long routeId) {
+        Route route = routeRepository.findWithPointsById(routeId)
+            .orElseThrow(() -> new BaseException(ErrorCode.ROUTE_NOT_FOUND));
+        route.setIsActive(false);
+        Route savedRoute = routeRepository.save(route);
+        
+        eventPublisher.publishEvent(new RouteChangedEvent(routeId));
+        
+        return savedRoute;
+    }
+    
+    @Transactional(readOnly = true)
+    public boolean isRouteOwnedBy(Long routeId, String phoneNumber) {
+        return routeRepository.existsByIdAndDriver_User_Phone(routeId, phoneNumber);
     }
     
     @Transactional(readOnly = true)
@@ -189,7 +384,11 @@ public class RouteService {
         if (searchTerm == null || searchTerm.trim().isEmpty()) {
             return routePointRepository.findAllBoardingPoints();
         }
-        return routePointRepository.searchBoardingPoints(searchTerm.trim());
+        if (isTrigramSearch()) {
+            return findPointsInOrder(
+                routePointRepository.searchBoardingPointIdsByTrigram(searchTerm.trim(), searchMaxResults));
+        }
+        return findPointsInOrder(locationSearchIndex.searchBoardingPointIds(searchTerm, searchMaxResults));
     }
     
     @Transactional(readOnly = true)
@@ -197,7 +396,11 @@ public class RouteService {
         if (searchTerm == null || searchTerm.trim().isEmpty()) {
             return routePointRepository.findAllDropPoints();
         }
-        return routePointRepository.searchDropPoints(searchTerm.trim());
+        if (isTrigramSearch()) {
+            return findPointsInOrder(
+                routePointRepository.searchDropPointIdsByTrigram(searchTerm.trim(), searchMaxResults));
+        }
+        return findPointsInOrder(locationSearchIndex.searchDropPointIds(searchTerm, searchMaxResults));
     }
     
     @Transactional(readOnly = true)
@@ -205,7 +408,60 @@ public class RouteService {
         if (searchTerm == null || searchTerm.trim().isEmpty()) {
             return routePointRepository.findAllDistinctCities();
         }
-        return routePointRepository.searchCities(searchTerm.trim());
+        if (isTrigramSearch()) {
+            return routePointRepository.searchCitiesByTrigram(searchTerm.trim(), searchMaxResults);
+        }
+        return locationSearchIndex.searchCities(searchTerm, searchMaxResults);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<LocationSuggestionDto> suggestBoardingLocations(String searchTerm) {
+        if (searchTerm == null || searchTerm.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (isTrigramSearch()) {
+            return toSuggestions(routePointRepository.searchBoardingLocationsByTrigram(searchTerm.trim(), searchMaxResults));
+        }
+        return locationSearchIndex.searchBoardingLocations(searchTerm, searchMaxResults);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<LocationSuggestionDto> suggestDropLocations(String searchTerm) {
+        if (searchTerm == null || searchTerm.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (isTrigramSearch()) {
+            return toSuggestions(routePointRepository.searchDropLocationsByTrigram(searchTerm.trim(), searchMaxResults));
+        }
+        return locationSearchIndex.searchDropLocations(searchTerm, searchMaxResults);
+    }
+    
+    private List<LocationSuggestionDto> toSuggestions(List<LocationMatchView> matches) {
+        return matches.stream()
+            .map(m -> new LocationSuggestionDto(
+                m.getCity(),
+                m.getSubLocation(),
+                m.getCity() + " - " + m.getSubLocation(),
+                m.getRouteCount()
+            ))
+            .collect(Collectors.toList());
+    }
+    
+    private boolean isTrigramSearch() {
+        return "trigram".equalsIgnoreCase(searchMode);
+    }
+    
+    // Loads points by primary key, keeping the ranking order of the search index
+    private List<RoutePoint> findPointsInOrder(List<Long> pointIds) {
+        if (pointIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, RoutePoint> pointsById = routePointRepository.findAllById(pointIds).stream()
+            .collect(Collectors.toMap(RoutePoint::getId, rp -> rp));
+        return pointIds.stream()
+            .map(pointsById::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
     }
     
     @Transactional(readOnly = true)
@@ -231,6 +487,31 @@ public class RouteService {
             .collect(Collectors.toList());
     }
     
+    /**
+     * Resolves the fixed per-seat price between two points of a route,
+     * from whichever matrix the configured granularity stores.
+     */
+    @Transactional(readOnly = true)
+    public Double getPrice(Long routeId, RoutePoint boardingPoint, RoutePoint dropPoint) {
+        if (isCityGranularity()) {
+            return routeCityPriceRepository.findByRouteAndCities(
+                routeId,
+                boardingPoint.getCity(),
+                dropPoint.getCity()
+            ).map(RouteCityPrice::getPrice)
+            .orElseThrow(() -> new BaseException(ErrorCode.PRICE_NOT_FOUND, 
+                "Price not configured for this boarding-drop combination"));
+        }
+        
+        return routePriceRepository.findByRouteAndPoints(
+            routeId,
+            boardingPoint.getId(),
+            dropPoint.getId()
+        ).map(RoutePrice::getPrice)
+        .orElseThrow(() -> new BaseException(ErrorCode.PRICE_NOT_FOUND, 
+            "Price not configured for this boarding-drop combination"));
+    }
+    
     @Transactional(readOnly = true)
     public List<Route> getRoutesByDriverId(Long driverId) {
         return routeRepository.findByDriverIdAndIsActiveTrue(driverId);
@@ -243,68 +524,65 @@ public class RouteService {
         
         List<RoutePoint> routePoints = routePointRepository.findByRouteIdOrderBySequenceOrderAsc(routeId);
         
-        // Group points by city
-        Map<String, List<RoutePoint>> cityPointsMap = routePoints.stream()
-            .collect(Collectors.groupingBy(RoutePoint::getCity));
-        
-        // Get all unique boarding cities
-        List<String> boardingCities = routePoints.stream()
-            .filter(RoutePoint::getIsBoardingPoint)
-            .map(RoutePoint::getCity)
-            .distinct()
-            .sorted()
-            .collect(Collectors.toList());
+        // Get existing prices
+        Map<PriceCityKey, Double> priceMap = new HashMap<>();
         
-        // Get all unique drop cities
-        List<String> dropCities = routePoints.stream()
-            .filter(RoutePoint::getIsDropPoint)
-            .map(RoutePoint::getCity)
-            .distinct()
-            .sorted()
-            .collect(Collectors.toList());
+        if (isCityGranularity()) {
+            for (RouteCityPrice rcp : routeCityPriceRepository.findByRouteId(routeId)) {
+                priceMap.put(new PriceCityKey(rcp.getBoardingCity(), rcp.getDropCity()), rcp.getPrice());
+            }
+        } else {
+            for (RoutePrice rp : routePriceRepository.findByRouteIdWithPoints(routeId)) {
+                priceMap.put(new PriceCityKey(rp.getBoardingPoint().getCity(), rp.getDropPoint().getCity()), rp.getPrice());
+            }
+        }
         
-        // Get existing prices
-        List<RoutePrice> existingPrices = routePriceRepository.findByRouteId(routeId);
-        Map<String, Double> priceMap = new java.util.HashMap<>();
+        return buildPriceCombinations(routePoints, priceMap);
+    }
+    
+    /**
+     * Builds every bookable (boarding city, drop city) combination in one pass
+     * over the route points. Distance and duration are measured between the
+     * first boarding point of the boarding city and the first drop point of
+     * the drop city. Cities are returned in alphabetical order.
+     */
+    static List<RoutePriceCombinationDto> buildPriceCombinations(List<RoutePoint> routePoints,
+                                                                 Map<PriceCityKey, Double> priceMap) {
+        // First boarding / drop point of each city, sorted by city name
+        TreeMap<String, RoutePoint> firstBoarding = new TreeMap<>();
+        TreeMap<String, RoutePoint> firstDrop = new TreeMap<>();
         
-        for (RoutePrice rp : existingPrices) {
-            String key = rp.getBoardingPoint().getCity() + "-" + rp.getDropPoint().getCity();
-            priceMap.put(key, rp.getPrice());
+        for (RoutePoint rp : routePoints) {
+            if (rp.getIsBoardingPoint()) {
+                firstBoarding.merge(rp.getCity(), rp, RouteService::earlierPoint);
+            }
+            if (rp.getIsDropPoint()) {
+                firstDrop.merge(rp.getCity(), rp, RouteService::earlierPoint);
+            }
         }
         
         // Generate all combinations
         List<RoutePriceCombinationDto> combinations = new ArrayList<>();
         
-        for (String boardingCity : boardingCities) {
-            for (String dropCity : dropCities) {
-                // Get first boarding point and first drop point for distance/time calculation
-                RoutePoint boardingPoint = cityPointsMap.get(boardingCity).stream()
-                    .filter(RoutePoint::getIsBoardingPoint)
-                    .min((p1, p2) -> p1.getSequenceOrder().compareTo(p2.getSequenceOrder()))
-                    .orElse(null);
-                
-                RoutePoint dropPoint = cityPointsMap.get(dropCity).stream()
-                    .filter(RoutePoint::getIsDropPoint)
-                    .min((p1, p2) -> p1.getSequenceOrder().compareTo(p2.getSequenceOrder()))
-                    .orElse(null);
+        for (Map.Entry<String, RoutePoint> boardingEntry : firstBoarding.entrySet()) {
+            RoutePoint boardingPoint = boardingEntry.getValue();
+            
+            for (Map.Entry<String, RoutePoint> dropEntry : firstDrop.entrySet()) {
+                RoutePoint dropPoint = dropEntry.getValue();
                 
-                if (boardingPoint != null && dropPoint != null && 
-                    boardingPoint.getSequenceOrder() < dropPoint.getSequenceOrder()) {
-                    
+                if (boardingPoint.getSequenceOrder() < dropPoint.getSequenceOrder()) {
                     int distance = dropPoint.getDistanceFromStart() - boardingPoint.getDistanceFromStart();
                     int duration = dropPoint.getTimeFromStart() - boardingPoint.getTimeFromStart();
                     
-                    String key = boardingCity + "-" + dropCity;
-                    Double price = priceMap.get(key);
+                    Double price = priceMap.get(new PriceCityKey(boardingEntry.getKey(), dropEntry.getKey()));
                     
-                    RoutePriceCombinationDto combo = new RoutePriceCombinationDto(
-                        boardingCity,
-                        dropCity,
+                    combinations.add(new RoutePriceCombinationDto(
+                        boardingEntry.getKey(),
+                        dropEntry.getKey(),
                         price, // null if not set
                         distance,
                         duration
-                    );
-                    combinations.add(combo);
+                    ));
                 }
             }
         }
@@ -312,6 +590,10 @@ public class RouteService {
         return combinations;
     }
     
+    private static RoutePoint earlierPoint(RoutePoint p1, RoutePoint p2) {
+        return p1.getSequenceOrder() <= p2.getSequenceOrder() ? p1 : p2;
+    }
+    
     @Transactional
     public void setRoutePrices(SetRoutePricesRequest request) {
         // Validate route exists
@@ -320,11 +602,12 @@ public class RouteService {
         List<RoutePoint> routePoints = routePointRepository.findByRouteIdOrderBySequenceOrderAsc(request.getRouteId());
         Route route = routePoints.get(0).getRoute();
         
-        // Delete existing prices for this route
-        routePriceRepository.deleteByRouteId(request.getRouteId());
-        
-        // Create new price matrix
-        createPriceMatrix(route, routePoints, request.getPrices());
+        // Only write the cells that differ from the stored matrix
+        if (isCityGranularity()) {
+            applyCityPriceMatrix(route, buildCityPriceMatrix(routePoints, request.getPrices()));
+        } else {
+            applyPriceMatrix(route, buildPriceMatrix(routePoints, request.getPrices()));
+        }
     }
 }
 
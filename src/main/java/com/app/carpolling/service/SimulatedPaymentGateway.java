@@ -0,0 +1,147 @@
+package com.app.carpolling.service;
+
+import com.app.carpolling.exception.BaseException;
+import com.app.carpolling.exception.ErrorCode;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for Razorpay, for running the booking -> pay -> confirm
+ * funnel without network access.
+ *
+ * Orders complete after a configurable latency (base plus random jitter) and
+ * fail at a configurable rate. Signatures use the same HMAC-SHA256 scheme as
+ * Razorpay with a local secret, and {@link #signPayment(String)} plays the
+ * part of the checkout form so load tests can produce valid callbacks.
+ */
+@Service
+@ConditionalOnProperty(name = "payment.gateway", havingValue = "simulator")
+@Slf4j
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final SecretKeySpec signingKey;
+    private final long latencyMs;
+    private final long jitterMs;
+    private final double failureRate;
+    private final ExecutorService executor;
+
+    public SimulatedPaymentGateway(
+        @Value("${payment.simulator.secret:simulator-secret}") String secret,
+        @Value("${payment.simulator.latency-ms:150}") long latencyMs,
+        @Value("${payment.simulator.jitter-ms:100}") long jitterMs,
+        @Value("${payment.simulator.failure-rate:0.0}") double failureRate,
+        @Value("${razorpay.executor.pool-size:8}") int poolSize
+    ) {
+        this.signingKey = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.failureRate = failureRate;
+        // Same pool size as the real gateway, so completions (and the DB write after them) behave alike
+        this.executor = Executors.newFixedThreadPool(poolSize);
+        log.warn("Payment gateway simulator is active (latency {}+{} ms, failure rate {})",
+            latencyMs, jitterMs, failureRate);
+    }
+
+    @Override
+    public String getPublicKey() {
+        return "sim_public_key";
+    }
+
+    @Override
+    public CompletableFuture<GatewayOrder> createOrder(long amountInPaise, String currency, String receipt) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = latencyMs + (jitterMs > 0 ? random.nextLong(jitterMs + 1) : 0);
+        boolean fail = random.nextDouble() < failureRate;
+
+        // The delayed executor waits on a timer, so simulated latency does not pin a thread
+        return CompletableFuture.supplyAsync(() -> {
+            if (fail) {
+                throw new BaseException(ErrorCode.EXTERNAL_SERVICE_ERROR, "Simulated payment gateway failure");
+            }
+            return newOrder(amountInPaise, currency, receipt);
+        }, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, executor));
+    }
+
+    @Override
+    public boolean verifySignature(String orderId, String paymentId, String signature) {
+        if (orderId == null || paymentId == null || signature == null) {
+            return false;
+        }
+        byte[] expected = sign(orderId + "|" + paymentId).getBytes(StandardCharsets.UTF_8);
+        return MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public boolean verifyWebhookSignature(String payload, String signature) {
+        if (payload == null || signature == null) {
+            return false;
+        }
+        byte[] expected = sign(payload).getBytes(StandardCharsets.UTF_8);
+        return MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Simulates the customer paying an order: returns a payment id and the
+     * signature the checkout form would hand back to the client.
+     */
+    public Map<String, String> signPayment(String orderId) {
+        String paymentId = "pay_sim_" + sequence.incrementAndGet();
+        Map<String, String> payment = new HashMap<>();
+        payment.put("razorpayOrderId", orderId);
+        payment.put("razorpayPaymentId", paymentId);
+        payment.put("razorpaySignature", sign(orderId + "|" + paymentId));
+        return payment;
+    }
+
+    private GatewayOrder newOrder(long amountInPaise, String currency, String receipt) {
+        String orderId = "order_sim_" + sequence.incrementAndGet();
+        Map<String, Object> details = new HashMap<>();
+        details.put("id", orderId);
+        details.put("entity", "order");
+        details.put("amount", amountInPaise);
+        details.put("amount_paid", 0);
+        details.put("amount_due", amountInPaise);
+        details.put("currency", currency);
+        details.put("receipt", receipt);
+        details.put("status", "created");
+        details.put("created_at", Instant.now().getEpochSecond());
+        return new GatewayOrder(orderId, details, "simulated:" + details);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private String sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(signingKey);
+            return HexFormat.of().formatHex(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 unavailable", e);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.app.carpolling.service;
 import com.app.carpolling.entity.InvalidatedToken;
 import com.app.carpolling.repository.InvalidatedTokenRepository;
 import com.app.carpolling.utils.JWTUtils;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -22,6 +23,7 @@ public class TokenBlacklistService {
      * Add a token to the blacklist
      * @param token JWT token to invalidate
      */
+    @Timed("carpool.token.invalidate")
     @Transactional
     public void invalidateToken(String token) {
         try {
@@ -59,6 +61,7 @@ public class TokenBlacklistService {
      * @param token JWT token to check
      * @return true if token is blacklisted, false otherwise
      */
+    @Timed(value = "carpool.token.blacklist.check", histogram = true)
     @Transactional(readOnly = true)
     public boolean isTokenBlacklisted(String token) {
         if (token == null || token.trim().isEmpty()) {
@@ -78,6 +81,7 @@ public class TokenBlacklistService {
      * Clean up expired tokens from blacklist
      * Called by scheduled job
      */
+    @Timed("carpool.token.cleanup")
     @Transactional
     public void cleanupExpiredTokens() {
         try {
@@ -8,9 +8,9 @@ import com.app.carpolling.entity.*;
 import com.app.carpolling.exception.BaseException;
 import com.app.carpolling.exception.ErrorCode;
 import com.app.carpolling.repository.RoutePointRepository;
-import com.app.carpolling.repository.RoutePriceRepository;
 import com.app.carpolling.repository.TripRepository;
 import com.app.carpolling.repository.TripSeatRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -28,7 +28,6 @@ public class TripService {
     private final TripRepository tripRepository;
     private final TripSeatRepository tripSeatRepository;
     private final RoutePointRepository routePointRepository;
-    private final RoutePriceRepository routePriceRepository;
     private final RouteService routeService;
     private final VehicleService vehicleService;
     private final DriverService driverService;
@@ -93,6 +92,7 @@ public class TripService {
         tripSeatRepository.saveAll(seats);
     }
     
+    @Timed(value = "carpool.trip.search", histogram = true)
     @Transactional(readOnly = true)
     public List<TripSearchResponse> searchTrips(TripSearchRequest request) {
         // Find routes that have both boarding and drop points
@@ -147,12 +147,7 @@ public class TripService {
             .orElseThrow(() -> new BaseException(ErrorCode.DROP_POINT_NOT_FOUND));
         
         // Get fixed price from route price matrix
-        RoutePrice routePrice = routePriceRepository.findByRouteAndPoints(
-            trip.getRoute().getId(),
-            boarding.getId(),
-            drop.getId()
-        ).orElseThrow(() -> new BaseException(ErrorCode.PRICE_NOT_FOUND, 
-            "Price not configured for this boarding-drop combination"));
+        Double price = routeService.getPrice(trip.getRoute().getId(), boarding, drop);
         
         double distance = (drop.getDistanceFromStart() - boarding.getDistanceFromStart()) / 1000.0;
         int duration = drop.getTimeFromStart() - boarding.getTimeFromStart();
@@ -173,7 +168,7 @@ public class TripService {
         response.setDepartureTime(trip.getDepartureTime());
         response.setArrivalTime(arrivalTime);
         response.setAvailableSeats(trip.getAvailableSeats());
-        response.setPrice(routePrice.getPrice()); // Fixed price per seat
+        response.setPrice(price); // Fixed price per seat
         response.setDistance(distance);
         response.setDuration(duration);
         response.setRouteName(trip.getRoute().getRouteName());
@@ -183,7 +178,7 @@ public class TripService {
     
     @Transactional(readOnly = true)
     public SeatAvailabilityResponse getSeatAvailability(Long tripId) {
-        Trip trip = tripRepository.findById(tripId)
+        Trip trip = tripRepository.findWithVehicleById(tripId)
             .orElseThrow(() -> new BaseException(ErrorCode.TRIP_NOT_FOUND));
         
         List<TripSeat> seats = tripSeatRepository.findByTripId(tripId);
@@ -211,6 +206,16 @@ public class TripService {
             .orElseThrow(() -> new BaseException(ErrorCode.TRIP_NOT_FOUND));
     }
     
+    /**
+     * Trip with its route, vehicle and driver (with the driver's user) fetched
+     * in the same query, for callers that return the trip in a response.
+     */
+    @Transactional(readOnly = true)
+    public Trip getTripWithDetailsById(Long tripId) {
+        return tripRepository.findWithDetailsById(tripId)
+            .orElseThrow(() -> new BaseException(ErrorCode.TRIP_NOT_FOUND));
+    }
+    
     @Transactional(readOnly = true)
     public List<Trip> getTripsByDriverId(Long driverId) {
         // Validate driver exists
@@ -239,12 +244,7 @@ public class TripService {
         }
         
         // Get price for this city combination
-        RoutePrice routePrice = routePriceRepository.findByRouteAndPoints(
-            routeId,
-            boardingPoints.get(0).getId(),
-            dropPoints.get(0).getId()
-        ).orElseThrow(() -> new BaseException(ErrorCode.PRICE_NOT_FOUND, 
-            "Price not configured for this route combination"));
+        Double pricePerSeat = routeService.getPrice(routeId, boardingPoints.get(0), dropPoints.get(0));
         
         // Convert to response DTOs
         List<com.app.carpolling.dto.RoutePointResponseDto> boardingPointDtos = boardingPoints.stream()
@@ -263,7 +263,7 @@ public class TripService {
         response.put("dropCity", dropCity);
         response.put("boardingPoints", boardingPointDtos);
         response.put("dropPoints", dropPointDtos);
-        response.put("pricePerSeat", routePrice.getPrice());
+        response.put("pricePerSeat", pricePerSeat);
         
         return response;
     }
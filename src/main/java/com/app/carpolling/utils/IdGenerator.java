@@ -0,0 +1,111 @@
+package com.app.carpolling.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates unique, time-ordered identifiers for booking references and
+ * payment transaction ids.
+ *
+ * Each id packs 41 bits of milliseconds since 2024-01-01, a 10 bit node id
+ * and a 12 bit per-millisecond sequence into a long, rendered as 13
+ * Crockford base32 characters after a prefix (e.g. "BK0A92KTWF80W00").
+ * Fixed width means string order matches generation order. Ids never repeat
+ * on a node: if the clock steps back the generator keeps counting in the last
+ * issued millisecond, and when a millisecond's sequence runs out it moves on
+ * to the next millisecond instead of waiting.
+ * Nodes must have distinct ids ({@code app.node-id}) to stay collision-free
+ * across instances.
+ */
+@Component
+public class IdGenerator {
+
+  private static final Logger logger = LoggerFactory.getLogger(IdGenerator.class);
+
+  private static final long EPOCH_MILLIS = 1704067200000L; // 2024-01-01T00:00:00Z
+  private static final int NODE_BITS = 10;
+  private static final int SEQUENCE_BITS = 12;
+  private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+  private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+  private static final int ENCODED_LENGTH = 13; // ceil(63 / 5)
+  private static final char[] CROCKFORD = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+  private final long nodeId;
+  // Last issued (timestamp << SEQUENCE_BITS | sequence), advanced with CAS
+  private final AtomicLong lastState = new AtomicLong();
+
+  public IdGenerator(@Value("${app.node-id:-1}") long configuredNodeId) {
+    if (configuredNodeId > MAX_NODE_ID) {
+      throw new IllegalArgumentException("app.node-id must be between 0 and " + MAX_NODE_ID);
+    }
+    this.nodeId = configuredNodeId >= 0 ? configuredNodeId : hostNodeId();
+    logger.info("Id generator using node id {}", nodeId);
+  }
+
+  public String nextBookingReference() {
+    return next("BK");
+  }
+
+  public String nextTransactionId() {
+    return next("TXN");
+  }
+
+  public String next(String prefix) {
+    return encode(prefix, nextId());
+  }
+
+  public long nextId() {
+    long state = nextState();
+    long timestamp = state >>> SEQUENCE_BITS;
+    long sequence = state & SEQUENCE_MASK;
+    return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+  }
+
+  private long nextState() {
+    while (true) {
+      long last = lastState.get();
+      long now = System.currentTimeMillis() - EPOCH_MILLIS;
+      long lastTimestamp = last >>> SEQUENCE_BITS;
+      long next;
+      if (now > lastTimestamp) {
+        next = now << SEQUENCE_BITS;
+      } else if ((last & SEQUENCE_MASK) < SEQUENCE_MASK) {
+        next = last + 1;
+      } else {
+        // Sequence exhausted: borrow the next millisecond
+        next = (lastTimestamp + 1) << SEQUENCE_BITS;
+      }
+      if (lastState.compareAndSet(last, next)) {
+        return next;
+      }
+    }
+  }
+
+  static String encode(String prefix, long id) {
+    int prefixLength = prefix.length();
+    char[] chars = new char[prefixLength + ENCODED_LENGTH];
+    prefix.getChars(0, prefixLength, chars, 0);
+    for (int i = chars.length - 1; i >= prefixLength; i--) {
+      chars[i] = CROCKFORD[(int) (id & 31)];
+      id >>>= 5;
+    }
+    return new String(chars);
+  }
+
+  // Fallback for single-node and dev setups; multi-node deployments should set app.node-id
+  private static long hostNodeId() {
+    String host;
+    try {
+      host = InetAddress.getLocalHost().getHostName();
+    } catch (UnknownHostException e) {
+      host = "localhost";
+    }
+    return (host.hashCode() ^ ProcessHandle.current().pid()) & MAX_NODE_ID;
+  }
+}
@@ -0,0 +1,146 @@
+package com.app.carpolling;
+
+import com.app.carpolling.entity.Booking;
+import com.app.carpolling.entity.BookingStatus;
+import com.app.carpolling.entity.Driver;
+import com.app.carpolling.entity.Route;
+import com.app.carpolling.entity.RoutePoint;
+import com.app.carpolling.entity.Trip;
+import com.app.carpolling.entity.TripSeat;
+import com.app.carpolling.entity.TripStatus;
+import com.app.carpolling.entity.User;
+import com.app.carpolling.entity.UserRole;
+import com.app.carpolling.entity.Vehicle;
+import com.app.carpolling.entity.VehicleType;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unsaved entities for the database-backed tests: a driver with a
+ * {@value #REGISTRATION_NUMBER} Toyota Innova on routes out of Bangalore.
+ * Each test persists the rows it needs its own way and sets only the fields
+ * it asserts on.
+ */
+public final class TestFixtures {
+
+	public static final String DRIVER_NAME = "Test Driver";
+	public static final String DRIVER_PHONE = "9000000001";
+	public static final String PASSENGER_PHONE = "9000000002";
+	public static final String REGISTRATION_NUMBER = "KA01AB1234";
+	public static final int PASSENGER_SEATS = 6;
+	public static final LocalDateTime DEPARTURE = LocalDateTime.of(2030, 1, 15, 8, 0);
+
+	private TestFixtures() {
+	}
+
+	public static User user(String name, String phone, UserRole role) {
+		User user = new User();
+		user.setName(name);
+		user.setPhone(phone);
+		user.setPassword("secret");
+		user.setRole(role);
+		return user;
+	}
+
+	public static User driverUser() {
+		return user(DRIVER_NAME, DRIVER_PHONE, UserRole.DRIVER);
+	}
+
+	public static User passenger() {
+		return user("Test Passenger", PASSENGER_PHONE, UserRole.PASSENGER);
+	}
+
+	public static Driver driver(User user) {
+		Driver driver = new Driver();
+		driver.setUser(user);
+		driver.setLicenseNumber("LIC-1");
+		driver.setLicenseExpiryDate("2030-01-01");
+		driver.setExperienceYears(5);
+		return driver;
+	}
+
+	public static Vehicle vehicle(Driver driver) {
+		Vehicle vehicle = new Vehicle();
+		vehicle.setDriver(driver);
+		vehicle.setRegistrationNumber(REGISTRATION_NUMBER);
+		vehicle.setBrand("Toyota");
+		vehicle.setModel("Innova");
+		vehicle.setColor("White");
+		vehicle.setManufacturingYear(2022);
+		vehicle.setVehicleType(VehicleType.SUV);
+		vehicle.setTotalSeats(PASSENGER_SEATS + 1);
+		vehicle.setPassengerSeats(PASSENGER_SEATS);
+		return vehicle;
+	}
+
+	public static Route route(Driver driver, String name) {
+		Route route = new Route();
+		route.setDriver(driver);
+		route.setRouteName(name);
+		route.setTotalDistance(350.0);
+		route.setEstimatedDuration(360);
+		return route;
+	}
+
+	public static RoutePoint point(Route route, String city, String subLocation, int sequenceOrder) {
+		RoutePoint point = new RoutePoint();
+		point.setRoute(route);
+		point.setCity(city);
+		point.setSubLocation(subLocation);
+		point.setPointName(city + " - " + subLocation);
+		point.setAddress(subLocation + ", " + city);
+		point.setLatitude(12.9);
+		point.setLongitude(77.6);
+		point.setSequenceOrder(sequenceOrder);
+		point.setDistanceFromStart((sequenceOrder - 1) * 350000);
+		point.setTimeFromStart((sequenceOrder - 1) * 360);
+		point.setIsBoardingPoint(true);
+		point.setIsDropPoint(true);
+		return point;
+	}
+
+	/**
+	 * A scheduled trip with every passenger seat free. Seats are listed in
+	 * {@link Trip#getTripSeats()} but saved only where the caller cascades them.
+	 */
+	public static Trip trip(Route route, Vehicle vehicle, LocalDateTime departure) {
+		Trip trip = new Trip();
+		trip.setRoute(route);
+		trip.setVehicle(vehicle);
+		trip.setDriver(vehicle.getDriver());
+		trip.setDepartureTime(departure);
+		trip.setEstimatedArrivalTime(departure.plusHours(6));
+		trip.setAvailableSeats(vehicle.getPassengerSeats());
+		trip.setBookedSeats(0);
+		trip.setStatus(TripStatus.SCHEDULED);
+		List<TripSeat> seats = new ArrayList<>();
+		// Same order TripService creates them in
+		for (int s = 1; s <= vehicle.getPassengerSeats(); s++) {
+			TripSeat seat = new TripSeat();
+			seat.setTrip(trip);
+			seat.setSeatNumber("S" + s);
+			seats.add(seat);
+		}
+		trip.setTripSeats(seats);
+		return trip;
+	}
+
+	public static Booking booking(String reference, User user, Trip trip, RoutePoint boarding, RoutePoint drop,
+								  String... seats) {
+		Booking booking = new Booking();
+		booking.setBookingReference(reference);
+		booking.setUser(user);
+		booking.setTrip(trip);
+		booking.setBoardingPoint(boarding);
+		booking.setDropPoint(drop);
+		booking.setNumberOfSeats(seats.length);
+		booking.setSeatNumbers(new ArrayList<>(List.of(seats)));
+		booking.setTotalAmount(1200.0);
+		booking.setDistance(350.0);
+		booking.setStatus(BookingStatus.PENDING);
+		booking.setExpiresAt(trip.getDepartureTime().minusDays(30));
+		return booking;
+	}
+}
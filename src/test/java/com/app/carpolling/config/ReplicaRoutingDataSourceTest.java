@@ -0,0 +1,137 @@
+package com.app.carpolling.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Routes between two independent embedded PostgreSQL instances, each of
+ * which answers with its own role, the same way two local databases can be
+ * used to try replica routing without setting up replication.
+ */
+class ReplicaRoutingDataSourceTest {
+
+	private static EmbeddedPostgres primary;
+	private static EmbeddedPostgres replica;
+
+	private final ReplicaLagMonitor lagMonitor = mock(ReplicaLagMonitor.class);
+	private final ReadYourWritesTracker readYourWritesTracker = new ReadYourWritesTracker(true, 60);
+
+	private JdbcTemplate jdbcTemplate;
+	private TransactionTemplate readWrite;
+	private TransactionTemplate readOnly;
+
+	@BeforeAll
+	static void startDatabases() throws IOException {
+		primary = EmbeddedPostgres.start();
+		replica = EmbeddedPostgres.start();
+		for (EmbeddedPostgres database : List.of(primary, replica)) {
+			JdbcTemplate jdbc = new JdbcTemplate(database.getPostgresDatabase());
+			jdbc.execute("CREATE TABLE db_role (name TEXT NOT NULL)");
+			jdbc.update("INSERT INTO db_role (name) VALUES (?)", database == primary ? "primary" : "replica");
+		}
+	}
+
+	@AfterAll
+	static void stopDatabases() throws IOException {
+		primary.close();
+		replica.close();
+	}
+
+	@BeforeEach
+	void setUp() {
+		DataSource dataSource = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(
+			primary.getPostgresDatabase(), replica.getPostgresDatabase(), lagMonitor, readYourWritesTracker,
+			new SimpleMeterRegistry()));
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		readWrite = new TransactionTemplate(transactionManager);
+		readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+		when(lagMonitor.isReplicaUsable()).thenReturn(true);
+	}
+
+	@AfterEach
+	void clearUser() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void readOnlyTransactionsUseTheReplica() {
+		assertThat(readOnly.execute(status -> role())).isEqualTo("replica");
+		assertThat(readWrite.execute(status -> role())).isEqualTo("primary");
+		assertThat(role()).isEqualTo("primary");
+	}
+
+	@Test
+	void readOnlyWorkJoiningAReadWriteTransactionStaysOnThePrimary() {
+		assertThat(readWrite.execute(status -> readOnly.execute(inner -> role()))).isEqualTo("primary");
+	}
+
+	@Test
+	void laggingReplicaFallsBackToThePrimary() {
+		when(lagMonitor.isReplicaUsable()).thenReturn(false);
+
+		assertThat(readOnly.execute(status -> role())).isEqualTo("primary");
+	}
+
+	@Test
+	void userWhoJustBookedReadsFromThePrimary() {
+		signIn("9000000001");
+		readWrite.executeWithoutResult(status -> readYourWritesTracker.recordWrite());
+
+		assertThat(readOnly.execute(status -> role())).isEqualTo("primary");
+
+		signIn("9000000002");
+		assertThat(readOnly.execute(status -> role())).isEqualTo("replica");
+	}
+
+	@Test
+	void rolledBackWriteDoesNotPinTheUser() {
+		signIn("9000000003");
+		readWrite.executeWithoutResult(status -> {
+			readYourWritesTracker.recordWrite();
+			status.setRollbackOnly();
+		});
+
+		assertThat(readOnly.execute(status -> role())).isEqualTo("replica");
+	}
+
+	@Test
+	void instanceOutsideRecoveryReportsNoLag() {
+		ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica.getPostgresDatabase(), 1000, 1000,
+			new SimpleMeterRegistry());
+
+		monitor.checkLag();
+
+		assertThat(monitor.getLagMillis()).isZero();
+		assertThat(monitor.isReplicaUsable()).isTrue();
+	}
+
+	private String role() {
+		return jdbcTemplate.queryForObject("SELECT name FROM db_role", String.class);
+	}
+
+	private static void signIn(String phone) {
+		SecurityContextHolder.getContext().setAuthentication(
+			new UsernamePasswordAuthenticationToken(phone, null, List.of()));
+	}
+}
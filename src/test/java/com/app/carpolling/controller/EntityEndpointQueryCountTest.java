@@ -0,0 +1,403 @@
+package com.app.carpolling.controller;
+
+import com.app.carpolling.TestFixtures;
+import com.app.carpolling.dto.BookingRequest;
+import com.app.carpolling.dto.CityRouteDto;
+import com.app.carpolling.dto.DriverRegistrationRequest;
+import com.app.carpolling.dto.PaymentCallbackRequest;
+import com.app.carpolling.dto.RouteCreationRequest;
+import com.app.carpolling.dto.StopPointDto;
+import com.app.carpolling.dto.TripCreationRequest;
+import com.app.carpolling.dto.VehicleRegistrationRequest;
+import com.app.carpolling.entity.Booking;
+import com.app.carpolling.entity.Driver;
+import com.app.carpolling.entity.Payment;
+import com.app.carpolling.entity.PaymentStatus;
+import com.app.carpolling.entity.Route;
+import com.app.carpolling.entity.RoutePoint;
+import com.app.carpolling.entity.RoutePrice;
+import com.app.carpolling.entity.Trip;
+import com.app.carpolling.entity.User;
+import com.app.carpolling.entity.Vehicle;
+import com.app.carpolling.entity.VehicleType;
+import com.app.carpolling.repository.BookingRepository;
+import com.app.carpolling.repository.DriverRepository;
+import com.app.carpolling.repository.PaymentRepository;
+import com.app.carpolling.repository.RoutePriceRepository;
+import com.app.carpolling.repository.RouteRepository;
+import com.app.carpolling.repository.TripRepository;
+import com.app.carpolling.repository.UserRepository;
+import com.app.carpolling.repository.VehicleRepository;
+import com.app.carpolling.service.SimulatedPaymentGateway;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.app.carpolling.TestFixtures.DEPARTURE;
+import static com.app.carpolling.TestFixtures.DRIVER_NAME;
+import static com.app.carpolling.TestFixtures.DRIVER_PHONE;
+import static com.app.carpolling.TestFixtures.PASSENGER_PHONE;
+import static com.app.carpolling.TestFixtures.REGISTRATION_NUMBER;
+import static com.app.carpolling.TestFixtures.booking;
+import static com.app.carpolling.TestFixtures.driverUser;
+import static com.app.carpolling.TestFixtures.passenger;
+import static com.app.carpolling.TestFixtures.point;
+import static com.app.carpolling.TestFixtures.route;
+import static com.app.carpolling.TestFixtures.trip;
+import static com.app.carpolling.TestFixtures.vehicle;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Calls the endpoints that return entities through the full MVC stack, with
+ * open-in-view off and {@code @QueryBudget}s enforced, so a lazy load during
+ * serialization fails the request instead of turning into an N+1.
+ *
+ * Mutations have no budget but must still return what they fetched: each
+ * test asserts on the fields past the first lazy association, which would
+ * otherwise be written as a bare id.
+ *
+ * Not transactional on purpose: a test transaction would keep the session
+ * open while the response is written.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@TestPropertySource(properties = {
+	"spring.jpa.hibernate.ddl-auto=create-drop",
+	"sql.query-count.enforce-budgets=true",
+	// Signs callbacks locally, see SimulatedPaymentGateway#signPayment
+	"payment.gateway=simulator"
+})
+@WithMockUser(username = DRIVER_PHONE)
+class EntityEndpointQueryCountTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private DriverRepository driverRepository;
+
+	@Autowired
+	private VehicleRepository vehicleRepository;
+
+	@Autowired
+	private RouteRepository routeRepository;
+
+	@Autowired
+	private TripRepository tripRepository;
+
+	@Autowired
+	private RoutePriceRepository routePriceRepository;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Autowired
+	private PaymentRepository paymentRepository;
+
+	@Autowired
+	private SimulatedPaymentGateway paymentGateway;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private User passenger;
+
+	private Driver driver;
+
+	private Vehicle vehicle;
+
+	private Route route;
+
+	private Trip trip;
+
+	@BeforeEach
+	void setUp() {
+		passenger = userRepository.save(passenger());
+		driver = driverRepository.save(TestFixtures.driver(userRepository.save(driverUser())));
+		vehicle = vehicleRepository.save(vehicle(driver));
+		route = route(driver, "Bangalore to Chennai");
+		route.setRoutePoints(new ArrayList<>(List.of(
+			point(route, "Bangalore", "Silk Board", 1),
+			point(route, "Chennai", "Guindy", 2))));
+		routeRepository.save(route);
+		for (int i = 0; i < 3; i++) {
+			Trip saved = tripRepository.save(trip(route, vehicle, DEPARTURE.plusHours(i)));
+			if (i == 0) {
+				trip = saved;
+			}
+		}
+		RoutePrice price = new RoutePrice();
+		price.setRoute(route);
+		price.setBoardingPoint(boarding());
+		price.setDropPoint(drop());
+		price.setPrice(1200.0);
+		routePriceRepository.save(price);
+	}
+
+	@AfterEach
+	void cleanUp() {
+		jdbcTemplate.execute("TRUNCATE payments, booking_seats, bookings, route_prices, trip_seats, trips, "
+			+ "route_points, routes, vehicles, drivers, users, outbox_events RESTART IDENTITY CASCADE");
+	}
+
+	@Test
+	void driverTripsAreWrittenFromTheFetchedGraph() throws Exception {
+		mockMvc.perform(get("/api/trips/driver/{driverId}", driver.getId()))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.data.length()").value(3))
+			.andExpect(jsonPath("$.data[0].route.routeName").value("Bangalore to Chennai"))
+			.andExpect(jsonPath("$.data[0].vehicle.registrationNumber").value(REGISTRATION_NUMBER))
+			.andExpect(jsonPath("$.data[0].driver.user.name").value(DRIVER_NAME))
+			// Not fetched, so left out rather than loaded per trip
+			.andExpect(jsonPath("$.data[0].tripSeats").doesNotExist());
+	}
+
+	@Test
+	void driverRoutesIncludeTheirPoints() throws Exception {
+		mockMvc.perform(get("/api/drivers/{driverId}/routes", driver.getId()))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.data[0].routePoints.length()").value(2))
+			.andExpect(jsonPath("$.data[0].driver.id").value(driver.getId()));
+	}
+
+	@Test
+	void driverIncludesItsUser() throws Exception {
+		mockMvc.perform(get("/api/drivers/{driverId}", driver.getId()))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.data.user.phone").value(DRIVER_PHONE));
+	}
+
+	@Test
+	void driverVehiclesIncludeTheDriversUser() throws Exception {
+		mockMvc.perform(get("/api/drivers/{driverId}/vehicles", driver.getId()))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.data[0].registrationNumber").value(REGISTRATION_NUMBER))
+			.andExpect(jsonPath("$.data[0].driver.user.phone").value(DRIVER_PHONE));
+	}
+
+	@Test
+	void registeredDriverIncludesItsUser() throws Exception {
+		DriverRegistrationRequest request = new DriverRegistrationRequest();
+		request.setUserId(passenger.getId());
+		request.setLicenseNumber("LIC-2");
+		request.setLicenseExpiryDate("2031-01-01");
+		request.setExperienceYears(2);
+
+		send(post("/api/drivers/register"), request)
+			.andExpect(status().isCreated())
+			.andExpect(jsonPath("$.data.user.phone").value(PASSENGER_PHONE));
+	}
+
+	@Test
+	void registeredVehicleIncludesItsDriver() throws Exception {
+		VehicleRegistrationRequest request = new VehicleRegistrationRequest();
+		request.setDriverId(driver.getId());
+		request.setRegistrationNumber("KA01CD5678");
+		request.setBrand("Maruti");
+		request.setModel("Ertiga");
+		request.setColor("Grey");
+		request.setManufacturingYear(2023);
+		request.setVehicleType(VehicleType.SUV);
+		request.setTotalSeats(7);
+
+		send(post("/api/drivers/vehicles"), request)
+			.andExpect(status().isCreated())
+			.andExpect(jsonPath("$.data.driver.user.name").value(DRIVER_NAME));
+	}
+
+	@Test
+	void createdRouteIncludesItsPointsAndDriver() throws Exception {
+		RouteCreationRequest request = new RouteCreationRequest();
+		request.setDriverId(driver.getId());
+		request.setRouteName("Bangalore to Mysore");
+		request.setTotalDistance(150000.0);
+		request.setEstimatedDuration(180);
+		request.setCities(List.of(city("Bangalore", 1, "Kengeri", 0), city("Mysore", 2, "Bus Stand", 150000)));
+
+		send(post("/api/drivers/routes"), request)
+			.andExpect(status().isCreated())
+			.andExpect(jsonPath("$.data.routePoints.length()").value(2))
+			.andExpect(jsonPath("$.data.driver.user.name").value(DRIVER_NAME));
+	}
+
+	@Test
+	void deactivatedRouteIncludesItsPoints() throws Exception {
+		// The ownership check compares the principal's name with the driver's phone, as JWTFilter sets it
+		mockMvc.perform(put("/api/drivers/routes/{routeId}/deactivate", route.getId())
+				.with(authentication(new UsernamePasswordAuthenticationToken(DRIVER_PHONE, null, List.of()))))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.data.isActive").value(false))
+			.andExpect(jsonPath("$.data.routePoints.length()").value(2))
+			.andExpect(jsonPath("$.data.driver.id").value(driver.getId()));
+	}
+
+	@Test
+	void createdTripIncludesItsRouteVehicleAndDriver() throws Exception {
+		TripCreationRequest request = new TripCreationRequest();
+		request.setRouteId(route.getId());
+		request.setVehicleId(vehicle.getId());
+		request.setDriverId(driver.getId());
+		request.setDepartureTime(DEPARTURE.plusDays(1));
+
+		send(post("/api/trips"), request)
+			.andExpect(status().isCreated())
+			.andExpect(jsonPath("$.data.route.routeName").value("Bangalore to Chennai"))
+			.andExpect(jsonPath("$.data.vehicle.registrationNumber").value(REGISTRATION_NUMBER))
+			.andExpect(jsonPath("$.data.driver.user.name").value(DRIVER_NAME));
+	}
+
+	@Test
+	void createdBookingIncludesItsTripAndPoints() throws Exception {
+		BookingRequest request = new BookingRequest();
+		request.setUserId(passenger.getId());
+		request.setTripId(trip.getId());
+		request.setBoardingCity("Bangalore");
+		request.setBoardingSubLocation("Silk Board");
+		request.setDropCity("Chennai");
+		request.setDropSubLocation("Guindy");
+		request.setSeatNumbers(List.of("S1", "S2"));
+
+		send(post("/api/bookings"), request)
+			.andExpect(status().isCreated())
+			.andExpect(jsonPath("$.data.user.phone").value(PASSENGER_PHONE))
+			.andExpect(jsonPath("$.data.boardingPoint.subLocation").value("Silk Board"))
+			.andExpect(jsonPath("$.data.dropPoint.subLocation").value("Guindy"))
+			.andExpect(jsonPath("$.data.seatNumbers.length()").value(2))
+			.andExpect(jsonPath("$.data.trip.vehicle.registrationNumber").value(REGISTRATION_NUMBER))
+			.andExpect(jsonPath("$.data.trip.driver.user.name").value(DRIVER_NAME));
+	}
+
+	@Test
+	void cancelledBookingIncludesItsTripAndPoints() throws Exception {
+		Booking booking = saveBooking();
+
+		mockMvc.perform(put("/api/bookings/{bookingId}/cancel", booking.getId()))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.data.status").value("CANCELLED"))
+			.andExpect(jsonPath("$.data.user.phone").value(PASSENGER_PHONE))
+			.andExpect(jsonPath("$.data.dropPoint.subLocation").value("Guindy"))
+			.andExpect(jsonPath("$.data.seatNumbers[0]").value("S1"))
+			.andExpect(jsonPath("$.data.trip.driver.user.name").value(DRIVER_NAME));
+	}
+
+	@Test
+	void paymentLookupsIncludeTheBooking() throws Exception {
+		Payment payment = savePayment(saveBooking());
+
+		for (MockHttpServletRequestBuilder request : List.of(
+			get("/api/payments/{paymentId}", payment.getId()),
+			get("/api/payments/booking/{bookingId}", payment.getBooking().getId()),
+			get("/api/payments/transaction/{transactionId}", payment.getTransactionId()))) {
+			mockMvc.perform(request)
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.data.booking.user.phone").value(PASSENGER_PHONE))
+				.andExpect(jsonPath("$.data.booking.boardingPoint.subLocation").value("Silk Board"))
+				.andExpect(jsonPath("$.data.booking.trip.vehicle.registrationNumber").value(REGISTRATION_NUMBER))
+				.andExpect(jsonPath("$.data.booking.trip.driver.user.name").value(DRIVER_NAME));
+		}
+	}
+
+	@Test
+	void paymentCallbackIncludesTheConfirmedBooking() throws Exception {
+		Payment payment = savePayment(saveBooking());
+		Map<String, String> signed = paymentGateway.signPayment(payment.getRazorpayOrderId());
+		PaymentCallbackRequest request = new PaymentCallbackRequest();
+		request.setPaymentId(payment.getId());
+		request.setRazorpayOrderId(signed.get("razorpayOrderId"));
+		request.setRazorpayPaymentId(signed.get("razorpayPaymentId"));
+		request.setRazorpaySignature(signed.get("razorpaySignature"));
+
+		send(post("/api/payments/payment-callback"), request)
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.data.status").value("SUCCESS"))
+			.andExpect(jsonPath("$.data.booking.status").value("CONFIRMED"))
+			.andExpect(jsonPath("$.data.booking.user.phone").value(PASSENGER_PHONE))
+			.andExpect(jsonPath("$.data.booking.trip.driver.user.name").value(DRIVER_NAME));
+	}
+
+	@Test
+	void adminMutationsReturnWhatTheyLoaded() throws Exception {
+		mockMvc.perform(put("/api/admin/users/{userId}/activate", passenger.getId()))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.data.phone").value(PASSENGER_PHONE));
+		mockMvc.perform(put("/api/admin/drivers/{driverId}/verify", driver.getId()))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.data.isVerified").value(true))
+			.andExpect(jsonPath("$.data.user.phone").value(DRIVER_PHONE));
+	}
+
+	private ResultActions send(MockHttpServletRequestBuilder request, Object body) throws Exception {
+		return mockMvc.perform(request
+			.contentType(MediaType.APPLICATION_JSON)
+			.content(objectMapper.writeValueAsString(body)));
+	}
+
+	private RoutePoint boarding() {
+		return route.getRoutePoints().get(0);
+	}
+
+	private RoutePoint drop() {
+		return route.getRoutePoints().get(1);
+	}
+
+	private Booking saveBooking() {
+		return bookingRepository.save(booking("BK-1", passenger, trip, boarding(), drop(), "S1"));
+	}
+
+	private Payment savePayment(Booking booking) {
+		Payment payment = new Payment();
+		payment.setTransactionId("TXN-1");
+		payment.setRazorpayOrderId("order_test_1");
+		payment.setBooking(booking);
+		payment.setAmount(booking.getTotalAmount());
+		payment.setStatus(PaymentStatus.PENDING);
+		return paymentRepository.save(payment);
+	}
+
+	private static CityRouteDto city(String name, int sequenceOrder, String subLocation, int distanceFromStart) {
+		StopPointDto stop = new StopPointDto();
+		stop.setSubLocation(subLocation);
+		stop.setAddress(subLocation + ", " + name);
+		stop.setLatitude(12.9);
+		stop.setLongitude(77.6);
+		stop.setDistanceFromStart(distanceFromStart);
+		stop.setTimeFromStart(distanceFromStart / 1000);
+
+		CityRouteDto city = new CityRouteDto();
+		city.setCity(name);
+		city.setSequenceOrder(sequenceOrder);
+		city.setPoints(List.of(stop));
+		city.setIsBoardingPoint(true);
+		city.setIsDropPoint(true);
+		return city;
+	}
+}
@@ -0,0 +1,86 @@
+package com.app.carpolling.filters;
+
+import com.app.carpolling.config.QueryCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QueryCountFilterTest {
+
+	private QueryCounter queryCounter;
+	private SimpleMeterRegistry meterRegistry;
+	private MockHttpServletRequest request;
+
+	@BeforeEach
+	void setUp() {
+		queryCounter = new QueryCounter();
+		meterRegistry = new SimpleMeterRegistry();
+		request = new MockHttpServletRequest("GET", "/api/bookings/user/42");
+		request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/bookings/user/{userId}");
+	}
+
+	@Test
+	void recordsStatementsPerRequestByRoute() throws Exception {
+		filter(false).doFilter(request, new MockHttpServletResponse(), chainIssuing(3));
+
+		DistributionSummary summary = meterRegistry.get("carpool.http.sql.statements")
+			.tag("uri", "/api/bookings/user/{userId}")
+			.summary();
+		assertThat(summary.count()).isEqualTo(1);
+		assertThat(summary.totalAmount()).isEqualTo(3);
+	}
+
+	@Test
+	void enforcedBudgetFailsRequestThatExceedsIt() {
+		request.setAttribute(QueryCountFilter.BUDGET_ATTRIBUTE, 2);
+
+		assertThatThrownBy(() -> filter(true).doFilter(request, new MockHttpServletResponse(), chainIssuing(3)))
+			.isInstanceOf(IllegalStateException.class)
+			.hasMessageContaining("over its budget of 2");
+	}
+
+	@Test
+	void nestedScopesAddToTheEnclosingScope() {
+		queryCounter.begin();
+		queryCounter.inspect("select 1");
+		queryCounter.begin();
+		queryCounter.inspect("select 2");
+		queryCounter.inspect("select 2");
+
+		QueryCounter.Result inner = queryCounter.end();
+		QueryCounter.Result outer = queryCounter.end();
+
+		assertThat(inner.statements()).isEqualTo(2);
+		assertThat(outer.statements()).isEqualTo(3);
+		assertThat(outer.mostRepeatedStatement()).isEqualTo("select 2");
+		assertThat(outer.mostRepeatedCount()).isEqualTo(2);
+		assertThat(queryCounter.currentCount()).isZero();
+	}
+
+	private QueryCountFilter filter(boolean enforceBudgets) {
+		return new QueryCountFilter(queryCounter, meterRegistry, 20, 5, enforceBudgets);
+	}
+
+	// Stands in for a handler that runs the given number of statements through Hibernate
+	private MockFilterChain chainIssuing(int statements) {
+		return new MockFilterChain(new HttpServlet() {
+			@Override
+			protected void service(HttpServletRequest req, HttpServletResponse resp) {
+				for (int i = 0; i < statements; i++) {
+					queryCounter.inspect("select * from bookings where id = ?");
+				}
+			}
+		});
+	}
+}
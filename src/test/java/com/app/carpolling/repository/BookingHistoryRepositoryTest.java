@@ -0,0 +1,151 @@
+package com.app.carpolling.repository;
+
+import com.app.carpolling.TestFixtures;
+import com.app.carpolling.dto.BookingHistoryView;
+import com.app.carpolling.entity.Booking;
+import com.app.carpolling.entity.BookingStatus;
+import com.app.carpolling.entity.Driver;
+import com.app.carpolling.entity.Route;
+import com.app.carpolling.entity.RoutePoint;
+import com.app.carpolling.entity.Trip;
+import com.app.carpolling.entity.User;
+import com.app.carpolling.entity.Vehicle;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.app.carpolling.TestFixtures.DEPARTURE;
+import static com.app.carpolling.TestFixtures.DRIVER_NAME;
+import static com.app.carpolling.TestFixtures.DRIVER_PHONE;
+import static com.app.carpolling.TestFixtures.REGISTRATION_NUMBER;
+import static com.app.carpolling.TestFixtures.driver;
+import static com.app.carpolling.TestFixtures.driverUser;
+import static com.app.carpolling.TestFixtures.passenger;
+import static com.app.carpolling.TestFixtures.point;
+import static com.app.carpolling.TestFixtures.route;
+import static com.app.carpolling.TestFixtures.trip;
+import static com.app.carpolling.TestFixtures.vehicle;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the booking history keyset query against an embedded PostgreSQL
+ * binary: the flattened projection, seat order, and paging by cursor.
+ */
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+class BookingHistoryRepositoryTest {
+
+	private static final LocalDateTime BOOKED = LocalDateTime.of(2029, 12, 1, 10, 0);
+	private static final LocalDateTime HISTORY_START = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private User passenger;
+	private Trip trip;
+	private RoutePoint boarding;
+	private RoutePoint drop;
+
+	@BeforeEach
+	void setUp() {
+		Driver driver = entityManager.persist(driver(entityManager.persist(driverUser())));
+		Vehicle vehicle = vehicle(driver);
+		// Enough seats for S2 and S10 to sort differently as text
+		vehicle.setTotalSeats(12);
+		vehicle.setPassengerSeats(11);
+		entityManager.persist(vehicle);
+		Route route = entityManager.persist(route(driver, "Bangalore to Chennai"));
+		boarding = entityManager.persist(point(route, "Bangalore", "Silk Board", 1));
+		drop = entityManager.persist(point(route, "Chennai", "Guindy", 2));
+		trip = entityManager.persist(trip(route, vehicle, DEPARTURE));
+		passenger = entityManager.persist(passenger());
+	}
+
+	@Test
+	void mapsEveryColumnAndKeepsTripSeatOrder() {
+		Booking booking = booking("BK-HIST-1", BOOKED, "S10", "S2");
+		entityManager.flush();
+
+		List<BookingHistoryView> rows = bookingRepository.findHistoryPage(
+			passenger.getId(), HISTORY_START, Long.MAX_VALUE, 10);
+
+		assertThat(rows).hasSize(1);
+		BookingHistoryView row = rows.get(0);
+		assertThat(row.getBookingId()).isEqualTo(booking.getId());
+		assertThat(row.getBookingReference()).isEqualTo("BK-HIST-1");
+		assertThat(row.getTripId()).isEqualTo(trip.getId());
+		assertThat(row.getBoardingPoint()).isEqualTo(boarding.getPointName());
+		assertThat(row.getDropPoint()).isEqualTo(drop.getPointName());
+		assertThat(row.getDepartureTime()).isEqualTo(DEPARTURE);
+		assertThat(row.getSeatNumbers()).containsExactly("S2", "S10");
+		assertThat(row.getTotalAmount()).isEqualTo(1200.0);
+		assertThat(row.getStatus()).isEqualTo(BookingStatus.CONFIRMED.name());
+		assertThat(row.getDriverName()).isEqualTo(DRIVER_NAME);
+		assertThat(row.getDriverPhone()).isEqualTo(DRIVER_PHONE);
+		assertThat(row.getVehicleBrand()).isEqualTo("Toyota");
+		assertThat(row.getVehicleModel()).isEqualTo("Innova");
+		assertThat(row.getVehicleColor()).isEqualTo("White");
+		assertThat(row.getRegistrationNumber()).isEqualTo(REGISTRATION_NUMBER);
+		assertThat(row.getBookedAt()).isEqualTo(BOOKED);
+	}
+
+	@Test
+	void pagesNewestFirstFromTheCursor() {
+		Booking oldest = booking("BK-HIST-1", BOOKED, "S1");
+		// Same timestamp: the id breaks the tie
+		Booking tiedLower = booking("BK-HIST-2", BOOKED.plusHours(1), "S2");
+		Booking tiedHigher = booking("BK-HIST-3", BOOKED.plusHours(1), "S3");
+		Booking newest = booking("BK-HIST-4", BOOKED.plusHours(2), "S4");
+		entityManager.flush();
+
+		List<BookingHistoryView> first = bookingRepository.findHistoryPage(
+			passenger.getId(), HISTORY_START, Long.MAX_VALUE, 2);
+		BookingHistoryView last = first.get(first.size() - 1);
+		List<BookingHistoryView> second = bookingRepository.findHistoryPage(
+			passenger.getId(), last.getBookedAt(), last.getBookingId(), 2);
+		BookingHistoryView end = second.get(second.size() - 1);
+		List<BookingHistoryView> third = bookingRepository.findHistoryPage(
+			passenger.getId(), end.getBookedAt(), end.getBookingId(), 2);
+
+		assertThat(first).extracting(BookingHistoryView::getBookingId)
+			.containsExactly(newest.getId(), tiedHigher.getId());
+		assertThat(second).extracting(BookingHistoryView::getBookingId)
+			.containsExactly(tiedLower.getId(), oldest.getId());
+		assertThat(third).isEmpty();
+	}
+
+	@Test
+	void leavesOutOtherUsersBookings() {
+		booking("BK-HIST-1", BOOKED, "S1");
+		entityManager.flush();
+
+		assertThat(bookingRepository.findHistoryPage(
+			passenger.getId() + 1000, HISTORY_START, Long.MAX_VALUE, 10)).isEmpty();
+	}
+
+	private Booking booking(String reference, LocalDateTime bookedAt, String... seats) {
+		Booking booking = TestFixtures.booking(reference, passenger, trip, boarding, drop, seats);
+		booking.setStatus(BookingStatus.CONFIRMED);
+		entityManager.persistAndFlush(booking);
+		// createdAt is set by Hibernate on insert; pin it so the order is deterministic
+		jdbcTemplate.update("UPDATE bookings SET created_at = ? WHERE id = ?", bookedAt, booking.getId());
+		return booking;
+	}
+}
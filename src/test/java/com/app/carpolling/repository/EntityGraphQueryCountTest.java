@@ -0,0 +1,162 @@
+package com.app.carpolling.repository;
+
+import com.app.carpolling.config.QueryCountConfig;
+import com.app.carpolling.config.QueryCounter;
+import com.app.carpolling.entity.Booking;
+import com.app.carpolling.entity.BookingStatus;
+import com.app.carpolling.entity.Driver;
+import com.app.carpolling.entity.Route;
+import com.app.carpolling.entity.RoutePoint;
+import com.app.carpolling.entity.Trip;
+import com.app.carpolling.entity.User;
+import com.app.carpolling.entity.Vehicle;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static com.app.carpolling.TestFixtures.DEPARTURE;
+import static com.app.carpolling.TestFixtures.booking;
+import static com.app.carpolling.TestFixtures.driver;
+import static com.app.carpolling.TestFixtures.driverUser;
+import static com.app.carpolling.TestFixtures.passenger;
+import static com.app.carpolling.TestFixtures.point;
+import static com.app.carpolling.TestFixtures.route;
+import static com.app.carpolling.TestFixtures.trip;
+import static com.app.carpolling.TestFixtures.vehicle;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the statement count of the repository calls behind each endpoint
+ * now that associations are lazy: every read below, including the fields the
+ * endpoint maps afterwards, must stay a single statement. A failure here
+ * usually means an entity graph lost a node or a new lazy field is read.
+ */
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@Import({QueryCounter.class, QueryCountConfig.class})
+class EntityGraphQueryCountTest {
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private QueryCounter queryCounter;
+
+	@Autowired
+	private TripRepository tripRepository;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	private Driver driver;
+	private Route route;
+	private final List<Trip> trips = new ArrayList<>();
+	private final List<Booking> bookings = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		driver = entityManager.persist(driver(entityManager.persist(driverUser())));
+		Vehicle vehicle = entityManager.persist(vehicle(driver));
+		route = entityManager.persist(route(driver, "Bangalore to Chennai"));
+		RoutePoint boarding = entityManager.persist(point(route, "Bangalore", "Silk Board", 1));
+		RoutePoint drop = entityManager.persist(point(route, "Chennai", "Guindy", 2));
+
+		User passenger = entityManager.persist(passenger());
+		for (int i = 0; i < 3; i++) {
+			Trip trip = trip(route, vehicle, DEPARTURE.plusHours(i));
+			// Seat rows play no part in these reads
+			trip.setTripSeats(null);
+			trips.add(entityManager.persist(trip));
+			bookings.add(entityManager.persist(booking("BK-TEST-" + i, passenger, trip, boarding, drop, "S1", "S2")));
+		}
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void tripForBookingReadsDetailsInOneStatement() {
+		// Booking creation returns the booking with its trip's route, vehicle and driver
+		counted(1, () -> {
+			Trip trip = tripRepository.findWithDetailsById(trips.get(0).getId()).orElseThrow();
+			return trip.getRoute().getRouteName() + trip.getVehicle().getBrand() + trip.getDriver().getUser().getName();
+		});
+	}
+
+	@Test
+	void tripSearchReadsDetailsInOneStatement() {
+		counted(1, () -> tripRepository.findAvailableTrips(
+			List.of(route.getId()), DEPARTURE.minusDays(1), DEPARTURE.plusDays(1)).stream()
+			.map(trip -> trip.getRoute().getRouteName() + trip.getVehicle().getBrand()
+				+ trip.getDriver().getRating() + trip.getDriver().getUser().getName())
+			.toList());
+	}
+
+	@Test
+	void driverTripsReadDetailsInOneStatement() {
+		counted(1, () -> tripRepository.findByDriverIdOrderByDepartureTimeDesc(driver.getId()).stream()
+			.map(trip -> trip.getRoute().getRouteName() + trip.getVehicle().getModel()
+				+ trip.getDriver().getUser().getPhone())
+			.toList());
+	}
+
+	@Test
+	void seatAvailabilityReadsVehicleInOneStatement() {
+		counted(1, () -> tripRepository.findWithVehicleById(trips.get(0).getId()).orElseThrow()
+			.getVehicle().getTotalSeats());
+	}
+
+	@Test
+	void bookingByReferenceReadsResponseFieldsInOneStatement() {
+		counted(1, () -> {
+			Booking booking = bookingRepository.findByBookingReference("BK-TEST-1").orElseThrow();
+			return List.of(booking.getBoardingPoint().getPointName(), booking.getDropPoint().getPointName(),
+				booking.getTrip().getVehicle().getRegistrationNumber(),
+				booking.getTrip().getDriver().getUser().getName(), String.join(",", booking.getSeatNumbers()));
+		});
+	}
+
+	@Test
+	void expiredBookingsReadSeatsAndTripInOneStatement() {
+		counted(1, () -> bookingRepository.findByStatusAndExpiresAtBefore(BookingStatus.PENDING, DEPARTURE)
+			.stream()
+			.map(booking -> booking.getSeatNumbers().size() + booking.getTrip().getAvailableSeats())
+			.toList());
+	}
+
+	@Test
+	void bookingForCancelReadsDetailsInOneStatement() {
+		counted(1, () -> {
+			Booking booking = bookingRepository.findWithDetailsById(bookings.get(2).getId()).orElseThrow();
+			return booking.getUser().getName() + booking.getSeatNumbers().size() + booking.getTrip().getBookedSeats()
+				+ booking.getTrip().getVehicle().getBrand() + booking.getTrip().getDriver().getUser().getPhone()
+				+ booking.getBoardingPoint().getCity() + booking.getDropPoint().getCity();
+		});
+	}
+
+	private <T> T counted(int expectedStatements, Supplier<T> action) {
+		queryCounter.begin();
+		T result;
+		QueryCounter.Result counted;
+		try {
+			result = action.get();
+		} finally {
+			counted = queryCounter.end();
+		}
+		assertThat(counted.statements())
+			.as("statements issued; most repeated: %s", counted.mostRepeatedStatement())
+			.isEqualTo(expectedStatements);
+		return result;
+	}
+}
@@ -0,0 +1,111 @@
+package com.app.carpolling.repository;
+
+import com.app.carpolling.TestFixtures;
+import com.app.carpolling.dto.LocationMatchView;
+import com.app.carpolling.entity.Driver;
+import com.app.carpolling.entity.Route;
+import com.app.carpolling.entity.RoutePoint;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static com.app.carpolling.TestFixtures.driver;
+import static com.app.carpolling.TestFixtures.driverUser;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the pg_trgm search queries against an embedded PostgreSQL binary
+ * (no Docker / Testcontainers needed).
+ */
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+class RoutePointRepositoryTrigramTest {
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private RoutePointRepository routePointRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Driver driver;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+
+		driver = entityManager.persist(driver(entityManager.persist(driverUser())));
+	}
+
+	@Test
+	void returnsOneRowPerLocationWithActiveRouteCount() {
+		Route first = route("Bangalore to Chennai", true);
+		Route second = route("Bangalore to Vellore", true);
+		point(first, "Bangalore", "Silk Board", 1);
+		point(first, "Chennai", "Guindy", 2);
+		point(second, "Bangalore", "Silk Board", 1);
+		point(second, "Vellore", "Katpadi", 2);
+		entityManager.flush();
+
+		List<LocationMatchView> matches = routePointRepository.searchBoardingLocationsByTrigram("silk", 10);
+
+		assertThat(matches).hasSize(1);
+		assertThat(matches.get(0).getCity()).isEqualTo("Bangalore");
+		assertThat(matches.get(0).getSubLocation()).isEqualTo("Silk Board");
+		assertThat(matches.get(0).getRouteCount()).isEqualTo(2L);
+	}
+
+	@Test
+	void toleratesTyposAndIgnoresInactiveRoutes() {
+		Route active = route("Bangalore to Chennai", true);
+		Route inactive = route("Bangalore to Chengalpattu", false);
+		point(active, "Bangalore", "Silk Board", 1);
+		point(active, "Chennai", "Guindy", 2);
+		point(inactive, "Bangalore", "Hebbal", 1);
+		point(inactive, "Chengalpattu", "Bus Stand", 2);
+		entityManager.flush();
+
+		assertThat(routePointRepository.searchCitiesByTrigram("Chenai", 10)).containsExactly("Chennai");
+		assertThat(routePointRepository.searchDropLocationsByTrigram("hebbal", 10)).isEmpty();
+	}
+
+	@Test
+	void returnsPointIdsOfActiveRoutesGroupedByLocation() {
+		Route first = route("Bangalore to Chennai", true);
+		Route second = route("Bangalore to Vellore", true);
+		Route inactive = route("Bangalore to Mysore", false);
+		RoutePoint firstSilkBoard = point(first, "Bangalore", "Silk Board", 1);
+		point(first, "Chennai", "Guindy", 2);
+		RoutePoint secondSilkBoard = point(second, "Bangalore", "Silk Board", 1);
+		point(second, "Vellore", "Katpadi", 2);
+		point(inactive, "Bangalore", "Silk Board", 1);
+		point(inactive, "Mysore", "Palace", 2);
+		entityManager.flush();
+
+		assertThat(routePointRepository.searchBoardingPointIdsByTrigram("silk", 10))
+			.containsExactly(firstSilkBoard.getId(), secondSilkBoard.getId());
+		assertThat(routePointRepository.searchDropPointIdsByTrigram("palace", 10)).isEmpty();
+	}
+
+	private Route route(String name, boolean active) {
+		Route route = TestFixtures.route(driver, name);
+		route.setIsActive(active);
+		return entityManager.persist(route);
+	}
+
+	private RoutePoint point(Route route, String city, String subLocation, int sequenceOrder) {
+		return entityManager.persist(TestFixtures.point(route, city, subLocation, sequenceOrder));
+	}
+}
@@ -0,0 +1,188 @@
+package com.app.carpolling.service;
+
+import com.app.carpolling.dto.PaymentCallbackRequest;
+import com.app.carpolling.dto.PaymentOrderResponse;
+import com.app.carpolling.dto.PaymentRequest;
+import com.app.carpolling.entity.Booking;
+import com.app.carpolling.entity.BookingStatus;
+import com.app.carpolling.entity.OutboxEventType;
+import com.app.carpolling.entity.Payment;
+import com.app.carpolling.entity.PaymentStatus;
+import com.app.carpolling.exception.BaseException;
+import com.app.carpolling.exception.ErrorCode;
+import com.app.carpolling.repository.PaymentRepository;
+import com.app.carpolling.utils.IdGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentServiceTest {
+
+	@Mock
+	private PaymentRepository paymentRepository;
+
+	@Mock
+	private BookingService bookingService;
+
+	@Mock
+	private PaymentGateway paymentGateway;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@Mock
+	private OutboxService outboxService;
+
+	private PaymentService paymentService;
+
+	private final AtomicReference<Payment> stored = new AtomicReference<>();
+
+	@BeforeEach
+	void setUp() {
+		paymentService = new PaymentService(paymentRepository, bookingService, paymentGateway,
+				new TransactionTemplate(transactionManager), new IdempotencyCache(300), outboxService, new IdGenerator(1));
+
+		Booking booking = new Booking();
+		booking.setId(1L);
+		booking.setStatus(BookingStatus.PENDING);
+		booking.setTotalAmount(250.0);
+		// Only the createOrder tests go through reservation
+		lenient().when(bookingService.getBookingById(1L)).thenReturn(booking);
+		lenient().when(paymentRepository.findByBookingId(1L)).thenReturn(Optional.empty());
+		lenient().when(paymentRepository.save(any(Payment.class))).thenAnswer(invocation -> {
+			Payment payment = invocation.getArgument(0);
+			payment.setId(10L);
+			stored.set(payment);
+			return payment;
+		});
+	}
+
+	@Test
+	void createOrderStoresGatewayOrderAfterReservation() {
+		when(paymentGateway.createOrder(eq(25000L), eq("INR"), anyString())).thenReturn(
+				CompletableFuture.completedFuture(
+						new PaymentGateway.GatewayOrder("order_1", Map.of("id", "order_1"), "{}")));
+		when(paymentRepository.findById(10L)).thenAnswer(invocation -> Optional.of(stored.get()));
+
+		PaymentOrderResponse response = paymentService.createOrder(new PaymentRequest(1L)).join();
+
+		assertThat(response.getPaymentId()).isEqualTo(10L);
+		assertThat(response.getOrder()).containsEntry("id", "order_1");
+		assertThat(stored.get().getStatus()).isEqualTo(PaymentStatus.PENDING);
+		assertThat(stored.get().getRazorpayOrderId()).isEqualTo("order_1");
+	}
+
+	@Test
+	void createOrderReleasesReservationWhenGatewayFails() {
+		when(paymentGateway.createOrder(anyLong(), anyString(), anyString())).thenReturn(
+				CompletableFuture.failedFuture(new BaseException(ErrorCode.EXTERNAL_SERVICE_ERROR)));
+		when(paymentRepository.findById(10L)).thenAnswer(invocation -> Optional.of(stored.get()));
+
+		CompletableFuture<PaymentOrderResponse> result = paymentService.createOrder(new PaymentRequest(1L));
+
+		assertThatThrownBy(result::join)
+				.isInstanceOf(CompletionException.class)
+				.hasCauseInstanceOf(BaseException.class);
+		verify(paymentRepository).delete(stored.get());
+	}
+
+	@Test
+	void createOrderKeepsReservationUntilTimedOutCallFinishes() {
+		CompletableFuture<PaymentGateway.GatewayOrder> inFlight = new CompletableFuture<>();
+		when(paymentGateway.createOrder(anyLong(), anyString(), anyString())).thenReturn(
+				CompletableFuture.failedFuture(new PaymentGateway.OrderTimeoutException(inFlight)));
+		when(paymentRepository.findById(10L)).thenAnswer(invocation -> Optional.of(stored.get()));
+
+		CompletableFuture<PaymentOrderResponse> result = paymentService.createOrder(new PaymentRequest(1L));
+
+		assertThatThrownBy(result::join).hasCauseInstanceOf(PaymentGateway.OrderTimeoutException.class);
+		verify(paymentRepository, never()).delete(any(Payment.class));
+
+		inFlight.complete(new PaymentGateway.GatewayOrder("order_late", Map.of("id", "order_late"), "{}"));
+
+		assertThat(stored.get().getRazorpayOrderId()).isEqualTo("order_late");
+		assertThat(stored.get().getStatus()).isEqualTo(PaymentStatus.PENDING);
+		verify(paymentRepository, never()).delete(any(Payment.class));
+	}
+
+	@Test
+	void repeatedCallbackConfirmsBookingOnce() {
+		Payment payment = pendingPayment();
+		when(paymentRepository.findWithBookingById(10L)).thenAnswer(invocation -> Optional.of(payment));
+		when(paymentGateway.verifySignature("order_1", "pay_1", "sig")).thenReturn(true);
+		when(paymentRepository.markSucceeded(eq(10L), eq("pay_1"), any())).thenAnswer(invocation -> {
+			payment.setStatus(PaymentStatus.SUCCESS);
+			return 1;
+		});
+		when(bookingService.confirmBooking(1L)).thenReturn(true);
+		PaymentCallbackRequest callback = new PaymentCallbackRequest("order_1", "pay_1", "sig", 10L);
+
+		Payment first = paymentService.verifyPayment(callback, null);
+		Payment retried = paymentService.verifyPayment(callback, null);
+
+		assertThat(first.getStatus()).isEqualTo(PaymentStatus.SUCCESS);
+		assertThat(retried).isSameAs(first);
+		verify(paymentGateway, times(1)).verifySignature(anyString(), anyString(), anyString());
+		verify(bookingService, times(1)).confirmBooking(1L);
+	}
+
+	@Test
+	void callbackLosingTheStatusRaceDoesNotConfirmBooking() {
+		Payment payment = pendingPayment();
+		when(paymentRepository.findWithBookingById(10L)).thenAnswer(invocation -> Optional.of(payment));
+		when(paymentGateway.verifySignature("order_1", "pay_1", "sig")).thenReturn(true);
+		when(paymentRepository.markSucceeded(eq(10L), eq("pay_1"), any())).thenReturn(0);
+
+		paymentService.verifyPayment(new PaymentCallbackRequest("order_1", "pay_1", "sig", 10L), "retry-1");
+
+		verify(bookingService, never()).confirmBooking(anyLong());
+	}
+
+	@Test
+	void captureAfterBookingExpiredFlagsPaymentForRefund() {
+		when(paymentRepository.findByRazorpayOrderId("order_1")).thenReturn(Optional.of(pendingPayment()));
+		when(paymentRepository.markSucceeded(eq(10L), eq("pay_1"), any())).thenReturn(1);
+		// The expiry job cancelled the booking first
+		when(bookingService.confirmBooking(1L)).thenReturn(false);
+
+		boolean applied = paymentService.applyCapturedPayment("order_1", "pay_1");
+
+		assertThat(applied).isTrue();
+		verify(paymentRepository).markRefundPending(eq(10L), anyString(), any());
+		verify(outboxService).record(eq(OutboxEventType.PAYMENT_REFUND_REQUIRED), eq(10L), any());
+	}
+
+	private Payment pendingPayment() {
+		Booking booking = new Booking();
+		booking.setId(1L);
+		Payment payment = new Payment();
+		payment.setId(10L);
+		payment.setBooking(booking);
+		payment.setRazorpayOrderId("order_1");
+		payment.setStatus(PaymentStatus.PENDING);
+		return payment;
+	}
+}
@@ -0,0 +1,82 @@
+package com.app.carpolling.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdGeneratorTest {
+
+	@Test
+	void referencesAreFixedWidthCrockfordAndOrdered() {
+		IdGenerator generator = new IdGenerator(7);
+		String previous = generator.nextBookingReference();
+		for (int i = 0; i < 10_000; i++) {
+			String next = generator.nextBookingReference();
+			assertThat(next).matches("BK[0-9A-HJKMNP-TV-Z]{13}");
+			assertThat(next).isGreaterThan(previous);
+			previous = next;
+		}
+		assertThat(generator.nextTransactionId()).matches("TXN[0-9A-HJKMNP-TV-Z]{13}");
+	}
+
+	@Test
+	void encodesNodeIdIntoTheId() {
+		long id = new IdGenerator(1023).nextId();
+		assertThat((id >>> 12) & 1023).isEqualTo(1023);
+		assertThat(IdGenerator.encode("BK", 0)).isEqualTo("BK0000000000000");
+	}
+
+	@Test
+	void idsAreUniqueAcrossThreads() throws InterruptedException {
+		IdGenerator generator = new IdGenerator(3);
+		int threads = 8;
+		int perThread = 250_000;
+		Set<Long> ids = ConcurrentHashMap.newKeySet(threads * perThread);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> workers = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			Thread worker = new Thread(() -> {
+				long[] local = new long[perThread];
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				for (int i = 0; i < perThread; i++) {
+					local[i] = generator.nextId();
+				}
+				for (long id : local) {
+					ids.add(id);
+				}
+			});
+			worker.start();
+			workers.add(worker);
+		}
+
+		start.countDown();
+		for (Thread worker : workers) {
+			worker.join();
+		}
+
+		assertThat(ids).hasSize(threads * perThread);
+	}
+
+	@Test
+	void separateNodesNeverCollide() {
+		IdGenerator first = new IdGenerator(1);
+		IdGenerator second = new IdGenerator(2);
+		Set<String> references = new HashSet<>();
+		for (int i = 0; i < 50_000; i++) {
+			assertThat(references.add(first.nextBookingReference())).isTrue();
+			assertThat(references.add(second.nextBookingReference())).isTrue();
+		}
+	}
+}